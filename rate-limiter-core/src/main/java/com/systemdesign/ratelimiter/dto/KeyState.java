@@ -0,0 +1,11 @@
+package com.systemdesign.ratelimiter.dto;
+
+import java.util.Map;
+
+// Decoded per-key state for the admin inspection endpoint
+public record KeyState(
+        String key,
+        double usage,       // 0..1 share of the limit in use right now
+        boolean blocked,    // the next hit would be rejected
+        Map<String, Object> state
+) {}
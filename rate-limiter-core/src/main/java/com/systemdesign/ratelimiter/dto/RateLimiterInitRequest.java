@@ -0,0 +1,142 @@
+package com.systemdesign.ratelimiter.dto;
+
+import com.systemdesign.ratelimiter.enums.QuotaPeriod;
+import com.systemdesign.ratelimiter.enums.RateLimiterAlgoType;
+import com.systemdesign.ratelimiter.enums.StoreFallback;
+
+public class RateLimiterInitRequest {
+
+    private RateLimiterAlgoType algorithm;
+
+    // fixed window / sliding window
+    private Integer maxRequests;
+    private Long windowSize;
+
+    // sliding window buckets: sub-buckets per window (precision)
+    private Integer subBuckets;
+
+    //buckets
+    private Integer bucketCapacity;
+
+    // token bucket
+    private Double refillRate;
+
+    // leaky bucket
+    private Integer leakRate;
+
+    // adaptive concurrency
+    private Integer initialLimit;
+    private Integer minLimit;
+    private Integer maxLimit;
+
+    // quota: maxRequests per calendar period (UTC)
+    private QuotaPeriod period;
+
+    // any algorithm with a store: latency budget per decision and what to answer past it (defaults from properties)
+    private Long storeBudgetMillis;
+    private StoreFallback storeFallback;
+
+    public RateLimiterAlgoType getAlgorithm() {
+        return algorithm;
+    }
+
+    public void setAlgorithm(RateLimiterAlgoType algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    public Integer getMaxRequests() {
+        return maxRequests;
+    }
+
+    public void setMaxRequests(Integer maxRequests) {
+        this.maxRequests = maxRequests;
+    }
+
+    public Long getWindowSize() {
+        return windowSize;
+    }
+
+    public void setWindowSize(Long windowSize) {
+        this.windowSize = windowSize;
+    }
+
+    public Integer getSubBuckets() {
+        return subBuckets;
+    }
+
+    public void setSubBuckets(Integer subBuckets) {
+        this.subBuckets = subBuckets;
+    }
+
+    public Integer getBucketCapacity() {
+        return bucketCapacity;
+    }
+
+    public void setBucketCapacity(Integer bucketCapacity) {
+        this.bucketCapacity = bucketCapacity;
+    }
+
+    public Double getRefillRate() {
+        return refillRate;
+    }
+
+    public void setRefillRate(Double refillRate) {
+        this.refillRate = refillRate;
+    }
+
+    public Integer getLeakRate() {
+        return leakRate;
+    }
+
+    public void setLeakRate(Integer leakRate) {
+        this.leakRate = leakRate;
+    }
+
+    public Integer getInitialLimit() {
+        return initialLimit;
+    }
+
+    public void setInitialLimit(Integer initialLimit) {
+        this.initialLimit = initialLimit;
+    }
+
+    public Integer getMinLimit() {
+        return minLimit;
+    }
+
+    public void setMinLimit(Integer minLimit) {
+        this.minLimit = minLimit;
+    }
+
+    public Integer getMaxLimit() {
+        return maxLimit;
+    }
+
+    public void setMaxLimit(Integer maxLimit) {
+        this.maxLimit = maxLimit;
+    }
+
+    public QuotaPeriod getPeriod() {
+        return period;
+    }
+
+    public void setPeriod(QuotaPeriod period) {
+        this.period = period;
+    }
+
+    public Long getStoreBudgetMillis() {
+        return storeBudgetMillis;
+    }
+
+    public void setStoreBudgetMillis(Long storeBudgetMillis) {
+        this.storeBudgetMillis = storeBudgetMillis;
+    }
+
+    public StoreFallback getStoreFallback() {
+        return storeFallback;
+    }
+
+    public void setStoreFallback(StoreFallback storeFallback) {
+        this.storeFallback = storeFallback;
+    }
+}
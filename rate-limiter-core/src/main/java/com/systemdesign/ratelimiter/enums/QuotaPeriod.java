@@ -0,0 +1,39 @@
+package com.systemdesign.ratelimiter.enums;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+// Calendar periods of a quota, in UTC: a daily quota restarts at midnight, a monthly one on the 1st
+public enum QuotaPeriod {
+    DAY,
+    MONTH;
+
+    private static final long DAY_MILLIS = 86_400_000L;
+
+    // start of the period that contains epochMillis
+    public long start(long epochMillis) {
+        return switch (this) {
+            case DAY -> Math.floorDiv(epochMillis, DAY_MILLIS) * DAY_MILLIS;
+            case MONTH -> Instant.ofEpochMilli(epochMillis)
+                    .atOffset(ZoneOffset.UTC)
+                    .toLocalDate()
+                    .withDayOfMonth(1)
+                    .atStartOfDay(ZoneOffset.UTC)
+                    .toInstant()
+                    .toEpochMilli();
+        };
+    }
+
+    // start of the next period, for a start returned by start()
+    public long end(long start) {
+        return switch (this) {
+            case DAY -> start + DAY_MILLIS;
+            case MONTH -> LocalDate.ofInstant(Instant.ofEpochMilli(start), ZoneOffset.UTC)
+                    .plusMonths(1)
+                    .atStartOfDay(ZoneOffset.UTC)
+                    .toInstant()
+                    .toEpochMilli();
+        };
+    }
+}
@@ -5,5 +5,8 @@ public enum RateLimiterAlgoType {
     TOKEN_BUCKET,
     SLIDING_WINDOW_LOG,
     SLIDING_WINDOW_COUNTER,
-    LEAKY_BUCKET
+    SLIDING_WINDOW_BUCKETS,
+    LEAKY_BUCKET,
+    ADAPTIVE_CONCURRENCY,
+    QUOTA
 }
@@ -0,0 +1,11 @@
+package com.systemdesign.ratelimiter.enums;
+
+// What a limiter answers when its store misses the latency budget or fails
+public enum StoreFallback {
+    // let the request through
+    FAIL_OPEN,
+    // reject the request
+    FAIL_CLOSED,
+    // decide on a limiter of this node with its own in-memory state (approximate)
+    LOCAL
+}
@@ -0,0 +1,8 @@
+package com.systemdesign.ratelimiter.model;
+
+public record AdaptiveConcurrencyConfig(
+        int initialLimit,
+        int minLimit,
+        int maxLimit
+        //limits are concurrent in-flight requests, not requests per second
+){}
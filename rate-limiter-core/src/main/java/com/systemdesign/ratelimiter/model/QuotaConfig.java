@@ -0,0 +1,9 @@
+package com.systemdesign.ratelimiter.model;
+
+import com.systemdesign.ratelimiter.enums.QuotaPeriod;
+
+public record QuotaConfig(
+        long limit,
+        QuotaPeriod period
+        //limit- requests per period, the count starts over at the start of every period
+) {}
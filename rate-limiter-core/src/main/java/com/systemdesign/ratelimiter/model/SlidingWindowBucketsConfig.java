@@ -0,0 +1,8 @@
+package com.systemdesign.ratelimiter.model;
+
+public record SlidingWindowBucketsConfig(
+        int maxRequests,
+        long windowSizeInSec,
+        int subBuckets
+        //subBuckets- how many slices the window is cut into, more slices -> closer to the sliding log
+){}
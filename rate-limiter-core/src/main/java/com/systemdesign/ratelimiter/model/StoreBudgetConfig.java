@@ -0,0 +1,11 @@
+package com.systemdesign.ratelimiter.model;
+
+import com.systemdesign.ratelimiter.enums.StoreFallback;
+
+public record StoreBudgetConfig(
+        long budgetMillis,
+        StoreFallback fallback,
+        int failureThreshold,
+        long openMillis
+        //failureThreshold- timeouts / errors in a row that open the circuit, openMillis- how long it stays open before one probe
+){}
@@ -0,0 +1,12 @@
+package com.systemdesign.ratelimiter.protocol;
+
+public record Decision(
+        int requestId,
+        byte status,
+        int remainingHits,
+        int retryAfter
+) {
+    public boolean allowed() {
+        return status == DecisionFrames.ALLOWED;
+    }
+}
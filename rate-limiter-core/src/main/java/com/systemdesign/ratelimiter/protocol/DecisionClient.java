@@ -0,0 +1,165 @@
+package com.systemdesign.ratelimiter.protocol;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+Pipelining client for DecisionServer over one persistent connection.
+Callers never touch the socket: requests are queued, a writer thread packs whatever is queued
+into one write, a reader thread completes the futures as decision frames come back.
+ */
+public class DecisionClient implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final SocketChannel channel;
+    private final BlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+    private final Map<Integer, CompletableFuture<Decision>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger();
+    private final Thread writer;
+    private volatile boolean closed;
+
+    private record Request(int id, byte[] policy, byte[] key, int permits) {
+    }
+
+    public DecisionClient(InetSocketAddress address) throws IOException {
+        this(address, 0);
+    }
+
+    // connectTimeoutMillis 0 -> wait as long as the OS does
+    public DecisionClient(InetSocketAddress address, long connectTimeoutMillis) throws IOException {
+        channel = SocketChannel.open();
+        try {
+            channel.socket().connect(address, (int) connectTimeoutMillis);
+            channel.socket().setTcpNoDelay(true);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+
+        writer = Thread.ofPlatform().daemon().name("decision-client-writer").start(this::writeLoop);
+        Thread.ofPlatform().daemon().name("decision-client-reader").start(this::readLoop);
+    }
+
+    // policy null / empty -> the server's /api/init limiter
+    public CompletableFuture<Decision> decide(String policy, String key, int permits) {
+        return decide(DecisionFrames.utf8(policy), DecisionFrames.utf8(key), permits);
+    }
+
+    public CompletableFuture<Decision> decide(byte[] policy, byte[] key, int permits) {
+        if (policy.length > DecisionFrames.MAX_POLICY_LENGTH || key.length > DecisionFrames.MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("policy or key too long");
+        }
+        if (permits < 1 || permits > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("permits must be between 1 and " + Short.MAX_VALUE);
+        }
+
+        CompletableFuture<Decision> future = new CompletableFuture<>();
+        if (closed) {
+            future.completeExceptionally(new IOException("Decision client is closed"));
+            return future;
+        }
+
+        int id = nextId.getAndIncrement();
+        inFlight.put(id, future);
+        // also when the caller gives up (cancel / orTimeout), a late answer is then dropped
+        future.whenComplete((decision, e) -> inFlight.remove(id, future));
+        queue.add(new Request(id, policy, key, permits));
+        // lost a race with fail(), nobody is going to answer
+        if (closed && inFlight.remove(id) != null) {
+            future.completeExceptionally(new IOException("Decision client is closed"));
+        }
+        return future;
+    }
+
+    public int pending() {
+        return inFlight.size();
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    private void writeLoop() {
+        ByteBuffer out = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        List<Request> batch = new ArrayList<>();
+        try {
+            while (!closed) {
+                batch.add(queue.take());
+                queue.drainTo(batch);
+
+                for (Request request : batch) {
+                    if (out.remaining() < DecisionFrames.requestSize(request.policy.length, request.key.length)) {
+                        drain(out);
+                    }
+                    DecisionFrames.writeRequest(out, request.id, request.policy, request.key, request.permits);
+                }
+                batch.clear();
+                drain(out);
+            }
+        } catch (InterruptedException | IOException e) {
+            fail(e);
+        }
+    }
+
+    private void drain(ByteBuffer out) throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+
+    private void readLoop() {
+        ByteBuffer in = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        try {
+            while (channel.read(in) >= 0) {
+                in.flip();
+                while (in.remaining() >= DecisionFrames.RESPONSE_SIZE) {
+                    Decision decision = DecisionFrames.readResponse(in);
+                    CompletableFuture<Decision> future = inFlight.remove(decision.requestId());
+                    if (future != null) {
+                        future.complete(decision);
+                    }
+                }
+                in.compact();
+            }
+            fail(new IOException("Decision server closed the connection"));
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    private void fail(Exception cause) {
+        closed = true;
+        if (writer != null && writer != Thread.currentThread()) {
+            writer.interrupt();
+        }
+        for (Integer id : inFlight.keySet()) {
+            CompletableFuture<Decision> future = inFlight.remove(id);
+            if (future != null) {
+                future.completeExceptionally(cause);
+            }
+        }
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // already gone
+        }
+    }
+
+    @Override
+    public void close() {
+        fail(new IOException("Decision client is closed"));
+    }
+}
@@ -0,0 +1,83 @@
+package com.systemdesign.ratelimiter.protocol;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/*
+Wire format of the binary decision protocol, all integers big endian.
+
+request  : int32 length (of everything after this field)
+           int32 requestId   echoed back so clients can pipeline
+           int16 permits
+           uint8 policy length, policy bytes (UTF-8, empty = the /api/init limiter)
+           uint16 key length, key bytes (UTF-8)
+
+response : int32 requestId
+           uint8 status, 3 bytes padding
+           int32 remaining hits
+           int32 retry after (seconds)
+           -> always RESPONSE_SIZE bytes
+ */
+public final class DecisionFrames {
+
+    public static final int RESPONSE_SIZE = 16;
+
+    public static final int MAX_POLICY_LENGTH = 255;
+    public static final int MAX_KEY_LENGTH = 1024;
+    // requestId + permits + both length prefixes
+    static final int MIN_REQUEST_LENGTH = 4 + 2 + 1 + 2;
+    static final int MAX_REQUEST_LENGTH = MIN_REQUEST_LENGTH + MAX_POLICY_LENGTH + MAX_KEY_LENGTH;
+
+    public static final byte ALLOWED = 0;
+    public static final byte REJECTED = 1;
+    public static final byte UNKNOWN_POLICY = 2;
+    // permits > 1 on an algorithm that can only count single hits
+    public static final byte UNSUPPORTED = 3;
+    // permits < 1, a key over MAX_KEY_LENGTH or the limiter failed, the connection stays open
+    public static final byte ERROR = 4;
+
+    private DecisionFrames() {
+    }
+
+    public static int requestSize(int policyBytes, int keyBytes) {
+        return 4 + MIN_REQUEST_LENGTH + policyBytes + keyBytes;
+    }
+
+    // Caller makes sure there is room for requestSize(...) bytes
+    public static void writeRequest(ByteBuffer out, int requestId, byte[] policy, byte[] key, int permits) {
+        if (policy.length > MAX_POLICY_LENGTH || key.length > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("policy or key too long");
+        }
+        if (permits < 1 || permits > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("permits must be between 1 and " + Short.MAX_VALUE);
+        }
+        out.putInt(MIN_REQUEST_LENGTH + policy.length + key.length);
+        out.putInt(requestId);
+        out.putShort((short) permits);
+        out.put((byte) policy.length);
+        out.put(policy);
+        out.putShort((short) key.length);
+        out.put(key);
+    }
+
+    static void writeResponse(ByteBuffer out, int requestId, byte status, int remaining, int retryAfter) {
+        out.putInt(requestId);
+        out.put(status);
+        out.put((byte) 0);
+        out.putShort((short) 0);
+        out.putInt(remaining);
+        out.putInt(retryAfter);
+    }
+
+    public static Decision readResponse(ByteBuffer in) {
+        int requestId = in.getInt();
+        byte status = in.get();
+        in.get();
+        in.getShort();
+        return new Decision(requestId, status, in.getInt(), in.getInt());
+    }
+
+    public static byte[] utf8(String value) {
+        return value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+    }
+}
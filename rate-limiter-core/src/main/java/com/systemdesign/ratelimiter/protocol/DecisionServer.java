@@ -0,0 +1,359 @@
+package com.systemdesign.ratelimiter.protocol;
+
+import com.systemdesign.ratelimiter.dto.RateLimiterHitResponse;
+import com.systemdesign.ratelimiter.service.algorithm.BlockingRateLimiter;
+import com.systemdesign.ratelimiter.service.algorithm.RateLimiter;
+import com.systemdesign.ratelimiter.service.cluster.OwnershipRing;
+import com.systemdesign.ratelimiter.service.policy.PolicyRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/*
+Binary decision endpoint (see DecisionFrames) on ratelimiter.binary.port, disabled when unset.
+One selector thread does the reads and writes of every connection. The frames of one read are
+decided as a batch on a virtual thread (a store may be slow, a budget waits for it), one batch per
+connection at a time, so answers are written in request order and a slow decision never holds up
+other connections. Hits forwarded by ring peers run on this node's limiter with everything but the
+routing (budget, blocked-client cache, tracing). Buffers, batch arrays and key strings are reused
+per connection, the protocol layer itself allocates nothing per frame for a repeated key.
+ */
+@Component
+public class DecisionServer {
+
+    private static final Log log = LogFactory.getLog(DecisionServer.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final PolicyRegistry registry;
+    private final int port;
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("decision-", 0).factory()
+    );
+    // connections whose batch is decided, their answers are sent from the selector thread
+    private final Queue<Connection> decided = new ConcurrentLinkedQueue<>();
+
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+
+    public DecisionServer(
+            PolicyRegistry registry,
+            @Value("${ratelimiter.binary.port:0}") int port
+    ) {
+        this.registry = registry;
+        this.port = port;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (port <= 0) {
+            return;
+        }
+
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port));
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        log.info("Binary decision protocol listening on port " + port);
+
+        Thread.ofPlatform()
+                .daemon()
+                .name("decision-server")
+                .start(this::run);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        if (selector == null) {
+            return;
+        }
+        serverChannel.close();
+        selector.close();
+        executor.shutdownNow();
+    }
+
+    public int port() {
+        return serverChannel == null ? -1 : ((InetSocketAddress) serverChannel.socket().getLocalSocketAddress()).getPort();
+    }
+
+    private void run() {
+        try {
+            while (selector.isOpen()) {
+                selector.select();
+                Connection connection;
+                while ((connection = decided.poll()) != null) {
+                    try {
+                        connection.decided();
+                    } catch (IOException | RuntimeException e) {
+                        log.warn("Closing decision connection", e);
+                        close(connection.key);
+                    }
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    try {
+                        handle(key);
+                    } catch (IOException | RuntimeException e) {
+                        // one broken client must not take the loop down
+                        log.warn("Closing decision connection", e);
+                        close(key);
+                    }
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            // stopped
+        }
+    }
+
+    private void handle(SelectionKey key) throws IOException {
+        if (key.isAcceptable()) {
+            SocketChannel channel = serverChannel.accept();
+            if (channel == null) {
+                return;
+            }
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            Connection connection = new Connection(channel);
+            connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+            return;
+        }
+
+        Connection connection = (Connection) key.attachment();
+        if (key.isReadable() && connection.channel.read(connection.in) < 0) {
+            close(key);
+            return;
+        }
+        connection.pump();
+    }
+
+    private void close(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException ignored) {
+            // already gone
+        }
+    }
+
+    private final class Connection {
+
+        // one answer per frame, so a batch never holds more frames than `out` has room for answers
+        static final int MAX_BATCH = BUFFER_SIZE / DecisionFrames.RESPONSE_SIZE;
+
+        final SocketChannel channel;
+        SelectionKey key;
+        final ByteBuffer in = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        final ByteBuffer out = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        final byte[] scratch = new byte[DecisionFrames.MAX_KEY_LENGTH];
+        final StringCache keys = new StringCache(1024);
+        final StringCache policies = new StringCache(16);
+
+        // the batch being decided: filled by the selector thread, read and answered by the decision thread
+        final int[] requestIds = new int[MAX_BATCH];
+        final int[] permits = new int[MAX_BATCH];
+        final String[] policyNames = new String[MAX_BATCH];
+        // null for a key over MAX_KEY_LENGTH
+        final String[] clientIds = new String[MAX_BATCH];
+        final ByteBuffer answers = ByteBuffer.allocate(BUFFER_SIZE);
+        final Runnable decideBatch = this::decideBatch;
+        int batchSize;
+        boolean busy;
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        // Hands every complete frame in the input buffer to a decision thread, as long as the answers fit
+        // in the output buffer. Frames that arrive meanwhile wait for the batch to be answered.
+        void process() throws IOException {
+            if (busy) {
+                return;
+            }
+            int room = Math.min(MAX_BATCH, out.remaining() / DecisionFrames.RESPONSE_SIZE);
+            int count = 0;
+            in.flip();
+            while (in.remaining() >= 4 && count < room) {
+                int length = in.getInt(in.position());
+                if (length < DecisionFrames.MIN_REQUEST_LENGTH || length > DecisionFrames.MAX_REQUEST_LENGTH) {
+                    throw new IOException("Bad frame length " + length);
+                }
+                if (in.remaining() < 4 + length) {
+                    break;
+                }
+                int frameEnd = in.position() + 4 + length;
+                in.getInt();
+                read(count++, frameEnd);
+                in.position(frameEnd);
+            }
+            in.compact();
+
+            if (count > 0) {
+                batchSize = count;
+                busy = true;
+                executor.execute(decideBatch);
+            }
+        }
+
+        private void read(int index, int frameEnd) throws IOException {
+            requestIds[index] = in.getInt();
+            permits[index] = in.getShort();
+
+            int policyLength = in.get() & 0xff;
+            if (in.position() + policyLength + 2 > frameEnd) {
+                throw new IOException("Frame lengths do not add up");
+            }
+            policyNames[index] = policies.get(in, policyLength, scratch);
+            int keyLength = in.getShort() & 0xffff;
+            if (in.position() + keyLength != frameEnd) {
+                throw new IOException("Frame lengths do not add up");
+            }
+            // the frame length allows a longer key when the policy is short, the frame itself is still sound
+            clientIds[index] = keyLength > DecisionFrames.MAX_KEY_LENGTH
+                    ? null
+                    : keys.get(in, keyLength, scratch);
+        }
+
+        // on the decision thread
+        private void decideBatch() {
+            try {
+                for (int i = 0; i < batchSize; i++) {
+                    decide(requestIds[i], permits[i], policyNames[i], clientIds[i]);
+                }
+            } finally {
+                decided.add(this);
+                selector.wakeup();
+            }
+        }
+
+        private void decide(int requestId, int permits, String policy, String clientId) {
+            if (clientId == null) {
+                DecisionFrames.writeResponse(answers, requestId, DecisionFrames.ERROR, 0, 0);
+                return;
+            }
+
+            RateLimiter routed = registry.resolve(policy);
+            if (routed == null) {
+                DecisionFrames.writeResponse(answers, requestId, DecisionFrames.UNKNOWN_POLICY, 0, 0);
+                return;
+            }
+            // never forward again: peers forward their keys here, this node owns them
+            RateLimiter limiter = OwnershipRing.owned(routed);
+
+            if (permits < 1) {
+                DecisionFrames.writeResponse(answers, requestId, DecisionFrames.ERROR, 0, 0);
+                return;
+            }
+
+            RateLimiterHitResponse response;
+            try {
+                if (permits == 1) {
+                    response = limiter.hitEndpoint(clientId);
+                } else if (limiter.unwrap() instanceof BlockingRateLimiter blockingLimiter) {
+                    // reserved on the algorithm itself like /api/acquire, zero timeout never parks
+                    response = blockingLimiter.acquireAsync(clientId, permits, Duration.ZERO).join();
+                } else {
+                    DecisionFrames.writeResponse(answers, requestId, DecisionFrames.UNSUPPORTED, 0, 0);
+                    return;
+                }
+            } catch (RuntimeException e) {
+                DecisionFrames.writeResponse(answers, requestId, DecisionFrames.ERROR, 0, 0);
+                return;
+            }
+
+            DecisionFrames.writeResponse(
+                    answers,
+                    requestId,
+                    response.accepted() ? DecisionFrames.ALLOWED : DecisionFrames.REJECTED,
+                    response.remainingHits(),
+                    (int) Math.min(Integer.MAX_VALUE, response.retryAfter())
+            );
+        }
+
+        // back on the selector thread: send the answers, start on what arrived meanwhile
+        void decided() throws IOException {
+            busy = false;
+            if (!key.isValid()) {
+                return;
+            }
+            out.put(answers.flip());
+            answers.clear();
+            pump();
+        }
+
+        // Writes what the socket takes, which makes room for more answers, then starts the next batch
+        void pump() throws IOException {
+            out.flip();
+            channel.write(out);
+            out.compact();
+            process();
+
+            // still data to send -> wait for OP_WRITE, a full input buffer is read again once frames are taken out
+            int ops = (in.hasRemaining() ? SelectionKey.OP_READ : 0)
+                    | (out.position() > 0 ? SelectionKey.OP_WRITE : 0);
+            if (key.interestOps() != ops) {
+                key.interestOps(ops);
+            }
+        }
+    }
+
+    /*
+    Direct mapped cache of decoded strings. Hot keys come back as the same String instance,
+    a miss (or a colliding key) decodes a new one and takes over the slot.
+     */
+    private static final class StringCache {
+
+        private final byte[][] bytes;
+        private final String[] values;
+        private final int mask;
+
+        StringCache(int size) {
+            bytes = new byte[size][];
+            values = new String[size];
+            mask = size - 1;
+        }
+
+        String get(ByteBuffer in, int length, byte[] scratch) {
+            in.get(scratch, 0, length);
+
+            int hash = 0x811c9dc5;
+            for (int i = 0; i < length; i++) {
+                hash = (hash ^ scratch[i]) * 0x01000193;
+            }
+            int slot = (hash ^ (hash >>> 16)) & mask;
+
+            byte[] cached = bytes[slot];
+            if (cached != null && Arrays.equals(cached, 0, cached.length, scratch, 0, length)) {
+                return values[slot];
+            }
+
+            byte[] copy = Arrays.copyOf(scratch, length);
+            String value = new String(copy, StandardCharsets.UTF_8);
+            bytes[slot] = copy;
+            values[slot] = value;
+            return value;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.systemdesign.ratelimiter.service.algorithm.AdaptiveConcurrency;
+
+import com.systemdesign.ratelimiter.dto.RateLimiterHitResponse;
+import com.systemdesign.ratelimiter.model.AdaptiveConcurrencyConfig;
+import com.systemdesign.ratelimiter.service.algorithm.RateLimiter;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleUnaryOperator;
+
+/*
+Gradient style concurrency limit, shared by all clients because it protects one backend.
+Every completion compares a short latency average against a long baseline:
+ - latency at baseline  -> limit grows by sqrt(limit) (only while we actually use the limit)
+ - latency climbing     -> limit shrinks proportionally (gradient, floored at 0.5)
+ - request failed       -> multiplicative decrease (AIMD)
+All estimates are doubles stored as long bits and updated with CAS, no locks on the hot path.
+ */
+public class AdaptiveConcurrencyRateLimiter implements RateLimiter {
+
+    // how much the short average may exceed the baseline before we back off
+    private static final double RTT_TOLERANCE = 1.5;
+    private static final double SHORT_RTT_SMOOTHING = 0.1;
+    private static final double LONG_RTT_SMOOTHING = 0.002;
+    private static final double LIMIT_SMOOTHING = 0.2;
+    private static final double ERROR_BACKOFF = 0.9;
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final AdaptiveConcurrencyConfig config;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong limitBits;
+    private final AtomicLong shortRttBits = new AtomicLong(Double.doubleToRawLongBits(0));
+    private final AtomicLong longRttBits = new AtomicLong(Double.doubleToRawLongBits(0));
+
+    public AdaptiveConcurrencyRateLimiter(AdaptiveConcurrencyConfig config) {
+        this.config = config;
+        this.limitBits = new AtomicLong(Double.doubleToRawLongBits(config.initialLimit()));
+    }
+
+    @Override
+    public RateLimiterHitResponse hitEndpoint(String clientId) {
+        long now = System.currentTimeMillis();
+        int limit = currentLimit();
+
+        int current;
+        boolean allowed;
+        do {
+            current = inFlight.get();
+            allowed = current < limit;
+        } while (allowed && !inFlight.compareAndSet(current, current + 1));
+
+        int inFlightAfter = allowed ? current + 1 : current;
+
+        return new RateLimiterHitResponse(
+                allowed,
+                allowed ? "ALLOWED" : "Concurrency limit reached",
+                now,
+                allowed ? 0 : 1,
+                Math.max(0, limit - inFlightAfter),
+                Map.of(
+                        "inFlight", inFlightAfter,
+                        "limit", limit,
+                        "shortRttMillis", load(shortRttBits) / 1_000_000.0,
+                        "longRttMillis", load(longRttBits) / 1_000_000.0
+                )
+        );
+    }
+
+    @Override
+    public void onComplete(String clientId, long latencyNanos, boolean success) {
+        // ignore stray completions so a buggy caller cannot push inFlight below zero
+        int current;
+        do {
+            current = inFlight.get();
+            if (current == 0) {
+                return;
+            }
+        } while (!inFlight.compareAndSet(current, current - 1));
+
+        if (!success) {
+            updateLimit(limit -> limit * ERROR_BACKOFF);
+            return;
+        }
+
+        double rtt = Math.max(1, latencyNanos);
+        double shortRtt = ewma(shortRttBits, rtt, SHORT_RTT_SMOOTHING);
+        double longRtt = ewma(longRttBits, rtt, LONG_RTT_SMOOTHING);
+
+        // baseline drifts up slowly under sustained load, pull it back when short term recovers
+        if (longRtt > shortRtt * 2) {
+            longRtt = ewma(longRttBits, shortRtt, 0.5);
+        }
+
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, RTT_TOLERANCE * longRtt / shortRtt));
+        // app limited: no evidence the current limit is too small
+        boolean saturated = current >= currentLimit() / 2;
+
+        updateLimit(limit -> {
+            double queueSize = saturated ? Math.sqrt(limit) : 0;
+            double target = limit * gradient + queueSize;
+            return limit * (1 - LIMIT_SMOOTHING) + target * LIMIT_SMOOTHING;
+        });
+    }
+
+    // Forgets the limit and latency history only. Requests admitted before the reset still complete
+    // afterwards, zeroing inFlight would let their completions free slots that newer requests hold.
+    @Override
+    public void reset() {
+        limitBits.set(Double.doubleToRawLongBits(config.initialLimit()));
+        shortRttBits.set(Double.doubleToRawLongBits(0));
+        longRttBits.set(Double.doubleToRawLongBits(0));
+    }
+
+    // Keeps in-flight accounting and latency history, the limit is clamped to the new bounds
+    @Override
+    public void migrateFrom(RateLimiter previous) {
+        if (!(previous instanceof AdaptiveConcurrencyRateLimiter old)) {
+            return;
+        }
+        inFlight.set(old.inFlight.get());
+        shortRttBits.set(old.shortRttBits.get());
+        longRttBits.set(old.longRttBits.get());
+        updateLimit(limit -> load(old.limitBits));
+    }
+
+    private int currentLimit() {
+        return (int) load(limitBits);
+    }
+
+    private void updateLimit(DoubleUnaryOperator update) {
+        long prevBits;
+        long nextBits;
+        do {
+            prevBits = limitBits.get();
+            double next = update.applyAsDouble(Double.longBitsToDouble(prevBits));
+            next = Math.max(config.minLimit(), Math.min(config.maxLimit(), next));
+            nextBits = Double.doubleToRawLongBits(next);
+        } while (!limitBits.compareAndSet(prevBits, nextBits));
+    }
+
+    private static double ewma(AtomicLong bits, double sample, double smoothing) {
+        long prevBits;
+        double next;
+        do {
+            prevBits = bits.get();
+            double prev = Double.longBitsToDouble(prevBits);
+            next = prev == 0 ? sample : prev + (sample - prev) * smoothing;
+        } while (!bits.compareAndSet(prevBits, Double.doubleToRawLongBits(next)));
+        return next;
+    }
+
+    private static double load(AtomicLong bits) {
+        return Double.longBitsToDouble(bits.get());
+    }
+}
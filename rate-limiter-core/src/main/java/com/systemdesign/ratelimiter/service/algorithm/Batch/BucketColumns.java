@@ -0,0 +1,185 @@
+package com.systemdesign.ratelimiter.service.algorithm.Batch;
+
+import com.systemdesign.ratelimiter.model.LeakyBucketConfig;
+import com.systemdesign.ratelimiter.model.TokenBucketConfig;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+Token / leaky bucket state for batch and replay workloads, laid out as columns (structure of arrays):
+key i lives at levels[i] / stamps[i] instead of in a TokenBucketState per key, so a batch is a few
+tight loops over primitive arrays that a BucketKernel can evaluate several lanes at a time.
+
+A leaky bucket is the same kernel run on its free space: with free = capacity - water,
+leaking water at leakRate is refilling free space at leakRate, clamped at capacity, and a hit fits
+while free >= 1. The level of a leaky bucket is therefore capacity - water (equal to
+LeakyBucketRateLimiter up to rounding, token buckets match TokenBucketRateLimiter exactly).
+
+decide() gathers the buckets of a batch into scratch arrays, runs the kernel and scatters them back.
+A key that appears more than once is decided once per round, in input order, so its later hits
+see the earlier ones. decideAll() gives every known key one hit and runs on the columns directly.
+One batch at a time: both are synchronized. Keys are never evicted, reset() drops them all.
+ */
+public class BucketColumns {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final double capacity;
+    private final double ratePerSecond;
+    private final BucketKernel kernel;
+
+    private final Map<String, Integer> slots = new HashMap<>();
+    private double[] levels = new double[INITIAL_CAPACITY];
+    private long[] stamps = new long[INITIAL_CAPACITY];
+    // round in which a slot was last taken into a batch, finds repeated keys
+    private int[] rounds = new int[INITIAL_CAPACITY];
+    private int round;
+    private int size;
+
+    // scratch, grown to the largest batch seen
+    private int[] inputSlots = new int[0];
+    private int[] batchSlots = new int[0];
+    private int[] batchInputs = new int[0];
+    private double[] batchLevels = new double[0];
+    private long[] batchStamps = new long[0];
+    private boolean[] batchAllowed = new boolean[0];
+    private int[] pending = new int[0];
+
+    public BucketColumns(double capacity, double ratePerSecond, BucketKernel kernel) {
+        if (capacity < 1 || ratePerSecond <= 0) {
+            throw new IllegalArgumentException("capacity must be >= 1 and rate > 0");
+        }
+        this.capacity = capacity;
+        this.ratePerSecond = ratePerSecond;
+        this.kernel = kernel;
+    }
+
+    public static BucketColumns tokenBucket(TokenBucketConfig config, BucketKernel kernel) {
+        return new BucketColumns(config.capacity(), config.refillRatePerSecond(), kernel);
+    }
+
+    public static BucketColumns leakyBucket(LeakyBucketConfig config, BucketKernel kernel) {
+        return new BucketColumns(config.bucketCapacity(), config.leakRateInSec(), kernel);
+    }
+
+    /*
+    One hit for each of keys[0..count), all at time now.
+    allowed[i]: decision for keys[i], levelsAfter[i]: its level right after it (tokens / free space)
+     */
+    public synchronized void decide(String[] keys, int count, long now, boolean[] allowed, double[] levelsAfter) {
+        ensureBatchCapacity(count);
+        for (int i = 0; i < count; i++) {
+            inputSlots[i] = slot(keys[i], now);
+            pending[i] = i;
+        }
+
+        int remaining = count;
+        while (remaining > 0) {
+            int currentRound = nextRound();
+            int batch = 0;
+            int deferred = 0;
+            for (int p = 0; p < remaining; p++) {
+                int input = pending[p];
+                int slot = inputSlots[input];
+                if (rounds[slot] == currentRound) {
+                    // same key again, next round
+                    pending[deferred++] = input;
+                    continue;
+                }
+                rounds[slot] = currentRound;
+                batchSlots[batch] = slot;
+                batchInputs[batch] = input;
+                batchLevels[batch] = levels[slot];
+                batchStamps[batch] = stamps[slot];
+                batch++;
+            }
+
+            kernel.decide(batchLevels, batchStamps, batch, now, capacity, ratePerSecond, batchAllowed);
+
+            for (int b = 0; b < batch; b++) {
+                int slot = batchSlots[b];
+                levels[slot] = batchLevels[b];
+                stamps[slot] = batchStamps[b];
+                allowed[batchInputs[b]] = batchAllowed[b];
+                levelsAfter[batchInputs[b]] = batchLevels[b];
+            }
+            remaining = deferred;
+        }
+    }
+
+    // one hit for every known key, allowed is indexed by slot (see slotOf) and at least size() long
+    public synchronized void decideAll(long now, boolean[] allowed) {
+        kernel.decide(levels, stamps, size, now, capacity, ratePerSecond, allowed);
+    }
+
+    // -1 if the key was never seen
+    public synchronized int slotOf(String key) {
+        Integer slot = slots.get(key);
+        return slot == null ? -1 : slot;
+    }
+
+    // level as of now, NaN if the key was never seen
+    public synchronized double level(String key, long now) {
+        Integer slot = slots.get(key);
+        if (slot == null) {
+            return Double.NaN;
+        }
+        return Math.min(capacity, levels[slot] + (now - stamps[slot]) / 1000.0 * ratePerSecond);
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized void reset() {
+        slots.clear();
+        size = 0;
+    }
+
+    public BucketKernel kernel() {
+        return kernel;
+    }
+
+    // new keys start full, like a first hit on TokenBucketRateLimiter
+    private int slot(String key, long now) {
+        Integer slot = slots.get(key);
+        if (slot != null) {
+            return slot;
+        }
+        if (size == levels.length) {
+            int grown = size * 2;
+            levels = Arrays.copyOf(levels, grown);
+            stamps = Arrays.copyOf(stamps, grown);
+            rounds = Arrays.copyOf(rounds, grown);
+        }
+        int created = size++;
+        levels[created] = capacity;
+        stamps[created] = now;
+        rounds[created] = 0;
+        slots.put(key, created);
+        return created;
+    }
+
+    private int nextRound() {
+        if (++round == Integer.MAX_VALUE) {
+            Arrays.fill(rounds, 0);
+            round = 1;
+        }
+        return round;
+    }
+
+    private void ensureBatchCapacity(int count) {
+        if (batchSlots.length >= count) {
+            return;
+        }
+        inputSlots = new int[count];
+        batchSlots = new int[count];
+        batchInputs = new int[count];
+        batchLevels = new double[count];
+        batchStamps = new long[count];
+        batchAllowed = new boolean[count];
+        pending = new int[count];
+    }
+}
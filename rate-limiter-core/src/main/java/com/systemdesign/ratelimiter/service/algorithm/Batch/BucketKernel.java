@@ -0,0 +1,34 @@
+package com.systemdesign.ratelimiter.service.algorithm.Batch;
+
+/*
+One hit for each of the first `count` buckets, all at time `now`:
+  level    = min(capacity, level + (now - stamp) / 1000.0 * ratePerSecond)   refill, clamp
+  allowed  = level >= 1                                                      compare
+  level   -= allowed ? 1 : 0, stamp = now                                    consume
+levels and stamps are updated in place. Same arithmetic, in the same order, as
+TokenBucketRateLimiter.refill(), so every kernel gives bit for bit the same levels.
+ */
+public interface BucketKernel {
+
+    void decide(
+            double[] levels,
+            long[] stamps,
+            int count,
+            long now,
+            double capacity,
+            double ratePerSecond,
+            boolean[] allowed
+    );
+
+    String name();
+
+    // the Vector API kernel when jdk.incubator.vector is in the boot layer (--add-modules jdk.incubator.vector)
+    // and not turned off with -Dratelimiter.batch.vector=false, the scalar loop otherwise
+    static BucketKernel best() {
+        boolean vectorModule = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+        if (vectorModule && Boolean.parseBoolean(System.getProperty("ratelimiter.batch.vector", "true"))) {
+            return new VectorBucketKernel();
+        }
+        return new ScalarBucketKernel();
+    }
+}
@@ -0,0 +1,43 @@
+package com.systemdesign.ratelimiter.service.algorithm.Batch;
+
+public class ScalarBucketKernel implements BucketKernel {
+
+    @Override
+    public void decide(
+            double[] levels,
+            long[] stamps,
+            int count,
+            long now,
+            double capacity,
+            double ratePerSecond,
+            boolean[] allowed
+    ) {
+        decide(levels, stamps, 0, count, now, capacity, ratePerSecond, allowed);
+    }
+
+    // also the tail of the vector kernel, the lanes that don't fill a whole vector
+    static void decide(
+            double[] levels,
+            long[] stamps,
+            int from,
+            int to,
+            long now,
+            double capacity,
+            double ratePerSecond,
+            boolean[] allowed
+    ) {
+        for (int i = from; i < to; i++) {
+            double elapsedSeconds = (now - stamps[i]) / 1000.0;
+            double level = Math.min(capacity, levels[i] + elapsedSeconds * ratePerSecond);
+            boolean ok = level >= 1.0;
+            levels[i] = ok ? level - 1.0 : level;
+            stamps[i] = now;
+            allowed[i] = ok;
+        }
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+}
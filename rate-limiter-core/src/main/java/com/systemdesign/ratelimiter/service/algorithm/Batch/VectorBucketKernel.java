@@ -0,0 +1,54 @@
+package com.systemdesign.ratelimiter.service.algorithm.Batch;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/*
+Refill, clamp, compare and consume for DOUBLES.length() buckets per iteration (4 with AVX2, 8 with AVX-512).
+Longs and doubles are both 64 bit, so the preferred species of each have the same lane count and
+the L2D conversion keeps the shape. Needs --add-modules jdk.incubator.vector, see BucketKernel.best().
+ */
+public class VectorBucketKernel implements BucketKernel {
+
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+
+    @Override
+    public void decide(
+            double[] levels,
+            long[] stamps,
+            int count,
+            long now,
+            double capacity,
+            double ratePerSecond,
+            boolean[] allowed
+    ) {
+        LongVector nowLanes = LongVector.broadcast(LONGS, now);
+        int upper = DOUBLES.loopBound(count);
+        int i = 0;
+        for (; i < upper; i += DOUBLES.length()) {
+            LongVector stamp = LongVector.fromArray(LONGS, stamps, i);
+            DoubleVector elapsedSeconds = ((DoubleVector) nowLanes.sub(stamp)
+                    .convert(VectorOperators.L2D, 0))
+                    .div(1000.0);
+
+            DoubleVector level = DoubleVector.fromArray(DOUBLES, levels, i)
+                    .add(elapsedSeconds.mul(ratePerSecond))
+                    .min(capacity);
+            VectorMask<Double> ok = level.compare(VectorOperators.GE, 1.0);
+
+            level.sub(1.0, ok).intoArray(levels, i);
+            nowLanes.intoArray(stamps, i);
+            ok.intoArray(allowed, i);
+        }
+        ScalarBucketKernel.decide(levels, stamps, i, count, now, capacity, ratePerSecond, allowed);
+    }
+
+    @Override
+    public String name() {
+        return "vector " + DOUBLES.length() + "x64";
+    }
+}
@@ -0,0 +1,38 @@
+package com.systemdesign.ratelimiter.service.algorithm;
+
+import com.systemdesign.ratelimiter.dto.RateLimiterHitResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/*
+Limiters that can make a caller wait for capacity instead of rejecting straight away.
+Permits are reserved up front (in arrival order per key), the caller is then parked until the
+reservation matures. If the wait would exceed the timeout nothing is reserved and the response
+is rejected immediately. Cancelling the returned future gives the reserved permits back.
+ */
+public interface BlockingRateLimiter extends RateLimiter {
+
+    CompletableFuture<RateLimiterHitResponse> acquireAsync(String clientId, int permits, Duration timeout);
+
+    default RateLimiterHitResponse acquire(String clientId, int permits, Duration timeout)
+            throws InterruptedException {
+
+        CompletableFuture<RateLimiterHitResponse> future = acquireAsync(clientId, permits, timeout);
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            throw e;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (CancellationException e) {
+            throw new IllegalStateException("Acquire was cancelled", e);
+        }
+    }
+}
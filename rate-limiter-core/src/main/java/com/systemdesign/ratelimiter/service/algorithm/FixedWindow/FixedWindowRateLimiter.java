@@ -0,0 +1,216 @@
+package com.systemdesign.ratelimiter.service.algorithm.FixedWindow;
+
+import com.systemdesign.ratelimiter.dto.KeyState;
+import com.systemdesign.ratelimiter.dto.RateLimiterHitResponse;
+import com.systemdesign.ratelimiter.model.FixedWindowConfig;
+import com.systemdesign.ratelimiter.service.algorithm.RateLimiter;
+import com.systemdesign.ratelimiter.service.cluster.ReplicatedCounters;
+import com.systemdesign.ratelimiter.store.RateLimiterStore;
+
+import java.util.Map;
+import java.util.function.Consumer;
+
+public class FixedWindowRateLimiter implements RateLimiter {
+
+    private final FixedWindowConfig config;
+    private final RateLimiterStore<FixedWindowState> store;
+    // null on a single node
+    private final ReplicatedCounters counters;
+
+    public FixedWindowRateLimiter(
+            FixedWindowConfig config,
+            RateLimiterStore<FixedWindowState> store
+    ) {
+        this(config, store, null);
+    }
+
+    public FixedWindowRateLimiter(
+            FixedWindowConfig config,
+            RateLimiterStore<FixedWindowState> store,
+            ReplicatedCounters counters
+    ) {
+        this.config = config;
+        this.store = store;
+        this.counters = counters;
+    }
+
+    @Override
+    public RateLimiterHitResponse hitEndpoint(String clientId) {
+
+        long now = System.currentTimeMillis();
+        long windowSizeMs = config.windowSizeInSec() * 1000L;
+
+        if (counters != null) {
+            return hitReplicated(clientId, now, windowSizeMs);
+        }
+
+        Result result = new Result();
+
+        store.compute(clientId, (id, state) -> {
+
+            // New window
+            if (state == null || now - state.windowStart() >= windowSizeMs) {
+                result.allowed = true;
+                result.countAfter = 1;
+                result.retryAfter = 0;
+                result.windowStart = now;
+                return new FixedWindowState(1, now);
+            }
+
+            // Window full
+            if (state.requestCount() >= config.maxRequests()) {
+                result.allowed = false;
+                result.countAfter = state.requestCount();
+                result.windowStart = state.windowStart();
+
+                long windowEndMs = state.windowStart() + windowSizeMs;
+                long retryAfterMs = windowEndMs - now;
+                result.retryAfter = (long) Math.ceil(retryAfterMs / 1000.0);
+
+                return state;
+            }
+
+            // Accept request
+            result.allowed = true;
+            result.countAfter = state.requestCount() + 1;
+            result.retryAfter = 0;
+            result.windowStart = state.windowStart();
+
+            return new FixedWindowState(
+                    state.requestCount() + 1,
+                    state.windowStart()
+            );
+        });
+
+        return response(now, windowSizeMs, result);
+    }
+
+    /*
+    Cluster mode: windows are aligned to the epoch so every node counts the same window,
+    the limit applies to the local count plus what the peers reported for that window.
+    Peers are only as fresh as the last gossip round, so the cluster can overshoot by about
+    (nodes - 1) * rate * gossip interval.
+     */
+    private RateLimiterHitResponse hitReplicated(String clientId, long now, long windowSizeMs) {
+
+        long windowStart = now - Math.floorMod(now, windowSizeMs);
+        String key = counters.key(clientId, windowStart);
+        // a client id too long to gossip is counted on this node only, checked before the hit is
+        boolean replicated = counters.replicable(key);
+        long remote = replicated ? counters.remote(key) : 0;
+
+        Result result = new Result();
+        result.windowStart = windowStart;
+
+        store.compute(clientId, (id, state) -> {
+            int local = state == null || state.windowStart() != windowStart
+                    ? 0
+                    : state.requestCount();
+
+            if (local + remote >= config.maxRequests()) {
+                result.allowed = false;
+                result.countAfter = (int) Math.min(Integer.MAX_VALUE, local + remote);
+                result.retryAfter = (long) Math.ceil((windowStart + windowSizeMs - now) / 1000.0);
+                return new FixedWindowState(local, windowStart);
+            }
+
+            result.allowed = true;
+            result.countAfter = (int) Math.min(Integer.MAX_VALUE, local + 1 + remote);
+            result.retryAfter = 0;
+            return new FixedWindowState(local + 1, windowStart);
+        });
+
+        if (result.allowed && replicated) {
+            // kept one extra window so late gossip for it is still merged, not resurrected
+            counters.add(key, 1, windowStart + 2 * windowSizeMs);
+        }
+
+        return response(now, windowSizeMs, result);
+    }
+
+    private RateLimiterHitResponse response(long now, long windowSizeMs, Result result) {
+
+        int remainingCapacity =
+                Math.max(0, config.maxRequests() - result.countAfter);
+
+        long windowEndMs = result.windowStart + windowSizeMs;
+
+        return new RateLimiterHitResponse(
+                result.allowed,
+                result.allowed
+                        ? "Request allowed in fixed window"
+                        : "Fixed window limit reached",
+                now,
+                result.retryAfter,
+                remainingCapacity,
+                Map.of(
+                        "currentCount", result.countAfter,
+                        "maxRequests", config.maxRequests(),
+                        "windowStart", result.windowStart,
+                        "windowEnd", windowEndMs
+                )
+        );
+    }
+    @Override
+    public void reset(){
+        store.reset();
+        if (counters != null) {
+            counters.resetLocal();
+        }
+    }
+
+    @Override
+    public void reset(String keyPrefix) {
+        store.reset(keyPrefix);
+        if (counters != null) {
+            counters.resetLocal(keyPrefix);
+        }
+    }
+
+    @Override
+    public int inspectSegments() {
+        return store.segments();
+    }
+
+    @Override
+    public void inspect(int segment, Consumer<KeyState> sink) {
+        long now = System.currentTimeMillis();
+        long windowSizeMs = config.windowSizeInSec() * 1000L;
+        long alignedStart = now - Math.floorMod(now, windowSizeMs);
+
+        store.forEach(segment, (clientId, state) -> {
+            long count;
+            if (counters != null) {
+                count = state.windowStart() == alignedStart ? state.requestCount() : 0;
+                count += counters.remote(counters.key(clientId, alignedStart));
+            } else {
+                count = now - state.windowStart() >= windowSizeMs ? 0 : state.requestCount();
+            }
+            sink.accept(new KeyState(
+                    clientId,
+                    (double) count / config.maxRequests(),
+                    count >= config.maxRequests(),
+                    Map.of(
+                            "currentCount", count,
+                            "maxRequests", config.maxRequests(),
+                            "windowStart", counters != null ? alignedStart : state.windowStart()
+                    )
+            ));
+        });
+    }
+
+    private static class Result {
+        boolean allowed;
+        int countAfter;
+        long retryAfter;
+        long windowStart;
+    }
+}
+
+/*
+1. always send using request response object
+2. it is not necessary to always init the members of a class using constructor.
+you can make the constructor a default constructor and then use getters and setters to init the
+variables.
+3. always separate layers
+ */
@@ -0,0 +1,26 @@
+package com.systemdesign.ratelimiter.service.algorithm.LeakyBucket;
+
+import com.systemdesign.ratelimiter.dto.RateLimiterHitResponse;
+import com.systemdesign.ratelimiter.service.scheduler.HashedWheelTimer;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+
+// Mutable per-key shaping queue, only ever touched inside the owning map's compute()
+class LeakyBucketQueue {
+
+    final Deque<Waiter> waiting = new ArrayDeque<>();
+    long nextReleaseNanos;
+    // the pending drain, set right after it is scheduled (outside compute), cancelled on reset
+    volatile HashedWheelTimer.Timeout drain;
+
+    LeakyBucketQueue(long nextReleaseNanos) {
+        this.nextReleaseNanos = nextReleaseNanos;
+    }
+
+    record Waiter(
+            CompletableFuture<RateLimiterHitResponse> future,
+            long enqueuedAtMillis
+    ){}
+}
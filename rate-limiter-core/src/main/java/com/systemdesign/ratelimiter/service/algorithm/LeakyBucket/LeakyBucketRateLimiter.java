@@ -0,0 +1,289 @@
+package com.systemdesign.ratelimiter.service.algorithm.LeakyBucket;
+
+import com.systemdesign.ratelimiter.dto.KeyState;
+import com.systemdesign.ratelimiter.dto.RateLimiterHitResponse;
+import com.systemdesign.ratelimiter.model.LeakyBucketConfig;
+import com.systemdesign.ratelimiter.service.algorithm.BlockingRateLimiter;
+import com.systemdesign.ratelimiter.service.algorithm.RateLimiter;
+import com.systemdesign.ratelimiter.service.algorithm.Reservations;
+import com.systemdesign.ratelimiter.service.algorithm.ShapingRateLimiter;
+import com.systemdesign.ratelimiter.service.algorithm.StateMigration;
+import com.systemdesign.ratelimiter.service.scheduler.HashedWheelTimer;
+import com.systemdesign.ratelimiter.store.RateLimiterStore;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+public class LeakyBucketRateLimiter implements BlockingRateLimiter, ShapingRateLimiter {
+
+    private final LeakyBucketConfig config;
+    private final RateLimiterStore<LeakyBucketState> store;
+    private final HashedWheelTimer timer;
+    private final LeakyBucketShaper shaper;
+    // set when a reload replaced this limiter on the same store: from then on it writes nothing and forwards
+    private volatile LeakyBucketRateLimiter replacedBy;
+    // non-null while states written under the previous limiter's config are being rescaled
+    private volatile StateMigration<LeakyBucketState> migration;
+
+    public LeakyBucketRateLimiter(
+            LeakyBucketConfig config,
+            RateLimiterStore<LeakyBucketState> store,
+            HashedWheelTimer timer
+    ) {
+        this.config = config;
+        this.store = store;
+        this.timer = timer;
+        this.shaper = new LeakyBucketShaper(config, timer);
+    }
+
+    private static class Result {
+        boolean allowed;
+        double waterAfter;
+        long retryAfterSeconds;
+        long waitMillis;
+        boolean replaced;
+    }
+
+    @Override
+    public RateLimiterHitResponse hitEndpoint(String clientId) {
+        long now = System.currentTimeMillis();
+        Result result = new Result();
+
+        store.compute(clientId, (id, current) -> {
+            if (replacedBy != null) {
+                result.replaced = true;
+                return current;
+            }
+            LeakyBucketState state = migrate(id, current, now);
+
+            if (state == null) {
+                result.allowed = true;
+                result.waterAfter = 1;
+                result.retryAfterSeconds = 0;
+                return new LeakyBucketState(1, now);
+            }
+
+            double water = leak(state, now);
+
+            if (water + 1 <= config.bucketCapacity()) {
+                result.allowed = true;
+                water += 1;
+                result.waterAfter = water;
+                result.retryAfterSeconds = 0;
+            } else {
+                result.allowed = false;
+                result.waterAfter = water;
+
+                // seconds until 1 request leaks out
+                double secondsToLeakOne =
+                        (water - config.bucketCapacity() + 1)
+                                / config.leakRateInSec();
+
+                result.retryAfterSeconds =
+                        (long) Math.ceil(secondsToLeakOne);
+            }
+
+            return new LeakyBucketState(water, now);
+        });
+
+        if (result.replaced) {
+            return replacedBy.hitEndpoint(clientId);
+        }
+
+        int remainingCapacity = Math.max(
+                0,
+                (int) Math.floor(config.bucketCapacity() - result.waterAfter)
+        );
+
+        return new RateLimiterHitResponse(
+                result.allowed,
+                result.allowed ? "ALLOWED" : "BLOCKED",
+                now,
+                result.retryAfterSeconds,
+                remainingCapacity,
+                Map.of(
+                        "queueSize", result.waterAfter,
+                        "capacity", config.bucketCapacity(),
+                        "leakRatePerSec", config.leakRateInSec()
+                )
+        );
+    }
+    @Override
+    public CompletableFuture<RateLimiterHitResponse> acquireAsync(
+            String clientId,
+            int permits,
+            Duration timeout
+    ) {
+        if (permits <= 0 || permits > config.bucketCapacity()) {
+            throw new IllegalArgumentException("permits must be between 1 and " + config.bucketCapacity());
+        }
+
+        long now = System.currentTimeMillis();
+        long timeoutMillis = Math.max(0, timeout.toMillis());
+        Result result = new Result();
+
+        store.compute(clientId, (id, current) -> {
+            if (replacedBy != null) {
+                result.replaced = true;
+                return current;
+            }
+            double water = leak(migrate(id, current, now), now);
+
+            if (water + permits <= config.bucketCapacity()) {
+                result.allowed = true;
+                result.waterAfter = water + permits;
+                result.waitMillis = 0;
+                return new LeakyBucketState(water + permits, now);
+            }
+
+            // time until enough water leaks out to make room for the permits
+            long waitMillis = (long) Math.ceil(
+                    (water + permits - config.bucketCapacity()) / config.leakRateInSec() * 1000
+            );
+
+            if (waitMillis > timeoutMillis) {
+                result.allowed = false;
+                result.waterAfter = water;
+                result.retryAfterSeconds = (long) Math.ceil(waitMillis / 1000.0);
+                return new LeakyBucketState(water, now);
+            }
+
+            // Reserve: water rises above capacity, later callers queue up behind the overflow
+            result.allowed = true;
+            result.waterAfter = water + permits;
+            result.waitMillis = waitMillis;
+            return new LeakyBucketState(water + permits, now);
+        });
+
+        if (result.replaced) {
+            return replacedBy.acquireAsync(clientId, permits, timeout);
+        }
+
+        RateLimiterHitResponse response = new RateLimiterHitResponse(
+                result.allowed,
+                result.allowed ? "ALLOWED" : "BLOCKED",
+                now,
+                result.retryAfterSeconds,
+                Math.max(0, (int) Math.floor(config.bucketCapacity() - result.waterAfter)),
+                Map.of(
+                        "queueSize", result.waterAfter,
+                        "capacity", config.bucketCapacity(),
+                        "leakRatePerSec", config.leakRateInSec(),
+                        "permits", permits,
+                        "waitMillis", result.waitMillis
+                )
+        );
+
+        if (!result.allowed) {
+            return CompletableFuture.completedFuture(response);
+        }
+        return Reservations.park(timer, result.waitMillis, response, () -> release(clientId, permits));
+    }
+
+    @Override
+    public CompletableFuture<RateLimiterHitResponse> enqueue(String clientId) {
+        return shaper.enqueue(clientId);
+    }
+
+    @Override
+    public void reset(){
+        store.reset();
+        shaper.reset("");
+    }
+
+    @Override
+    public void reset(String keyPrefix) {
+        store.reset(keyPrefix);
+        shaper.reset(keyPrefix);
+    }
+
+    // Same fill ratio under the new capacity, leak accrued so far is settled at the old rate first.
+    // Handover works as in TokenBucketRateLimiter: the old limiter forwards, untouched keys are rescaled on first use
+    @Override
+    public void migrateFrom(RateLimiter previous) {
+        if (!(previous instanceof LeakyBucketRateLimiter old) || old.store != store) {
+            return;
+        }
+        if (old.config.equals(config)) {
+            return;
+        }
+
+        double scale = (double) config.bucketCapacity() / old.config.bucketCapacity();
+        StateMigration<LeakyBucketState> rescale = new StateMigration<>((state, now) -> new LeakyBucketState(
+                old.leak(state, now) * scale,
+                now
+        ));
+
+        migration = rescale;
+        old.replacedBy = this;
+        store.replaceAll((id, state) -> rescale.migrate(id, state, System.currentTimeMillis()));
+        migration = null;
+    }
+
+    private void release(String clientId, int permits) {
+        long now = System.currentTimeMillis();
+
+        Result result = new Result();
+
+        store.compute(clientId, (id, current) -> {
+            if (replacedBy != null) {
+                result.replaced = true;
+                return current;
+            }
+            LeakyBucketState state = migrate(id, current, now);
+            // bucket was reset while waiting, nothing to take out
+            if (state == null) {
+                return null;
+            }
+            return new LeakyBucketState(Math.max(0, leak(state, now) - permits), now);
+        });
+
+        if (result.replaced) {
+            replacedBy.release(clientId, permits);
+        }
+    }
+
+    @Override
+    public int inspectSegments() {
+        return store.segments();
+    }
+
+    @Override
+    public void inspect(int segment, Consumer<KeyState> sink) {
+        long now = System.currentTimeMillis();
+        store.forEach(segment, (clientId, state) -> {
+            double water = leak(state, now);
+            sink.accept(new KeyState(
+                    clientId,
+                    water / config.bucketCapacity(),
+                    water + 1 > config.bucketCapacity(),
+                    Map.of(
+                            "water", water,
+                            "bucketCapacity", config.bucketCapacity()
+                    )
+            ));
+        });
+    }
+
+    private LeakyBucketState migrate(String clientId, LeakyBucketState state, long now) {
+        StateMigration<LeakyBucketState> current = migration;
+        return current == null ? state : current.migrate(clientId, state, now);
+    }
+
+    private double leak(LeakyBucketState state, long now) {
+        if (state == null) {
+            return 0;
+        }
+        // elapsed time in SECONDS
+        double elapsedSeconds =
+                (now - state.lastLeakTimeInMillis()) / 1000.0;
+
+        // leak using per-second rate
+        double leaked =
+                elapsedSeconds * config.leakRateInSec();
+
+        return Math.max(0, state.currentWater() - leaked);
+    }
+}
@@ -0,0 +1,213 @@
+package com.systemdesign.ratelimiter.service.algorithm.LeakyBucket;
+
+import com.systemdesign.ratelimiter.dto.RateLimiterHitResponse;
+import com.systemdesign.ratelimiter.model.LeakyBucketConfig;
+import com.systemdesign.ratelimiter.service.scheduler.HashedWheelTimer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/*
+Meters queued requests out at exactly leakRateInSec per key.
+Only keys with queued work (or a release still cooling down) have an entry and a single pending
+drain on the shared wheel, idle keys cost nothing. A drain only acts on the queue it was scheduled
+for, so one left over from before a reset never runs a second chain on the key's next queue.
+Cancelled callers leave the queue right away and stop counting against bucketCapacity. Release times are kept on an ideal schedule
+(previous release + interval) so wheel tick jitter never changes the long-run rate.
+ */
+class LeakyBucketShaper {
+
+    private final LeakyBucketConfig config;
+    private final HashedWheelTimer timer;
+    private final long releaseIntervalNanos;
+    private final Map<String, LeakyBucketQueue> queues = new ConcurrentHashMap<>();
+
+    LeakyBucketShaper(LeakyBucketConfig config, HashedWheelTimer timer) {
+        this.config = config;
+        this.timer = timer;
+        this.releaseIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / config.leakRateInSec());
+    }
+
+    CompletableFuture<RateLimiterHitResponse> enqueue(String clientId) {
+        long now = System.currentTimeMillis();
+        long nowNanos = System.nanoTime();
+        CompletableFuture<RateLimiterHitResponse> future = new CompletableFuture<>();
+
+        class Result {
+            boolean accepted;
+            boolean releasedNow;
+            LeakyBucketQueue scheduleDrain;
+            long drainDelayNanos;
+            int queueSize;
+        }
+
+        Result result = new Result();
+
+        queues.compute(clientId, (id, queue) -> {
+            boolean idle = queue == null;
+            if (idle) {
+                queue = new LeakyBucketQueue(nowNanos);
+            }
+
+            if (queue.waiting.size() >= config.bucketCapacity()) {
+                result.accepted = false;
+                result.queueSize = queue.waiting.size();
+                return queue;
+            }
+
+            result.accepted = true;
+
+            // Nothing ahead and the previous release is far enough back: go straight through
+            if (queue.waiting.isEmpty() && queue.nextReleaseNanos <= nowNanos) {
+                result.releasedNow = true;
+                queue.nextReleaseNanos = nowNanos + releaseIntervalNanos;
+            } else {
+                queue.waiting.addLast(new LeakyBucketQueue.Waiter(future, now));
+            }
+            result.queueSize = queue.waiting.size();
+
+            // a key that already had an entry already has a drain pending on the wheel
+            if (idle) {
+                result.scheduleDrain = queue;
+                result.drainDelayNanos = queue.nextReleaseNanos - nowNanos;
+            }
+            return queue;
+        });
+
+        if (result.scheduleDrain != null) {
+            scheduleDrain(clientId, result.scheduleDrain, result.drainDelayNanos);
+        }
+
+        if (!result.accepted) {
+            future.complete(new RateLimiterHitResponse(
+                    false,
+                    "BLOCKED",
+                    now,
+                    (long) Math.ceil(result.queueSize / config.leakRateInSec()),
+                    0,
+                    metadata(result.queueSize, 0)
+            ));
+        } else if (result.releasedNow) {
+            future.complete(released(now, result.queueSize, 0));
+        } else {
+            future.whenComplete((response, error) -> {
+                if (future.isCancelled()) {
+                    queues.computeIfPresent(clientId, (id, queue) -> {
+                        queue.waiting.removeIf(waiter -> waiter.future() == future);
+                        return queue;
+                    });
+                }
+            });
+        }
+        return future;
+    }
+
+    // "" drops every queue
+    void reset(String keyPrefix) {
+        List<LeakyBucketQueue.Waiter> dropped = new ArrayList<>();
+
+        for (String clientId : queues.keySet()) {
+            if (!clientId.startsWith(keyPrefix)) {
+                continue;
+            }
+            queues.computeIfPresent(clientId, (id, queue) -> {
+                dropped.addAll(queue.waiting);
+                HashedWheelTimer.Timeout drain = queue.drain;
+                if (drain != null) {
+                    drain.cancel();
+                }
+                return null;
+            });
+        }
+
+        long now = System.currentTimeMillis();
+        for (LeakyBucketQueue.Waiter waiter : dropped) {
+            waiter.future().complete(new RateLimiterHitResponse(
+                    false,
+                    "Shaping queue reset",
+                    now,
+                    0,
+                    0,
+                    metadata(0, now - waiter.enqueuedAtMillis())
+            ));
+        }
+    }
+
+    private void drain(String clientId, LeakyBucketQueue scheduledFor) {
+        long nowNanos = System.nanoTime();
+        List<LeakyBucketQueue.Waiter> released = new ArrayList<>();
+
+        class Result {
+            boolean reschedule;
+            long drainDelayNanos;
+            int queueSize;
+        }
+
+        Result result = new Result();
+
+        queues.computeIfPresent(clientId, (id, queue) -> {
+            // reset meanwhile: this key has a new queue with a drain of its own
+            if (queue != scheduledFor) {
+                return queue;
+            }
+            while (!queue.waiting.isEmpty() && queue.nextReleaseNanos <= nowNanos) {
+                LeakyBucketQueue.Waiter waiter = queue.waiting.pollFirst();
+
+                // cancelled just now, before its own removal got the lock
+                if (waiter.future().isDone()) {
+                    continue;
+                }
+                released.add(waiter);
+                queue.nextReleaseNanos += releaseIntervalNanos;
+            }
+
+            // idle for a full interval, the key can be forgotten
+            if (queue.waiting.isEmpty() && queue.nextReleaseNanos <= nowNanos) {
+                return null;
+            }
+
+            result.reschedule = true;
+            result.drainDelayNanos = queue.nextReleaseNanos - nowNanos;
+            result.queueSize = queue.waiting.size();
+            return queue;
+        });
+
+        if (result.reschedule) {
+            scheduleDrain(clientId, scheduledFor, result.drainDelayNanos);
+        }
+
+        long now = System.currentTimeMillis();
+        for (LeakyBucketQueue.Waiter waiter : released) {
+            waiter.future().complete(released(now, result.queueSize, now - waiter.enqueuedAtMillis()));
+        }
+    }
+
+    private void scheduleDrain(String clientId, LeakyBucketQueue queue, long delayNanos) {
+        long delayMillis = (long) Math.ceil(Math.max(0, delayNanos) / 1_000_000.0);
+        queue.drain = timer.schedule(() -> drain(clientId, queue), delayMillis);
+    }
+
+    private RateLimiterHitResponse released(long now, int queueSize, long waitMillis) {
+        return new RateLimiterHitResponse(
+                true,
+                "ALLOWED",
+                now,
+                0,
+                Math.max(0, config.bucketCapacity() - queueSize),
+                metadata(queueSize, waitMillis)
+        );
+    }
+
+    private Map<String, Object> metadata(int queueSize, long waitMillis) {
+        return Map.of(
+                "queueSize", queueSize,
+                "capacity", config.bucketCapacity(),
+                "leakRatePerSec", config.leakRateInSec(),
+                "waitMillis", waitMillis
+        );
+    }
+}
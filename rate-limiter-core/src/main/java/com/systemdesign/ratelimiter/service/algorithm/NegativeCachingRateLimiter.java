@@ -0,0 +1,138 @@
+package com.systemdesign.ratelimiter.service.algorithm;
+
+import com.systemdesign.ratelimiter.dto.KeyState;
+import com.systemdesign.ratelimiter.dto.RateLimiterHitResponse;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/*
+Remembers clients that were just rejected and rejects their retries without touching the store
+until they can possibly be let through again.
+
+The cache is a fixed size, direct mapped table of immutable entries (no locks, a new entry simply
+replaces whatever shares its slot), so memory stays bounded no matter how many clients get blocked.
+retryAfter is rounded up to whole seconds, so the exact wait is somewhere in (retryAfter - 1, retryAfter]:
+entries only cover the lower bound and never reject a hit the algorithm would allow.
+A retryAfter of 1 (anything up to a second) has no lower bound left and is not cached, 2 and up is.
+A cached rejection repeats the metadata of the rejection it came from (its window, its counts, as of
+then) with "cached": true added, so callers reading algorithm fields keep working.
+reset() bumps the generation, which invalidates every entry at once. A config change builds a new
+limiter and with it a new, empty cache. Permits handed back by a cancelled /acquire do not clear
+entries, such a client can be turned away until its cached (already shortened) block ends.
+Only for algorithms whose retryAfter is exact (not SLIDING_WINDOW_COUNTER, whose estimate decays
+before the window end, nor ADAPTIVE_CONCURRENCY, whose rejections depend on completions).
+ */
+public class NegativeCachingRateLimiter implements RateLimiter {
+
+    private record Entry(String key, long blockedUntil, long retryAt, String message,
+                         Map<String, Object> metadata, long generation) {
+    }
+
+    private final RateLimiter delegate;
+    private final AtomicReferenceArray<Entry> slots;
+    private final int mask;
+    private final AtomicLong generation = new AtomicLong();
+
+    // size: slot count, rounded up to a power of two
+    public NegativeCachingRateLimiter(RateLimiter delegate, int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("size must be > 0");
+        }
+        this.delegate = delegate;
+        int capacity = Integer.highestOneBit(Math.max(1, size - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    @Override
+    public RateLimiterHitResponse hitEndpoint(String clientId) {
+        long now = System.currentTimeMillis();
+        int slot = slot(clientId);
+        long currentGeneration = generation.get();
+
+        Entry entry = slots.get(slot);
+        if (entry != null
+                && entry.generation == currentGeneration
+                && now < entry.blockedUntil
+                && entry.key.equals(clientId)) {
+            return new RateLimiterHitResponse(
+                    false,
+                    entry.message,
+                    now,
+                    (entry.retryAt - now + 999) / 1000, // seconds
+                    0,
+                    entry.metadata
+            );
+        }
+
+        RateLimiterHitResponse response = delegate.hitEndpoint(clientId);
+
+        // retryAfter 1 leaves (0, 1] seconds: nothing that is known to be blocked
+        if (!response.accepted() && response.retryAfter() >= 2) {
+            long blockedUntil = response.timestamp() + (response.retryAfter() - 1) * 1000;
+            Map<String, Object> metadata = response.metadata() == null
+                    ? new HashMap<>()
+                    : new HashMap<>(response.metadata());
+            metadata.put("cached", true);
+            // a reset that ran meanwhile makes this entry stale right away
+            slots.set(slot, new Entry(
+                    clientId,
+                    blockedUntil,
+                    response.timestamp() + response.retryAfter() * 1000,
+                    response.message(),
+                    Collections.unmodifiableMap(metadata),
+                    currentGeneration
+            ));
+        }
+        return response;
+    }
+
+    @Override
+    public void reset() {
+        // store first: a rejection computed on the old state is cached under the old generation
+        delegate.reset();
+        generation.incrementAndGet();
+    }
+
+    // drops the whole cache, prefix resets are rare
+    @Override
+    public void reset(String keyPrefix) {
+        delegate.reset(keyPrefix);
+        generation.incrementAndGet();
+    }
+
+    @Override
+    public void onComplete(String clientId, long latencyNanos, boolean success) {
+        delegate.onComplete(clientId, latencyNanos, success);
+    }
+
+    @Override
+    public int inspectSegments() {
+        return delegate.inspectSegments();
+    }
+
+    @Override
+    public void inspect(int segment, Consumer<KeyState> sink) {
+        delegate.inspect(segment, sink);
+    }
+
+    @Override
+    public void migrateFrom(RateLimiter previous) {
+        delegate.migrateFrom(previous.unwrap());
+    }
+
+    @Override
+    public RateLimiter unwrap() {
+        return delegate.unwrap();
+    }
+
+    private int slot(String key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,132 @@
+package com.systemdesign.ratelimiter.service.algorithm.Quota;
+
+import com.systemdesign.ratelimiter.dto.KeyState;
+import com.systemdesign.ratelimiter.dto.RateLimiterHitResponse;
+import com.systemdesign.ratelimiter.model.QuotaConfig;
+import com.systemdesign.ratelimiter.service.algorithm.RateLimiter;
+import com.systemdesign.ratelimiter.store.RateLimiterStore;
+
+import java.util.Map;
+import java.util.function.Consumer;
+
+/*
+Daily / monthly quota: up to `limit` requests per calendar period (UTC), the count starts over with
+the next period. A count from an earlier period is treated as 0 and overwritten on the next hit,
+so rolling over needs no sweep over the keys.
+Meant for a TieredStore: only the keys seen lately stay on heap, the rest wait on disk.
+ */
+public class QuotaRateLimiter implements RateLimiter {
+
+    private record Period(long start, long end) {
+    }
+
+    private final QuotaConfig config;
+    private final RateLimiterStore<QuotaState> store;
+    // recomputed once per period, not per hit (months need calendar math)
+    private volatile Period current = new Period(0, 0);
+
+    public QuotaRateLimiter(QuotaConfig config, RateLimiterStore<QuotaState> store) {
+        this.config = config;
+        this.store = store;
+    }
+
+    @Override
+    public RateLimiterHitResponse hitEndpoint(String clientId) {
+        long now = System.currentTimeMillis();
+        Period period = period(now);
+        Result result = new Result();
+
+        store.compute(clientId, (id, state) -> {
+            long used = used(state, period);
+
+            if (used >= config.limit()) {
+                result.allowed = false;
+                result.usedAfter = used;
+                result.retryAfter = (long) Math.ceil((period.end - now) / 1000.0);
+                return new QuotaState(used, period.start);
+            }
+
+            result.allowed = true;
+            result.usedAfter = used + 1;
+            result.retryAfter = 0;
+            return new QuotaState(used + 1, period.start);
+        });
+
+        return new RateLimiterHitResponse(
+                result.allowed,
+                result.allowed ? "Within quota" : "Quota exhausted",
+                now,
+                result.retryAfter,
+                (int) Math.min(Integer.MAX_VALUE, Math.max(0, config.limit() - result.usedAfter)),
+                Map.of(
+                        "used", result.usedAfter,
+                        "quota", config.limit(),
+                        "period", config.period(),
+                        "periodStart", period.start,
+                        "periodEnd", period.end
+                )
+        );
+    }
+
+    @Override
+    public void reset() {
+        store.reset();
+    }
+
+    @Override
+    public void reset(String keyPrefix) {
+        store.reset(keyPrefix);
+    }
+
+    // A new limit applies to the counts so far as they are. With a new period a count is kept when the
+    // period it was counted in started inside the current one (DAY -> MONTH: today's count goes towards the
+    // month, MONTH -> DAY on the 1st: the month so far is today), any other starts at 0. Nothing needs rewriting.
+    @Override
+    public void migrateFrom(RateLimiter previous) {
+    }
+
+    @Override
+    public int inspectSegments() {
+        return store.segments();
+    }
+
+    @Override
+    public void inspect(int segment, Consumer<KeyState> sink) {
+        Period period = period(System.currentTimeMillis());
+        store.forEach(segment, (clientId, state) -> {
+            long used = used(state, period);
+            sink.accept(new KeyState(
+                    clientId,
+                    (double) used / config.limit(),
+                    used >= config.limit(),
+                    Map.of(
+                            "used", used,
+                            "quota", config.limit(),
+                            "periodEnd", period.end
+                    )
+            ));
+        });
+    }
+
+    private long used(QuotaState state, Period period) {
+        // also a clock that went back: only a newer period resets the count
+        return state == null || state.periodStart() < period.start ? 0 : state.used();
+    }
+
+    private Period period(long now) {
+        Period period = current;
+        if (now >= period.start && now < period.end) {
+            return period;
+        }
+        long start = config.period().start(now);
+        period = new Period(start, config.period().end(start));
+        current = period;
+        return period;
+    }
+
+    private static class Result {
+        boolean allowed;
+        long usedAfter;
+        long retryAfter;
+    }
+}
@@ -0,0 +1,6 @@
+package com.systemdesign.ratelimiter.service.algorithm.Quota;
+
+public record QuotaState(
+        long used,
+        long periodStart
+){}
@@ -0,0 +1,45 @@
+package com.systemdesign.ratelimiter.service.algorithm;
+
+
+import com.systemdesign.ratelimiter.dto.KeyState;
+import com.systemdesign.ratelimiter.dto.RateLimiterHitResponse;
+
+import java.util.function.Consumer;
+
+public interface RateLimiter {
+    RateLimiterHitResponse hitEndpoint(String clientId);
+    void reset();
+
+    // Resets only the clients whose key starts with keyPrefix, for limiters with per-key state.
+    default void reset(String keyPrefix) {
+        throw new IllegalArgumentException("This algorithm has no per-key state to reset");
+    }
+
+    // Outcome of a request that was let through. Only latency driven limiters care.
+    default void onComplete(String clientId, long latencyNanos, boolean success) {
+    }
+
+    // Called before this limiter replaces `previous` on the same store, to carry per-key state over.
+    default void migrateFrom(RateLimiter previous) {
+    }
+
+    // Decoded state of every tracked key, weakly consistent. Limiters without per-key state report nothing.
+    default void inspect(Consumer<KeyState> sink) {
+        for (int segment = 0; segment < inspectSegments(); segment++) {
+            inspect(segment, sink);
+        }
+    }
+
+    // inspect() cut along the store's segments (RateLimiterStore.segments()), so paging can resume in one
+    default int inspectSegments() {
+        return 0;
+    }
+
+    default void inspect(int segment, Consumer<KeyState> sink) {
+    }
+
+    // Decorators return the limiter that decides on this node, everything else returns itself.
+    default RateLimiter unwrap() {
+        return this;
+    }
+}
@@ -0,0 +1,35 @@
+package com.systemdesign.ratelimiter.service.algorithm;
+
+import com.systemdesign.ratelimiter.dto.RateLimiterHitResponse;
+import com.systemdesign.ratelimiter.service.scheduler.HashedWheelTimer;
+
+import java.util.concurrent.CompletableFuture;
+
+public final class Reservations {
+
+    private Reservations() {
+    }
+
+    // Parks the reservation on the shared wheel. A cancelled future never received its permits, so they are handed back.
+    public static CompletableFuture<RateLimiterHitResponse> park(
+            HashedWheelTimer timer,
+            long waitMillis,
+            RateLimiterHitResponse granted,
+            Runnable release
+    ) {
+        if (waitMillis <= 0) {
+            return CompletableFuture.completedFuture(granted);
+        }
+
+        CompletableFuture<RateLimiterHitResponse> future = new CompletableFuture<>();
+        HashedWheelTimer.Timeout timeout = timer.schedule(() -> future.complete(granted), waitMillis);
+
+        future.whenComplete((response, error) -> {
+            if (future.isCancelled()) {
+                timeout.cancel();
+                release.run();
+            }
+        });
+        return future;
+    }
+}
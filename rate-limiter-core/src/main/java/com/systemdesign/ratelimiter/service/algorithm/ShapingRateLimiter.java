@@ -0,0 +1,15 @@
+package com.systemdesign.ratelimiter.service.algorithm;
+
+import com.systemdesign.ratelimiter.dto.RateLimiterHitResponse;
+
+import java.util.concurrent.CompletableFuture;
+
+/*
+Limiters that smooth traffic instead of only admitting or rejecting it.
+Admitted requests wait in a bounded per-key queue and the returned future completes when the
+request is released downstream. A full queue completes the future immediately as rejected.
+ */
+public interface ShapingRateLimiter extends RateLimiter {
+
+    CompletableFuture<RateLimiterHitResponse> enqueue(String clientId);
+}
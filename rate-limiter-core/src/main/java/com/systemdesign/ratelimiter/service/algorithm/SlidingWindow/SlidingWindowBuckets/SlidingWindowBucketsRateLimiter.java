@@ -0,0 +1,184 @@
+package com.systemdesign.ratelimiter.service.algorithm.SlidingWindow.SlidingWindowBuckets;
+
+import com.systemdesign.ratelimiter.dto.KeyState;
+import com.systemdesign.ratelimiter.dto.RateLimiterHitResponse;
+import com.systemdesign.ratelimiter.model.SlidingWindowBucketsConfig;
+import com.systemdesign.ratelimiter.service.algorithm.RateLimiter;
+import com.systemdesign.ratelimiter.store.RateLimiterStore;
+
+import java.util.Map;
+import java.util.function.Consumer;
+
+/*
+Sliding window counter with the window cut into subBuckets slices.
+estimate = full count of the newest subBuckets slices + the oldest slice weighted by the part
+of it still inside the window. Only that one slice is assumed uniform, so the error is at most
+1/subBuckets of a window (the two-window counter is the subBuckets = 1 case).
+State is O(subBuckets) ints per key and updated in place.
+ */
+public class SlidingWindowBucketsRateLimiter implements RateLimiter {
+
+    private final SlidingWindowBucketsConfig config;
+    private final RateLimiterStore<SlidingWindowBucketsState> store;
+    private final long windowSizeMs;
+
+    public SlidingWindowBucketsRateLimiter(
+            SlidingWindowBucketsConfig config,
+            RateLimiterStore<SlidingWindowBucketsState> store
+    ) {
+        this.config = config;
+        this.store = store;
+        this.windowSizeMs = config.windowSizeInSec() * 1000L;
+    }
+
+    @Override
+    public RateLimiterHitResponse hitEndpoint(String clientId) {
+
+        long now = System.currentTimeMillis();
+        int subBuckets = config.subBuckets();
+
+        // bucket b covers the times t with floor(t * subBuckets / windowSizeMs) == b
+        long scaledNow = now * subBuckets;
+        long bucket = Math.floorDiv(scaledNow, windowSizeMs);
+        double elapsedInBucket = (double) (scaledNow - bucket * windowSizeMs) / windowSizeMs;
+
+        class Result {
+            boolean allowed;
+            int currentBucketCount;
+            double estimatedCount;
+            long retryAfterMillis;
+        }
+
+        Result result = new Result();
+
+        store.compute(clientId, (id, state) -> {
+
+            if (state == null) {
+                state = new SlidingWindowBucketsState(subBuckets, windowSizeMs, bucket);
+            } else if (state.counts.length != subBuckets + 1 || state.windowSizeMs != windowSizeMs) {
+                // policy reloaded with another shape, keep the pressure by starting from the old total
+                int carried = state.total;
+                state = new SlidingWindowBucketsState(subBuckets, windowSizeMs, bucket);
+                state.counts[state.slot(bucket)] = carried;
+                state.total = carried;
+            }
+
+            // the state's own lock as well, for inspect() which copies it outside the store's
+            synchronized (state) {
+                // nothing to clear in a state created just now
+                state.advance(bucket);
+
+                int oldest = state.oldestCount();
+                double estimatedBefore = state.total - oldest * elapsedInBucket;
+
+                int current = state.slot(bucket);
+                if (estimatedBefore + 1 <= config.maxRequests()) {
+                    result.allowed = true;
+                    state.counts[current]++;
+                    state.total++;
+                    result.estimatedCount = estimatedBefore + 1;
+                } else {
+                    result.allowed = false;
+                    result.estimatedCount = estimatedBefore;
+                    result.retryAfterMillis = retryAfterMillis(state, bucket, now);
+                }
+                result.currentBucketCount = state.counts[current];
+            }
+
+            return state;
+        });
+
+        int remainingHits = Math.max(
+                0,
+                (int) Math.floor(config.maxRequests() - result.estimatedCount)
+        );
+        return new RateLimiterHitResponse(
+                result.allowed,
+                result.allowed ? "ALLOWED" : "BLOCKED",
+                now,
+                (long) Math.ceil(result.retryAfterMillis / 1000.0), // seconds
+                remainingHits,
+                Map.of(
+                        "currentBucketCount", result.currentBucketCount,
+                        "estimatedCount", result.estimatedCount,
+                        "maxRequests", config.maxRequests(),
+                        "subBuckets", subBuckets,
+                        "bucketSizeMillis", windowSizeMs / subBuckets
+                )
+        );
+    }
+
+    // When the estimate drops low enough for one more hit: slice by slice, the oldest one fades out linearly
+    private long retryAfterMillis(SlidingWindowBucketsState state, long bucket, long now) {
+        int subBuckets = config.subBuckets();
+        double bucketSizeMs = (double) windowSizeMs / subBuckets;
+        int remaining = state.total;
+
+        for (int k = 0; k <= subBuckets; k++) {
+            int oldest = state.counts[state.slot(bucket - subBuckets + k)];
+            if (oldest > 0) {
+                // fraction of bucket + k after which remaining - oldest * x + 1 <= maxRequests
+                double x = (double) (remaining + 1 - config.maxRequests()) / oldest;
+                if (x <= 1) {
+                    double at = (bucket + k + Math.max(0, x)) * bucketSizeMs;
+                    return Math.max(0, (long) Math.ceil(at - now));
+                }
+            }
+            remaining -= oldest;
+        }
+        return windowSizeMs;
+    }
+
+    @Override
+    public void reset(){
+        store.reset();
+    }
+
+    @Override
+    public int inspectSegments() {
+        return store.segments();
+    }
+
+    // The ring is mutated in place, so it is copied under its own lock (never through compute()) and
+    // only the copy is moved forward
+    @Override
+    public void inspect(int segment, Consumer<KeyState> sink) {
+        int subBuckets = config.subBuckets();
+
+        store.forEach(segment, (clientId, live) -> {
+            long scaledNow = System.currentTimeMillis() * subBuckets;
+            long bucket = Math.floorDiv(scaledNow, windowSizeMs);
+            double elapsedInBucket = (double) (scaledNow - bucket * windowSizeMs) / windowSizeMs;
+
+            SlidingWindowBucketsState state;
+            synchronized (live) {
+                state = live.copy();
+            }
+            double estimated;
+            if (state.counts.length == subBuckets + 1 && state.windowSizeMs == windowSizeMs) {
+                // what the next hit would do anyway
+                state.advance(bucket);
+                estimated = state.total - state.oldestCount() * elapsedInBucket;
+            } else {
+                // still in the shape of a previous config, the next hit carries the total over
+                estimated = state.total;
+            }
+
+            sink.accept(new KeyState(
+                    clientId,
+                    estimated / config.maxRequests(),
+                    estimated + 1 > config.maxRequests(),
+                    Map.of(
+                            "estimatedCount", estimated,
+                            "maxRequests", config.maxRequests(),
+                            "subBuckets", subBuckets
+                    )
+            ));
+        });
+    }
+
+    @Override
+    public void reset(String keyPrefix) {
+        store.reset(keyPrefix);
+    }
+}
@@ -0,0 +1,63 @@
+package com.systemdesign.ratelimiter.service.algorithm.SlidingWindow.SlidingWindowBuckets;
+
+import java.util.Arrays;
+
+/*
+Ring of per sub-bucket counts, mutated in place inside store.compute (so always under the key's lock)
+and under its own monitor, which is all inspect() takes to copy it.
+Holds subBuckets + 1 slots: the current bucket, the subBuckets - 1 full ones before it and the
+oldest one, which is only partly inside the window.
+ */
+public final class SlidingWindowBucketsState {
+
+    final int[] counts;
+    final long windowSizeMs;
+    // index (in bucket lengths since the epoch) of the newest bucket
+    long headBucket;
+    // sum of all slots
+    int total;
+
+    SlidingWindowBucketsState(int subBuckets, long windowSizeMs, long headBucket) {
+        this.counts = new int[subBuckets + 1];
+        this.windowSizeMs = windowSizeMs;
+        this.headBucket = headBucket;
+    }
+
+    SlidingWindowBucketsState copy() {
+        SlidingWindowBucketsState copy = new SlidingWindowBucketsState(counts.length - 1, windowSizeMs, headBucket);
+        System.arraycopy(counts, 0, copy.counts, 0, counts.length);
+        copy.total = total;
+        return copy;
+    }
+
+    int slot(long bucket) {
+        return (int) Math.floorMod(bucket, (long) counts.length);
+    }
+
+    // Moves the head to the given bucket, clearing the slots that fell out of the ring
+    void advance(long bucket) {
+        long steps = bucket - headBucket;
+        if (steps <= 0) {
+            return;
+        }
+        if (steps >= counts.length) {
+            Arrays.fill(counts, 0);
+            total = 0;
+        } else {
+            for (long b = headBucket + 1; b <= bucket; b++) {
+                int slot = slot(b);
+                total -= counts[slot];
+                counts[slot] = 0;
+            }
+        }
+        headBucket = bucket;
+    }
+
+    int oldestCount() {
+        return counts[slot(headBucket + 1)];
+    }
+
+    public int total() {
+        return total;
+    }
+}
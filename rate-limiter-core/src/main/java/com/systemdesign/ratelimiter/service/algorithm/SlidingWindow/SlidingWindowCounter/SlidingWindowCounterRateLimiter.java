@@ -1,11 +1,13 @@
 package com.systemdesign.ratelimiter.service.algorithm.SlidingWindow.SlidingWindowCounter;
 
+import com.systemdesign.ratelimiter.dto.KeyState;
 import com.systemdesign.ratelimiter.dto.RateLimiterHitResponse;
 import com.systemdesign.ratelimiter.model.SlidingWindowConfig;
 import com.systemdesign.ratelimiter.service.algorithm.RateLimiter;
 import com.systemdesign.ratelimiter.store.RateLimiterStore;
 
 import java.util.Map;
+import java.util.function.Consumer;
 
 public class SlidingWindowCounterRateLimiter implements RateLimiter {
 
@@ -136,6 +138,51 @@ public class SlidingWindowCounterRateLimiter implements RateLimiter {
     public void reset(){
         store.reset();
     }
+
+    @Override
+    public int inspectSegments() {
+        return store.segments();
+    }
+
+    // same estimate a hit would compute, without the hit
+    @Override
+    public void inspect(int segment, Consumer<KeyState> sink) {
+        long now = System.currentTimeMillis();
+        long windowSizeMs = config.windowSizeInSec() * 1000L;
+        long currentWindowStart = (now / windowSizeMs) * windowSizeMs;
+        double previousWindowWeight = 1.0 - (double) (now - currentWindowStart) / windowSizeMs;
+
+        store.forEach(segment, (clientId, state) -> {
+            int current = 0;
+            int previous = 0;
+            if (state[0].windowStartInMillis() == currentWindowStart) {
+                current = state[0].count();
+                previous = state[1].windowStartInMillis() == currentWindowStart - windowSizeMs
+                        ? state[1].count()
+                        : 0;
+            } else if (state[0].windowStartInMillis() == currentWindowStart - windowSizeMs) {
+                previous = state[0].count();
+            }
+            double estimated = previous * previousWindowWeight + current;
+
+            sink.accept(new KeyState(
+                    clientId,
+                    estimated / config.maxRequests(),
+                    estimated + 1 > config.maxRequests(),
+                    Map.of(
+                            "currentWindowCount", current,
+                            "previousWindowCount", previous,
+                            "estimatedCount", estimated,
+                            "maxRequests", config.maxRequests()
+                    )
+            ));
+        });
+    }
+
+    @Override
+    public void reset(String keyPrefix) {
+        store.reset(keyPrefix);
+    }
 }
 /*
 Base URL
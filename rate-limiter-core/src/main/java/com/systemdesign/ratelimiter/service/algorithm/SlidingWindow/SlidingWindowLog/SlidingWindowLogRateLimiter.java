@@ -0,0 +1,149 @@
+package com.systemdesign.ratelimiter.service.algorithm.SlidingWindow.SlidingWindowLog;
+
+import com.systemdesign.ratelimiter.dto.KeyState;
+import com.systemdesign.ratelimiter.dto.RateLimiterHitResponse;
+import com.systemdesign.ratelimiter.model.SlidingWindowConfig;
+import com.systemdesign.ratelimiter.service.algorithm.RateLimiter;
+import com.systemdesign.ratelimiter.store.RateLimiterStore;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.function.Consumer;
+
+public class SlidingWindowLogRateLimiter implements RateLimiter {
+
+    private final SlidingWindowConfig config;
+    private final RateLimiterStore<Deque<Long>> store;
+
+    public SlidingWindowLogRateLimiter(
+            SlidingWindowConfig config,
+            RateLimiterStore<Deque<Long>> store
+    ) {
+        this.config = config;
+        this.store = store;
+    }
+
+    @Override
+    public RateLimiterHitResponse hitEndpoint(String clientId) {
+
+        long now = System.currentTimeMillis();
+
+        long windowSizeSec = config.windowSizeInSec();
+        long windowSizeMs = windowSizeSec * 1000L;
+
+        long windowLowerBound = now - windowSizeMs;
+
+        class Result {
+            boolean allowed;
+            int sizeAfter;
+            int remainingHits;
+            long retryAfterSeconds;
+        }
+
+        Result result = new Result();
+
+        store.compute(clientId, (id, deque) -> {
+
+            if (deque == null) {
+                deque = new ArrayDeque<>();
+            }
+
+            // the deque's own lock as well, for inspect() which reads it outside the store's
+            synchronized (deque) {
+                // Evict old requests
+                while (!deque.isEmpty() && deque.peekFirst() < windowLowerBound) {
+                    deque.pollFirst();
+                }
+
+                if (deque.size() < config.maxRequests()) {
+                    deque.addLast(now);
+                    result.allowed = true;
+                    result.retryAfterSeconds = 0;
+                } else {
+                    result.allowed = false;
+
+                    long earliestRequestMs = deque.peekFirst();
+                    long retryAfterMs =
+                            (earliestRequestMs + windowSizeMs) - now;
+
+                    result.retryAfterSeconds =
+                            (long) Math.ceil(retryAfterMs / 1000.0);
+                }
+
+                result.sizeAfter = deque.size();
+                result.remainingHits = Math.max(
+                        0,
+                        config.maxRequests() - deque.size()
+                );
+            }
+
+            return deque;
+        });
+
+        return new RateLimiterHitResponse(
+                result.allowed,
+                result.allowed ? "ALLOWED" : "BLOCKED",
+                now,
+                result.retryAfterSeconds,
+                result.remainingHits,
+                Map.of(
+                        "currentWindowSize", result.sizeAfter,
+                        "maxRequests", config.maxRequests(),
+                        "windowSizeSeconds", windowSizeSec,
+                        "windowLowerBoundMillis", windowLowerBound,
+                        "nowMillis", now
+                )
+        );
+    }
+
+    @Override
+    public void reset(){
+        store.reset();
+    }
+
+    @Override
+    public int inspectSegments() {
+        return store.segments();
+    }
+
+    // The deque is mutated in place, so it is read under its own lock, never through compute(): what
+    // has left the window is skipped, not evicted
+    @Override
+    public void inspect(int segment, Consumer<KeyState> sink) {
+        long windowSizeMs = config.windowSizeInSec() * 1000L;
+
+        store.forEach(segment, (clientId, deque) -> {
+            long windowLowerBound = System.currentTimeMillis() - windowSizeMs;
+            int size = 0;
+            long oldest = 0;
+
+            synchronized (deque) {
+                for (long timestamp : deque) {
+                    if (timestamp >= windowLowerBound) {
+                        if (size == 0) {
+                            oldest = timestamp;
+                        }
+                        size++;
+                    }
+                }
+            }
+
+            sink.accept(new KeyState(
+                    clientId,
+                    (double) size / config.maxRequests(),
+                    size >= config.maxRequests(),
+                    Map.of(
+                            "currentWindowSize", size,
+                            "maxRequests", config.maxRequests(),
+                            "oldestRequestMillis", oldest
+                    )
+            ));
+        });
+    }
+
+    @Override
+    public void reset(String keyPrefix) {
+        store.reset(keyPrefix);
+    }
+}
@@ -0,0 +1,34 @@
+package com.systemdesign.ratelimiter.service.algorithm;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+Rescales per-key state once when a policy reload keeps the store but changes the limits.
+The new limiter runs every state it reads through migrate() while the sweep is going, and the sweep
+does the same through store.replaceAll(). Both run under the store's key lock, so whichever gets to a
+key first rescales it and the other sees it as done.
+ */
+public final class StateMigration<S> {
+
+    @FunctionalInterface
+    public interface Rescale<S> {
+        S apply(S state, long now);
+    }
+
+    private final Rescale<S> rescale;
+    // keys already rescaled or written by the new limiter, dropped with the migration once the sweep is done
+    private final Set<String> migrated = ConcurrentHashMap.newKeySet();
+
+    public StateMigration(Rescale<S> rescale) {
+        this.rescale = rescale;
+    }
+
+    public S migrate(String key, S state, long now) {
+        // a key first written by the new limiter is already in the new scale
+        if (!migrated.add(key) || state == null) {
+            return state;
+        }
+        return rescale.apply(state, now);
+    }
+}
@@ -0,0 +1,279 @@
+package com.systemdesign.ratelimiter.service.algorithm.TokenBucket;
+
+import com.systemdesign.ratelimiter.dto.KeyState;
+import com.systemdesign.ratelimiter.dto.RateLimiterHitResponse;
+import com.systemdesign.ratelimiter.model.TokenBucketConfig;
+import com.systemdesign.ratelimiter.service.algorithm.BlockingRateLimiter;
+import com.systemdesign.ratelimiter.service.algorithm.RateLimiter;
+import com.systemdesign.ratelimiter.service.algorithm.Reservations;
+import com.systemdesign.ratelimiter.service.algorithm.StateMigration;
+import com.systemdesign.ratelimiter.service.scheduler.HashedWheelTimer;
+import com.systemdesign.ratelimiter.store.RateLimiterStore;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+public class TokenBucketRateLimiter implements BlockingRateLimiter {
+
+    private final TokenBucketConfig config;
+    private final RateLimiterStore<TokenBucketState> store;
+    private final HashedWheelTimer timer;
+    // set when a reload replaced this limiter on the same store: from then on it writes nothing and forwards
+    private volatile TokenBucketRateLimiter replacedBy;
+    // non-null while states written under the previous limiter's config are being rescaled
+    private volatile StateMigration<TokenBucketState> migration;
+
+    public TokenBucketRateLimiter(
+            TokenBucketConfig config,
+            RateLimiterStore<TokenBucketState> store,
+            HashedWheelTimer timer
+    ) {
+        this.config = config;
+        this.store = store;
+        this.timer = timer;
+    }
+
+    @Override
+    public RateLimiterHitResponse hitEndpoint(String clientId) {
+        long now = System.currentTimeMillis();
+        Result result = new Result();
+
+        store.compute(clientId, (id, current) -> {
+            if (replacedBy != null) {
+                result.replaced = true;
+                return current;
+            }
+            TokenBucketState state = migrate(id, current, now);
+
+            // First request
+            if (state == null) {
+                result.allowed = true;
+                result.tokensAfter = config.capacity() - 1;
+                result.retryAfter = 0;
+
+                return new TokenBucketState(
+                        config.capacity() - 1,
+                        now
+                );
+            }
+
+            double tokens = refill(state, now);
+
+            if (tokens >= 1.0) {
+                result.allowed = true;
+                result.tokensAfter = tokens - 1;
+                result.retryAfter = 0;
+
+                return new TokenBucketState(
+                        tokens - 1,
+                        now
+                );
+            }
+
+            // Not enough tokens
+            result.allowed = false;
+            result.tokensAfter = tokens;
+            result.retryAfter = (long) Math.ceil(
+                    (1.0 - tokens) / config.refillRatePerSecond()
+            );
+
+            // refill is already folded into tokens, so the refill clock moves too
+            return new TokenBucketState(
+                    tokens,
+                    now
+            );
+        });
+
+        if (result.replaced) {
+            return replacedBy.hitEndpoint(clientId);
+        }
+
+        return new RateLimiterHitResponse(
+                result.allowed,
+                result.allowed ? "Token consumed" : "No tokens available",
+                now,
+                result.retryAfter,
+                Math.max(0, (int) Math.floor(result.tokensAfter)),
+                Map.of(
+                        "tokensRemaining", result.tokensAfter,
+                        "bucketCapacity", config.capacity(),
+                        "refillRatePerSecond", config.refillRatePerSecond()
+                )
+        );
+    }
+    @Override
+    public CompletableFuture<RateLimiterHitResponse> acquireAsync(
+            String clientId,
+            int permits,
+            Duration timeout
+    ) {
+        if (permits <= 0 || permits > config.capacity()) {
+            throw new IllegalArgumentException("permits must be between 1 and " + config.capacity());
+        }
+
+        long now = System.currentTimeMillis();
+        long timeoutMillis = Math.max(0, timeout.toMillis());
+        Result result = new Result();
+
+        store.compute(clientId, (id, current) -> {
+            if (replacedBy != null) {
+                result.replaced = true;
+                return current;
+            }
+            double tokens = refill(migrate(id, current, now), now);
+
+            if (tokens >= permits) {
+                result.allowed = true;
+                result.tokensAfter = tokens - permits;
+                result.waitMillis = 0;
+                return new TokenBucketState(tokens - permits, now);
+            }
+
+            long waitMillis = (long) Math.ceil(
+                    (permits - tokens) / config.refillRatePerSecond() * 1000
+            );
+
+            if (waitMillis > timeoutMillis) {
+                result.allowed = false;
+                result.tokensAfter = tokens;
+                result.retryAfter = (long) Math.ceil(waitMillis / 1000.0);
+                return new TokenBucketState(tokens, now);
+            }
+
+            // Reserve: tokens go negative, later callers queue up behind this debt
+            result.allowed = true;
+            result.tokensAfter = tokens - permits;
+            result.waitMillis = waitMillis;
+            return new TokenBucketState(tokens - permits, now);
+        });
+
+        if (result.replaced) {
+            return replacedBy.acquireAsync(clientId, permits, timeout);
+        }
+
+        RateLimiterHitResponse response = new RateLimiterHitResponse(
+                result.allowed,
+                result.allowed ? "Tokens acquired" : "No tokens available within timeout",
+                now,
+                result.retryAfter,
+                Math.max(0, (int) Math.floor(result.tokensAfter)),
+                Map.of(
+                        "tokensRemaining", result.tokensAfter,
+                        "bucketCapacity", config.capacity(),
+                        "refillRatePerSecond", config.refillRatePerSecond(),
+                        "permits", permits,
+                        "waitMillis", result.waitMillis
+                )
+        );
+
+        if (!result.allowed) {
+            return CompletableFuture.completedFuture(response);
+        }
+        return Reservations.park(timer, result.waitMillis, response, () -> release(clientId, permits));
+    }
+
+    @Override
+    public void reset(){
+        store.reset();
+    }
+
+    @Override
+    public void reset(String keyPrefix) {
+        store.reset(keyPrefix);
+    }
+
+    // Same fill ratio under the new capacity, refill accrued so far is settled at the old rate first.
+    // The old limiter stops writing before the sweep starts, hits that still reach it are forwarded here,
+    // and keys this limiter touches before the sweep gets to them are rescaled on the spot
+    @Override
+    public void migrateFrom(RateLimiter previous) {
+        if (!(previous instanceof TokenBucketRateLimiter old) || old.store != store) {
+            return;
+        }
+        if (old.config.equals(config)) {
+            return;
+        }
+
+        double scale = (double) config.capacity() / old.config.capacity();
+        StateMigration<TokenBucketState> rescale = new StateMigration<>((state, now) -> new TokenBucketState(
+                Math.min(config.capacity(), old.refill(state, now) * scale),
+                now
+        ));
+
+        migration = rescale;
+        old.replacedBy = this;
+        store.replaceAll((id, state) -> rescale.migrate(id, state, System.currentTimeMillis()));
+        migration = null;
+    }
+
+    private void release(String clientId, int permits) {
+        long now = System.currentTimeMillis();
+
+        Result result = new Result();
+
+        store.compute(clientId, (id, current) -> {
+            if (replacedBy != null) {
+                result.replaced = true;
+                return current;
+            }
+            TokenBucketState state = migrate(id, current, now);
+            // bucket was reset while waiting, nothing to give back
+            if (state == null) {
+                return null;
+            }
+            double tokens = Math.min(config.capacity(), refill(state, now) + permits);
+            return new TokenBucketState(tokens, now);
+        });
+
+        if (result.replaced) {
+            replacedBy.release(clientId, permits);
+        }
+    }
+
+    @Override
+    public int inspectSegments() {
+        return store.segments();
+    }
+
+    @Override
+    public void inspect(int segment, Consumer<KeyState> sink) {
+        long now = System.currentTimeMillis();
+        store.forEach(segment, (clientId, state) -> {
+            double tokens = refill(state, now);
+            sink.accept(new KeyState(
+                    clientId,
+                    1 - tokens / config.capacity(),
+                    tokens < 1.0,
+                    Map.of(
+                            "tokens", tokens,
+                            "bucketCapacity", config.capacity()
+                    )
+            ));
+        });
+    }
+
+    private TokenBucketState migrate(String clientId, TokenBucketState state, long now) {
+        StateMigration<TokenBucketState> current = migration;
+        return current == null ? state : current.migrate(clientId, state, now);
+    }
+
+    private double refill(TokenBucketState state, long now) {
+        if (state == null) {
+            return config.capacity();
+        }
+        long elapsedMillis = now - state.lastRefillTimeMillis();
+        double elapsedSeconds = elapsedMillis / 1000.0;
+        double refilledTokens = state.tokens() + elapsedSeconds * config.refillRatePerSecond();
+        return Math.min(config.capacity(), refilledTokens);
+    }
+
+    private static class Result {
+        boolean allowed;
+        double tokensAfter;
+        long retryAfter;
+        long waitMillis;
+        boolean replaced;
+    }
+}
@@ -0,0 +1,90 @@
+package com.systemdesign.ratelimiter.service.cluster;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+Starts this process' GossipNode when ratelimiter.cluster.port is set.
+Without it every node limits on its own and counters() returns null.
+ */
+@Component
+public class GossipCluster {
+
+    private static final Log log = LogFactory.getLog(GossipCluster.class);
+
+    private final String nodeId;
+    private final int port;
+    private final String peers;
+    private final long intervalMillis;
+
+    private GossipNode node;
+
+    public GossipCluster(
+            @Value("${ratelimiter.cluster.node-id:}") String nodeId,
+            @Value("${ratelimiter.cluster.port:0}") int port,
+            @Value("${ratelimiter.cluster.peers:}") String peers,
+            @Value("${ratelimiter.cluster.gossip-interval-ms:100}") long intervalMillis
+    ) {
+        this.nodeId = nodeId;
+        this.port = port;
+        this.peers = peers;
+        this.intervalMillis = intervalMillis;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (port <= 0) {
+            return;
+        }
+
+        String id = nodeId.isBlank() ? "node-" + port : nodeId;
+        node = new GossipNode(id, new InetSocketAddress(port), intervalMillis);
+        node.setPeers(parsePeers(peers));
+        node.start();
+        log.info("Gossip node " + id + " on port " + port + ", peers " + peers);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        if (node != null) {
+            node.close();
+        }
+    }
+
+    public GossipNode node() {
+        return node;
+    }
+
+    public ReplicatedCounters counters(String namespace) {
+        return node == null ? null : node.counters(namespace);
+    }
+
+    // "host:port,host:port"
+    static List<InetSocketAddress> parsePeers(String peers) {
+        List<InetSocketAddress> result = new ArrayList<>();
+        for (String peer : peers.split(",")) {
+            String trimmed = peer.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int colon = trimmed.lastIndexOf(':');
+            if (colon <= 0) {
+                throw new IllegalArgumentException("Invalid peer (expected host:port): " + trimmed);
+            }
+            result.add(new InetSocketAddress(
+                    trimmed.substring(0, colon),
+                    Integer.parseInt(trimmed.substring(colon + 1))
+            ));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,300 @@
+package com.systemdesign.ratelimiter.service.cluster;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.DatagramChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+Replicates per-key usage between nodes without a central store.
+Each node counts its own hits into PN-Counters and, every interval, sends the keys it changed
+since the last round to every peer as one or more UDP datagrams (its own P/N totals, not increments,
+so a lost datagram is fixed by the next one). Every FULL_SYNC_ROUNDS rounds all live keys are
+re-sent so peers that missed a key or restarted catch up.
+
+datagram : uint8 version, uint8 node id length + node id, uint16 entry count
+entry    : uint16 key length + key, varlong expiresAt, varlong P, varlong N
+ */
+public class GossipNode implements AutoCloseable {
+
+    private static final Log log = LogFactory.getLog(GossipNode.class);
+
+    private static final byte VERSION = 1;
+    private static final int MAX_DATAGRAM = 8 * 1024;
+    private static final int MAX_KEY_LENGTH = 1024;
+    // key + three varlongs + length prefix
+    private static final int MAX_ENTRY = 2 + MAX_KEY_LENGTH + 3 * 10;
+    private static final int FULL_SYNC_ROUNDS = 50;
+
+    private final String nodeId;
+    private final byte[] nodeIdBytes;
+    private final long intervalMillis;
+    private final DatagramChannel channel;
+
+    private final Map<String, PNCounter> counters = new ConcurrentHashMap<>();
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    private volatile List<InetSocketAddress> peers = List.of();
+    private volatile boolean running;
+
+    private final long startedAtNanos = System.nanoTime();
+    private final LongAdder batchesSent = new LongAdder();
+    private final LongAdder bytesSent = new LongAdder();
+    private final LongAdder bytesReceived = new LongAdder();
+
+    public GossipNode(String nodeId, InetSocketAddress bindAddress, long intervalMillis) throws IOException {
+        if (intervalMillis <= 0) {
+            throw new IllegalArgumentException("gossip interval must be positive");
+        }
+        this.nodeId = nodeId;
+        this.nodeIdBytes = nodeId.getBytes(StandardCharsets.UTF_8);
+        if (nodeIdBytes.length > 255) {
+            throw new IllegalArgumentException("node id too long");
+        }
+        this.intervalMillis = intervalMillis;
+        this.channel = DatagramChannel.open().bind(bindAddress);
+    }
+
+    public InetSocketAddress localAddress() throws IOException {
+        return (InetSocketAddress) channel.getLocalAddress();
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    public void setPeers(List<InetSocketAddress> peers) {
+        this.peers = List.copyOf(peers);
+    }
+
+    public void start() {
+        running = true;
+        Thread.ofPlatform().daemon().name("gossip-receiver-" + nodeId).start(this::receiveLoop);
+        Thread.ofPlatform().daemon().name("gossip-sender-" + nodeId).start(this::sendLoop);
+    }
+
+    public ReplicatedCounters counters(String namespace) {
+        return new ReplicatedCounters(this, namespace);
+    }
+
+    // worst case UTF-8 must still fit an entry
+    boolean replicable(String key) {
+        return key.length() <= MAX_KEY_LENGTH / 3;
+    }
+
+    void add(String key, long delta, long expiresAtMillis) {
+        if (!replicable(key)) {
+            throw new IllegalArgumentException("key too long to replicate");
+        }
+        PNCounter counter = counters.computeIfAbsent(key, k -> new PNCounter(nodeId, expiresAtMillis));
+        counter.add(delta);
+        dirty.add(key);
+    }
+
+    long remote(String key) {
+        PNCounter counter = counters.get(key);
+        return counter == null ? 0 : counter.remoteValue();
+    }
+
+    public long value(String key) {
+        PNCounter counter = counters.get(key);
+        return counter == null ? 0 : counter.localValue() + counter.remoteValue();
+    }
+
+    void resetLocal(String prefix) {
+        for (Map.Entry<String, PNCounter> entry : counters.entrySet()) {
+            if (entry.getKey().startsWith(prefix)) {
+                long local = entry.getValue().localValue();
+                if (local != 0) {
+                    entry.getValue().add(-local);
+                    dirty.add(entry.getKey());
+                }
+            }
+        }
+    }
+
+    public GossipStats stats() {
+        double seconds = Math.max(1e-3, (System.nanoTime() - startedAtNanos) / 1e9);
+        int keys = counters.size();
+        long sent = bytesSent.sum();
+        return new GossipStats(
+                nodeId,
+                peers.size(),
+                keys,
+                batchesSent.sum(),
+                sent,
+                bytesReceived.sum(),
+                keys == 0 ? 0 : sent / seconds / keys
+        );
+    }
+
+    private void sendLoop() {
+        ByteBuffer out = ByteBuffer.allocateDirect(MAX_DATAGRAM);
+        long round = 0;
+        while (running) {
+            try {
+                Thread.sleep(intervalMillis);
+                long now = System.currentTimeMillis();
+                counters.values().removeIf(counter -> counter.expiresAtMillis < now);
+
+                boolean fullSync = ++round % FULL_SYNC_ROUNDS == 0;
+                Iterator<String> keys = fullSync
+                        ? counters.keySet().iterator()
+                        : dirty.iterator();
+                sendBatch(out, keys, fullSync);
+            } catch (InterruptedException e) {
+                return;
+            } catch (IOException e) {
+                if (running) {
+                    log.warn("Gossip send failed on " + nodeId, e);
+                }
+            }
+        }
+    }
+
+    private void sendBatch(ByteBuffer out, Iterator<String> keys, boolean fullSync) throws IOException {
+        if (fullSync) {
+            dirty.clear();
+        }
+
+        int countPosition = startDatagram(out);
+        int entries = 0;
+        while (keys.hasNext()) {
+            String key = keys.next();
+            if (!fullSync) {
+                // removed before reading, so a hit racing with us marks the key dirty again
+                keys.remove();
+            }
+            PNCounter counter = counters.get(key);
+            if (counter == null) {
+                continue;
+            }
+
+            if (out.remaining() < MAX_ENTRY) {
+                out.putShort(countPosition, (short) entries);
+                flush(out);
+                countPosition = startDatagram(out);
+                entries = 0;
+            }
+
+            byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+            out.putShort((short) keyBytes.length);
+            out.put(keyBytes);
+            putVarLong(out, counter.expiresAtMillis);
+            putVarLong(out, counter.localP());
+            putVarLong(out, counter.localN());
+            entries++;
+        }
+
+        if (entries > 0) {
+            out.putShort(countPosition, (short) entries);
+            flush(out);
+        }
+        out.clear();
+    }
+
+    private int startDatagram(ByteBuffer out) {
+        out.clear();
+        out.put(VERSION);
+        out.put((byte) nodeIdBytes.length);
+        out.put(nodeIdBytes);
+        int countPosition = out.position();
+        out.putShort((short) 0);
+        return countPosition;
+    }
+
+    private void flush(ByteBuffer out) throws IOException {
+        out.flip();
+        int size = out.remaining();
+        for (SocketAddress peer : peers) {
+            out.rewind();
+            channel.send(out, peer);
+            bytesSent.add(size);
+        }
+        batchesSent.increment();
+    }
+
+    private void receiveLoop() {
+        ByteBuffer in = ByteBuffer.allocateDirect(MAX_DATAGRAM);
+        byte[] scratch = new byte[MAX_KEY_LENGTH];
+        while (running) {
+            try {
+                in.clear();
+                channel.receive(in);
+                in.flip();
+                bytesReceived.add(in.remaining());
+                merge(in, scratch);
+            } catch (AsynchronousCloseException e) {
+                return;
+            } catch (IOException | RuntimeException e) {
+                // a malformed datagram is dropped, the sender re-sends its totals anyway
+                if (running) {
+                    log.warn("Dropped gossip datagram on " + nodeId, e);
+                }
+            }
+        }
+    }
+
+    private void merge(ByteBuffer in, byte[] scratch) {
+        if (in.get() != VERSION) {
+            return;
+        }
+        int nodeLength = in.get() & 0xff;
+        in.get(scratch, 0, nodeLength);
+        String origin = new String(scratch, 0, nodeLength, StandardCharsets.UTF_8);
+
+        int entries = in.getShort() & 0xffff;
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < entries; i++) {
+            int keyLength = in.getShort() & 0xffff;
+            in.get(scratch, 0, keyLength);
+            long expiresAt = getVarLong(in);
+            long p = getVarLong(in);
+            long n = getVarLong(in);
+            if (expiresAt < now) {
+                continue;
+            }
+
+            String key = new String(scratch, 0, keyLength, StandardCharsets.UTF_8);
+            counters.computeIfAbsent(key, k -> new PNCounter(nodeId, expiresAt))
+                    .merge(origin, p, n);
+        }
+    }
+
+    private static void putVarLong(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    private static long getVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varlong");
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        channel.close();
+    }
+}
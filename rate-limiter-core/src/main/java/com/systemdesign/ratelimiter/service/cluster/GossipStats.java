@@ -0,0 +1,12 @@
+package com.systemdesign.ratelimiter.service.cluster;
+
+public record GossipStats(
+        String nodeId,
+        int peers,
+        int keys,
+        long batchesSent,
+        long bytesSent,
+        long bytesReceived,
+        double bytesPerKeyPerSecond
+        //bytesPerKeyPerSecond- gossip bytes sent per second since the node started, divided by the keys it holds now
+){}
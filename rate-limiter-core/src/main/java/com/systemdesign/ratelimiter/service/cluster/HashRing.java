@@ -0,0 +1,149 @@
+package com.systemdesign.ratelimiter.service.cluster;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+Consistent hashing ring with virtual nodes and bounded load, immutable once built.
+Every member places `vnodes` points on a 64-bit ring, a key belongs to the first point at or
+after its hash. A membership change only moves the ranges next to the added / removed points.
+
+Bounded load is applied to the ranges themselves, so every node computes the same owners from
+the member list alone: walking the ring, a range whose natural owner already holds more than
+loadFactor / members of the hash space goes to the next member clockwise that still has room.
+ */
+public final class HashRing {
+
+    public static final HashRing EMPTY = new HashRing(List.of(), new long[0], new int[0]);
+
+    private static final double RING_SIZE = 18446744073709551616.0; // 2^64
+
+    private final List<RingMember> members;
+    // point hashes flipped into signed order (h ^ Long.MIN_VALUE) so Arrays.binarySearch works
+    private final long[] points;
+    // member index owning the range that ends at each point
+    private final int[] owners;
+
+    private HashRing(List<RingMember> members, long[] points, int[] owners) {
+        this.members = members;
+        this.points = points;
+        this.owners = owners;
+    }
+
+    public static HashRing build(List<RingMember> members, int vnodes, double loadFactor) {
+        if (vnodes <= 0) {
+            throw new IllegalArgumentException("vnodes must be positive");
+        }
+        if (loadFactor < 1.0) {
+            throw new IllegalArgumentException("loadFactor must be at least 1.0");
+        }
+        if (members.isEmpty()) {
+            return EMPTY;
+        }
+
+        List<RingMember> sortedMembers = new ArrayList<>(members);
+        sortedMembers.sort((a, b) -> a.nodeId().compareTo(b.nodeId()));
+        for (int i = 1; i < sortedMembers.size(); i++) {
+            if (sortedMembers.get(i).nodeId().equals(sortedMembers.get(i - 1).nodeId())) {
+                throw new IllegalArgumentException("Duplicate ring member " + sortedMembers.get(i).nodeId());
+            }
+        }
+
+        int size = sortedMembers.size() * vnodes;
+        long[][] placed = new long[size][];
+        for (int m = 0; m < sortedMembers.size(); m++) {
+            for (int v = 0; v < vnodes; v++) {
+                long h = hash(sortedMembers.get(m).nodeId() + "#" + v) ^ Long.MIN_VALUE;
+                placed[m * vnodes + v] = new long[]{h, m};
+            }
+        }
+        Arrays.sort(placed, (a, b) -> a[0] != b[0]
+                ? Long.compare(a[0], b[0])
+                : Long.compare(a[1], b[1]));
+
+        long[] points = new long[size];
+        int[] natural = new int[size];
+        for (int i = 0; i < size; i++) {
+            points[i] = placed[i][0];
+            natural[i] = (int) placed[i][1];
+        }
+
+        double cap = loadFactor * RING_SIZE / sortedMembers.size();
+        double[] load = new double[sortedMembers.size()];
+        int[] owners = new int[size];
+
+        for (int i = 0; i < size; i++) {
+            // range (points[i - 1], points[i]], the first one wraps around from the last point
+            long previous = i == 0 ? points[size - 1] : points[i - 1];
+            double length = size == 1 ? RING_SIZE : unsigned(points[i] - previous);
+
+            int owner = natural[i];
+            for (int step = 0; step < size && load[owner] + length > cap; step++) {
+                owner = natural[(i + step + 1) % size];
+            }
+            if (load[owner] + length > cap) {
+                // nobody has room (a huge range), keep the natural owner
+                owner = natural[i];
+            }
+            owners[i] = owner;
+            load[owner] += length;
+        }
+
+        return new HashRing(List.copyOf(sortedMembers), points, owners);
+    }
+
+    public RingMember owner(String key) {
+        if (points.length == 0) {
+            return null;
+        }
+        long h = hash(key) ^ Long.MIN_VALUE;
+        int i = Arrays.binarySearch(points, h);
+        if (i < 0) {
+            i = -i - 1;
+            if (i == points.length) {
+                i = 0;
+            }
+        }
+        return members.get(owners[i]);
+    }
+
+    public List<RingMember> members() {
+        return members;
+    }
+
+    // Fraction of the hash space each member owns after bounded load
+    public Map<String, Double> shares() {
+        double[] share = new double[members.size()];
+        for (int i = 0; i < points.length; i++) {
+            long previous = i == 0 ? points[points.length - 1] : points[i - 1];
+            double length = points.length == 1 ? RING_SIZE : unsigned(points[i] - previous);
+            share[owners[i]] += length / RING_SIZE;
+        }
+        Map<String, Double> result = new LinkedHashMap<>();
+        for (int m = 0; m < members.size(); m++) {
+            result.put(members.get(m).nodeId(), share[m]);
+        }
+        return result;
+    }
+
+    private static double unsigned(long value) {
+        return (value >>> 1) * 2.0 + (value & 1);
+    }
+
+    // FNV-1a over the chars, finished with the murmur3 mixer so nearby keys spread over the ring
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h = (h ^ key.charAt(i)) * 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,107 @@
+package com.systemdesign.ratelimiter.service.cluster;
+
+import com.systemdesign.ratelimiter.dto.KeyState;
+import com.systemdesign.ratelimiter.dto.RateLimiterHitResponse;
+import com.systemdesign.ratelimiter.protocol.Decision;
+import com.systemdesign.ratelimiter.protocol.DecisionFrames;
+import com.systemdesign.ratelimiter.service.algorithm.RateLimiter;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/*
+Sends each hit to the key's owner on the ring, decides locally when this node owns the key.
+If the owner cannot answer in time the hit is decided locally (the limit then only holds per node
+until the owner is back). State does not move on a rebalance, moved keys start fresh on their new owner.
+ */
+public class OwnerRoutingRateLimiter implements RateLimiter {
+
+    private static final Log log = LogFactory.getLog(OwnerRoutingRateLimiter.class);
+
+    private final String policy;
+    private final byte[] policyBytes;
+    private final RateLimiter local;
+    private final OwnershipRing ring;
+
+    OwnerRoutingRateLimiter(String policy, RateLimiter local, OwnershipRing ring) {
+        this.policy = policy;
+        this.policyBytes = DecisionFrames.utf8(policy);
+        this.local = local;
+        this.ring = ring;
+    }
+
+    @Override
+    public RateLimiterHitResponse hitEndpoint(String clientId) {
+        RingMember owner = ring.remoteOwner(clientId);
+        if (owner == null) {
+            return local.hitEndpoint(clientId);
+        }
+
+        try {
+            Decision decision = ring.forward(owner, policyBytes, DecisionFrames.utf8(clientId))
+                    .get(ring.forwardTimeoutMillis(), TimeUnit.MILLISECONDS);
+
+            if (decision.status() == DecisionFrames.ALLOWED || decision.status() == DecisionFrames.REJECTED) {
+                return new RateLimiterHitResponse(
+                        decision.allowed(),
+                        decision.allowed() ? "ALLOWED" : "BLOCKED",
+                        System.currentTimeMillis(),
+                        decision.retryAfter(),
+                        decision.remainingHits(),
+                        Map.of("owner", owner.nodeId())
+                );
+            }
+            log.warn("Owner " + owner.nodeId() + " answered status " + decision.status()
+                    + " for policy '" + policy + "', deciding locally");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Forward to " + owner.nodeId() + " failed, deciding locally", e);
+        }
+        return local.hitEndpoint(clientId);
+    }
+
+    @Override
+    public void reset() {
+        local.reset();
+    }
+
+    @Override
+    public void reset(String keyPrefix) {
+        local.reset(keyPrefix);
+    }
+
+    @Override
+    public void onComplete(String clientId, long latencyNanos, boolean success) {
+        local.onComplete(clientId, latencyNanos, success);
+    }
+
+    @Override
+    public int inspectSegments() {
+        return local.inspectSegments();
+    }
+
+    @Override
+    public void inspect(int segment, Consumer<KeyState> sink) {
+        local.inspect(segment, sink);
+    }
+
+    @Override
+    public void migrateFrom(RateLimiter previous) {
+        local.migrateFrom(previous.unwrap());
+    }
+
+    RateLimiter local() {
+        return local;
+    }
+
+    @Override
+    public RateLimiter unwrap() {
+        return local.unwrap();
+    }
+}
@@ -0,0 +1,163 @@
+package com.systemdesign.ratelimiter.service.cluster;
+
+import com.systemdesign.ratelimiter.protocol.Decision;
+import com.systemdesign.ratelimiter.protocol.DecisionClient;
+import com.systemdesign.ratelimiter.service.algorithm.RateLimiter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/*
+Key ownership across limiter nodes (ratelimiter.ring.*): every client key has one owner on the
+hash ring, other nodes forward its hits there over the binary decision protocol, so limits are
+exact without a shared store. One pipelined DecisionClient per peer, hits from all callers
+going to the same peer are batched into the same writes.
+Connecting happens on its own thread and is bounded by the forward timeout, hits never wait
+for it longer than that and are decided locally meanwhile.
+Off (limiters are not wrapped) when ratelimiter.ring.node-id is unset.
+ */
+@Component
+public class OwnershipRing {
+
+    private static final Log log = LogFactory.getLog(OwnershipRing.class);
+
+    private final String nodeId;
+    private final String members;
+    private final int vnodes;
+    private final double loadFactor;
+    private final long forwardTimeoutMillis;
+
+    private volatile HashRing ring = HashRing.EMPTY;
+    // completes once connected, a failed or closed one is replaced by the next hit
+    private final Map<String, CompletableFuture<DecisionClient>> clients = new ConcurrentHashMap<>();
+
+    public OwnershipRing(
+            @Value("${ratelimiter.ring.node-id:}") String nodeId,
+            @Value("${ratelimiter.ring.members:}") String members,
+            @Value("${ratelimiter.ring.vnodes:128}") int vnodes,
+            @Value("${ratelimiter.ring.load-factor:1.25}") double loadFactor,
+            @Value("${ratelimiter.ring.forward-timeout-ms:500}") long forwardTimeoutMillis
+    ) {
+        this.nodeId = nodeId;
+        this.members = members;
+        this.vnodes = vnodes;
+        this.loadFactor = loadFactor;
+        this.forwardTimeoutMillis = forwardTimeoutMillis;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled()) {
+            return;
+        }
+        setMembers(parseMembers(members));
+        log.info("Ownership ring on " + nodeId + ": " + ring.shares());
+    }
+
+    @PreDestroy
+    public void stop() {
+        for (String id : new ArrayList<>(clients.keySet())) {
+            disconnect(id);
+        }
+    }
+
+    public boolean enabled() {
+        return !nodeId.isBlank();
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    public HashRing ring() {
+        return ring;
+    }
+
+    // Join / leave: rebuild and swap, only keys next to the changed points get a new owner
+    public synchronized void setMembers(List<RingMember> members) {
+        HashRing next = HashRing.build(members, vnodes, loadFactor);
+        ring = next;
+
+        // drop connections to members that left
+        for (String id : new ArrayList<>(clients.keySet())) {
+            if (next.members().stream().noneMatch(m -> m.nodeId().equals(id))) {
+                disconnect(id);
+            }
+        }
+    }
+
+    public RateLimiter route(String policy, RateLimiter local) {
+        return enabled() ? new OwnerRoutingRateLimiter(policy, local, this) : local;
+    }
+
+    // the limiter below the routing layer, with its budget, cache and tracing, for hits this node owns
+    public static RateLimiter owned(RateLimiter limiter) {
+        return limiter instanceof OwnerRoutingRateLimiter routing ? routing.local() : limiter;
+    }
+
+    // null -> decide here
+    RingMember remoteOwner(String clientId) {
+        RingMember owner = ring.owner(clientId);
+        return owner == null || owner.nodeId().equals(nodeId) ? null : owner;
+    }
+
+    long forwardTimeoutMillis() {
+        return forwardTimeoutMillis;
+    }
+
+    CompletableFuture<Decision> forward(RingMember owner, byte[] policy, byte[] key) {
+        CompletableFuture<DecisionClient> client = clients.compute(owner.nodeId(),
+                (id, current) -> current != null && usable(current) ? current : connect(owner));
+        // the caller may stop waiting earlier, this still takes the request out of the client's in-flight map
+        return client.thenCompose(c -> c.decide(policy, key, 1).orTimeout(forwardTimeoutMillis, TimeUnit.MILLISECONDS));
+    }
+
+    private static boolean usable(CompletableFuture<DecisionClient> client) {
+        if (!client.isDone()) {
+            return true;
+        }
+        return !client.isCompletedExceptionally() && !client.join().isClosed();
+    }
+
+    private CompletableFuture<DecisionClient> connect(RingMember owner) {
+        CompletableFuture<DecisionClient> client = new CompletableFuture<>();
+        Thread.ofVirtual().name("ring-connect-" + owner.nodeId()).start(() -> {
+            try {
+                client.complete(new DecisionClient(owner.decisionAddress(), forwardTimeoutMillis));
+            } catch (IOException e) {
+                client.completeExceptionally(new IOException("Cannot reach ring member " + owner.nodeId(), e));
+            }
+        });
+        return client;
+    }
+
+    // also closes a connection that is still being set up once it is
+    private void disconnect(String id) {
+        CompletableFuture<DecisionClient> client = clients.remove(id);
+        if (client != null) {
+            client.thenAccept(DecisionClient::close);
+        }
+    }
+
+    // "a@host:7070,b@host:7071"
+    public static List<RingMember> parseMembers(String members) {
+        List<RingMember> result = new ArrayList<>();
+        for (String member : members.split(",")) {
+            if (!member.isBlank()) {
+                result.add(RingMember.parse(member));
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,86 @@
+package com.systemdesign.ratelimiter.service.cluster;
+
+import java.util.Arrays;
+
+/*
+PN-Counter for one key: every node only ever grows its own P (increments) and N (decrements),
+value = sum(P) - sum(N). Merging takes the max per node, so duplicated, reordered or
+re-sent gossip is harmless. Without decrements it is a plain G-Counter.
+ */
+final class PNCounter {
+
+    private final String localNode;
+    private String[] nodes = new String[0];
+    private long[] p = new long[0];
+    private long[] n = new long[0];
+
+    private long localP;
+    private long localN;
+    // sum over the other nodes, read on every decision so it is kept up to date on merge
+    private volatile long remoteValue;
+    volatile long expiresAtMillis;
+
+    PNCounter(String localNode, long expiresAtMillis) {
+        this.localNode = localNode;
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    synchronized void add(long delta) {
+        if (delta >= 0) {
+            localP += delta;
+        } else {
+            localN -= delta;
+        }
+    }
+
+    synchronized long localValue() {
+        return localP - localN;
+    }
+
+    long remoteValue() {
+        return remoteValue;
+    }
+
+    synchronized long localP() {
+        return localP;
+    }
+
+    synchronized long localN() {
+        return localN;
+    }
+
+    synchronized void merge(String node, long nodeP, long nodeN) {
+        if (node.equals(localNode)) {
+            // our own state echoed back (e.g. after a restart), never go backwards
+            localP = Math.max(localP, nodeP);
+            localN = Math.max(localN, nodeN);
+            return;
+        }
+
+        int i = indexOf(node);
+        if (i < 0) {
+            i = nodes.length;
+            nodes = Arrays.copyOf(nodes, i + 1);
+            p = Arrays.copyOf(p, i + 1);
+            n = Arrays.copyOf(n, i + 1);
+            nodes[i] = node;
+        }
+        p[i] = Math.max(p[i], nodeP);
+        n[i] = Math.max(n[i], nodeN);
+
+        long sum = 0;
+        for (int j = 0; j < nodes.length; j++) {
+            sum += p[j] - n[j];
+        }
+        remoteValue = sum;
+    }
+
+    private int indexOf(String node) {
+        for (int i = 0; i < nodes.length; i++) {
+            if (nodes[i].equals(node)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
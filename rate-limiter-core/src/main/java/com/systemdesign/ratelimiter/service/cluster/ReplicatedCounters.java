@@ -0,0 +1,41 @@
+package com.systemdesign.ratelimiter.service.cluster;
+
+// One limiter's slice of the replicated counters, keys are prefixed with the limiter's name
+public final class ReplicatedCounters {
+
+    private final GossipNode node;
+    private final String prefix;
+
+    ReplicatedCounters(GossipNode node, String namespace) {
+        this.node = node;
+        this.prefix = namespace + "/";
+    }
+
+    public String key(String clientId, long window) {
+        return prefix + clientId + "@" + window;
+    }
+
+    // false for keys too long to fit a gossip entry, add() refuses those
+    public boolean replicable(String key) {
+        return node.replicable(key);
+    }
+
+    // usage counted by the other nodes, as of the last gossip received
+    public long remote(String key) {
+        return node.remote(key);
+    }
+
+    public void add(String key, long delta, long expiresAtMillis) {
+        node.add(key, delta, expiresAtMillis);
+    }
+
+    // Cancels this node's contribution for every key of the limiter (decrements, so peers converge too)
+    public void resetLocal() {
+        node.resetLocal(prefix);
+    }
+
+    // Same for the client ids starting with clientIdPrefix
+    public void resetLocal(String clientIdPrefix) {
+        node.resetLocal(prefix + clientIdPrefix);
+    }
+}
@@ -0,0 +1,26 @@
+package com.systemdesign.ratelimiter.service.cluster;
+
+import java.net.InetSocketAddress;
+
+public record RingMember(
+        String nodeId,
+        InetSocketAddress decisionAddress
+        //decisionAddress- the member's binary decision port, forwarded hits go there
+){
+    // "nodeId@host:port"
+    public static RingMember parse(String value) {
+        String trimmed = value.trim();
+        int at = trimmed.indexOf('@');
+        int colon = trimmed.lastIndexOf(':');
+        if (at <= 0 || colon <= at + 1) {
+            throw new IllegalArgumentException("Invalid ring member (expected nodeId@host:port): " + trimmed);
+        }
+        return new RingMember(
+                trimmed.substring(0, at),
+                new InetSocketAddress(
+                        trimmed.substring(at + 1, colon),
+                        Integer.parseInt(trimmed.substring(colon + 1))
+                )
+        );
+    }
+}
@@ -0,0 +1,479 @@
+package com.systemdesign.ratelimiter.service.factory;
+
+import com.systemdesign.ratelimiter.dto.RateLimiterInitRequest;
+import com.systemdesign.ratelimiter.enums.RateLimiterAlgoType;
+import com.systemdesign.ratelimiter.enums.StoreFallback;
+import com.systemdesign.ratelimiter.model.*;
+import com.systemdesign.ratelimiter.service.algorithm.AdaptiveConcurrency.AdaptiveConcurrencyRateLimiter;
+import com.systemdesign.ratelimiter.service.algorithm.FixedWindow.FixedWindowRateLimiter;
+import com.systemdesign.ratelimiter.service.algorithm.FixedWindow.FixedWindowState;
+import com.systemdesign.ratelimiter.service.algorithm.LeakyBucket.LeakyBucketRateLimiter;
+import com.systemdesign.ratelimiter.service.algorithm.LeakyBucket.LeakyBucketState;
+import com.systemdesign.ratelimiter.service.algorithm.NegativeCachingRateLimiter;
+import com.systemdesign.ratelimiter.service.algorithm.Quota.QuotaRateLimiter;
+import com.systemdesign.ratelimiter.service.algorithm.Quota.QuotaState;
+import com.systemdesign.ratelimiter.service.algorithm.RateLimiter;
+import com.systemdesign.ratelimiter.service.algorithm.SlidingWindow.SlidingWindowBuckets.SlidingWindowBucketsRateLimiter;
+import com.systemdesign.ratelimiter.service.algorithm.SlidingWindow.SlidingWindowBuckets.SlidingWindowBucketsState;
+import com.systemdesign.ratelimiter.service.algorithm.SlidingWindow.SlidingWindowCounter.SlidingWindowCounterRateLimiter;
+import com.systemdesign.ratelimiter.service.algorithm.SlidingWindow.SlidingWindowCounter.SlidingWindowCounterState;
+import com.systemdesign.ratelimiter.service.algorithm.SlidingWindow.SlidingWindowLog.SlidingWindowLogRateLimiter;
+import com.systemdesign.ratelimiter.service.algorithm.TokenBucket.TokenBucketRateLimiter;
+import com.systemdesign.ratelimiter.service.algorithm.TokenBucket.TokenBucketState;
+import com.systemdesign.ratelimiter.service.cluster.GossipCluster;
+import com.systemdesign.ratelimiter.service.cluster.OwnershipRing;
+import com.systemdesign.ratelimiter.service.guard.BudgetedRateLimiter;
+import com.systemdesign.ratelimiter.service.guard.StoreGuards;
+import com.systemdesign.ratelimiter.service.scheduler.HashedWheelTimer;
+import com.systemdesign.ratelimiter.store.InMemoryStores.InMemoryStore;
+import com.systemdesign.ratelimiter.store.OffHeapStores.FixedWindowStateCodec;
+import com.systemdesign.ratelimiter.store.OffHeapStores.LeakyBucketStateCodec;
+import com.systemdesign.ratelimiter.store.OffHeapStores.OffHeapStore;
+import com.systemdesign.ratelimiter.store.OffHeapStores.TokenBucketStateCodec;
+import com.systemdesign.ratelimiter.store.RateLimiterStore;
+import com.systemdesign.ratelimiter.store.TieredStores.QuotaStores;
+import com.systemdesign.ratelimiter.tracing.TracingRateLimiter;
+
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+Built through builder(): the shared /api/init stores default to fresh in-memory ones and every other
+collaborator is optional, a missing one turns its feature off. RateLimiterFactoryConfiguration wires
+the application's beans in.
+ */
+public class RateLimiterFactory {
+
+    // precision of SLIDING_WINDOW_BUCKETS when subBuckets is not given
+    private static final int DEFAULT_SUB_BUCKETS = 10;
+    private static final int MAX_SUB_BUCKETS = 100_000;
+
+    private final RateLimiterStore<FixedWindowState> fixedWindowStore;
+    private final RateLimiterStore<TokenBucketState> tokenBucketStore;
+    private final RateLimiterStore<LeakyBucketState> leakyBucketStore;
+    private final RateLimiterStore<SlidingWindowCounterState[]> slidingWindowCounterStore;
+    private final RateLimiterStore<SlidingWindowBucketsState> slidingWindowBucketsStore;
+    private final RateLimiterStore<Deque<Long>> slidingWindowLogStore;
+    private final HashedWheelTimer timer;
+    private final GossipCluster cluster;
+    private final OwnershipRing ring;
+    private final QuotaStores quotaStores;
+    private final StoreGuards storeGuards;
+    // "memory" (default) or "offheap": fixed size states (buckets, fixed window) live outside the heap
+    private final boolean offHeap;
+    private final Map<RateLimiterAlgoType, RateLimiterStore<?>> sharedOffHeapStores = new ConcurrentHashMap<>();
+    // slots of the per limiter blocked-client cache, 0 turns it off
+    private final int blockedCacheSize;
+
+    private RateLimiterFactory(Builder builder) {
+        this.fixedWindowStore = builder.fixedWindowStore;
+        this.tokenBucketStore = builder.tokenBucketStore;
+        this.leakyBucketStore = builder.leakyBucketStore;
+        this.slidingWindowCounterStore = builder.slidingWindowCounterStore;
+        this.slidingWindowBucketsStore = builder.slidingWindowBucketsStore;
+        this.slidingWindowLogStore = builder.slidingWindowLogStore;
+        this.timer = builder.timer;
+        this.cluster = builder.cluster;
+        this.ring = builder.ring;
+        this.quotaStores = builder.quotaStores;
+        this.storeGuards = builder.storeGuards;
+        if (!builder.storeType.equals("memory") && !builder.storeType.equals("offheap")) {
+            throw new IllegalArgumentException("ratelimiter.store must be memory or offheap");
+        }
+        this.offHeap = builder.storeType.equals("offheap");
+        if (builder.blockedCacheSize < 0) {
+            throw new IllegalArgumentException("ratelimiter.blocked-cache.size must be >= 0");
+        }
+        this.blockedCacheSize = builder.blockedCacheSize;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public RateLimiter createRateLimiter(RateLimiterInitRequest request) {
+
+        RateLimiterAlgoType algorithm = request.getAlgorithm();
+
+        if (algorithm == null) {
+            throw new IllegalArgumentException("algorithm is required");
+        }
+
+        return createRateLimiter("", request, sharedStore(algorithm));
+    }
+
+    // Policies get a store of their own so two policies never share per-key state
+    public RateLimiterStore<?> newStore(RateLimiterAlgoType algorithm) {
+        if (!offHeap) {
+            return new InMemoryStore<>();
+        }
+        return switch (algorithm) {
+            case TOKEN_BUCKET -> new OffHeapStore<>(new TokenBucketStateCodec());
+            case LEAKY_BUCKET -> new OffHeapStore<>(new LeakyBucketStateCodec());
+            case FIXED_WINDOW -> new OffHeapStore<>(new FixedWindowStateCodec());
+            // variable size state (logs, rings) stays on heap, quotas not kept under a name (warm-up) too
+            default -> new InMemoryStore<>();
+        };
+    }
+
+    // Like newStore(algorithm), except that quotas get the persistent store kept under the limiter's name
+    public RateLimiterStore<?> newStore(String name, RateLimiterAlgoType algorithm) {
+        if (algorithm == RateLimiterAlgoType.QUOTA) {
+            return quotaStore(name);
+        }
+        return newStore(algorithm);
+    }
+
+    public RateLimiter createRateLimiter(RateLimiterInitRequest request, RateLimiterStore<?> store) {
+        return createRateLimiter("", request, store);
+    }
+
+    // name identifies the limiter across nodes when counters are replicated ("" = the /api/init limiter)
+    public RateLimiter createRateLimiter(String name, RateLimiterInitRequest request, RateLimiterStore<?> store) {
+        return createRateLimiter(name, request, store, true);
+    }
+
+    // decides on this node only: no replicated counters, no forwarding to a key owner (warm-up)
+    public RateLimiter createLocalRateLimiter(RateLimiterInitRequest request, RateLimiterStore<?> store) {
+        return createRateLimiter("", request, store, false);
+    }
+
+    private RateLimiter createRateLimiter(
+            String name,
+            RateLimiterInitRequest request,
+            RateLimiterStore<?> store,
+            boolean clustered
+    ) {
+
+        RateLimiterAlgoType algorithm = request.getAlgorithm();
+
+        if (algorithm == null) {
+            throw new IllegalArgumentException("algorithm is required");
+        }
+
+        RateLimiter limiter = algorithm(name, request, store, clustered);
+
+        // a decision waits for the store at most its budget, then falls back
+        // (ADAPTIVE_CONCURRENCY has no store, local limiters like the warm-up ones run unbudgeted)
+        StoreBudgetConfig budget = !clustered
+                || storeGuards == null
+                || algorithm == RateLimiterAlgoType.ADAPTIVE_CONCURRENCY
+                ? null
+                : storeGuards.config(request);
+        if (budget != null) {
+            RateLimiter local = budget.fallback() == StoreFallback.LOCAL
+                    ? algorithm(name, request, new InMemoryStore<>(), false)
+                    : null;
+            limiter = new BudgetedRateLimiter(
+                    limiter,
+                    local,
+                    budget,
+                    storeGuards.guard(name),
+                    storeGuards.executor()
+            );
+        }
+
+        // repeat offenders are turned away without a store call until their retryAfter is near
+        if (blockedCacheSize > 0
+                && algorithm != RateLimiterAlgoType.ADAPTIVE_CONCURRENCY
+                && algorithm != RateLimiterAlgoType.SLIDING_WINDOW_COUNTER) {
+            limiter = new NegativeCachingRateLimiter(limiter, blockedCacheSize);
+        }
+
+        // JFR decision events, a disabled check per hit unless a recording is running
+        limiter = new TracingRateLimiter(name, algorithm.name(), limiter);
+
+        // in-flight concurrency is a property of this node, only rate limits are routed to a key owner
+        if (!clustered || ring == null || algorithm == RateLimiterAlgoType.ADAPTIVE_CONCURRENCY) {
+            return limiter;
+        }
+        return ring.route(name, limiter);
+    }
+
+    // the algorithm alone, without the decorators
+    @SuppressWarnings("unchecked")
+    private RateLimiter algorithm(
+            String name,
+            RateLimiterInitRequest request,
+            RateLimiterStore<?> store,
+            boolean clustered
+    ) {
+        return switch (request.getAlgorithm()) {
+
+            case FIXED_WINDOW -> {
+                if (request.getMaxRequests() <= 0 || request.getWindowSize() <= 0) {
+                    throw new IllegalArgumentException("Invalid Fixed Window config");
+                }
+                validate(request.getMaxRequests(), "maxRequests");
+                validate(request.getWindowSize(), "windowSize");
+
+                yield new FixedWindowRateLimiter(
+                        new FixedWindowConfig(
+                                request.getMaxRequests(),
+                                request.getWindowSize()
+                        ),
+                        (RateLimiterStore<FixedWindowState>) store,
+                        !clustered || cluster == null ? null : cluster.counters(name)
+                );
+            }
+
+            case TOKEN_BUCKET -> {
+                if (request.getBucketCapacity() <= 0 || request.getRefillRate() <= 0.0) {
+                    System.out.println(request.getBucketCapacity() + " " + request.getRefillRate());
+                    throw new IllegalArgumentException("Invalid Token Bucket config");
+                }
+                validate(request.getBucketCapacity(), "bucketCapacity");
+                validate(request.getRefillRate(), "refillRate");
+
+                yield new TokenBucketRateLimiter(
+                        new TokenBucketConfig(
+                                request.getBucketCapacity(),
+                                request.getRefillRate()
+                        ),
+                        (RateLimiterStore<TokenBucketState>) store,
+                        timer
+                );
+            }
+
+            case SLIDING_WINDOW_LOG -> {
+                if (request.getMaxRequests() <= 0 || request.getWindowSize() <= 0) {
+                    throw new IllegalArgumentException("Invalid Sliding Window Log config");
+                }
+                validate(request.getMaxRequests(), "maxRequests");
+                validate(request.getWindowSize(), "windowSize");
+
+                yield new SlidingWindowLogRateLimiter(
+                        new SlidingWindowConfig(
+                                request.getMaxRequests(),
+                                request.getWindowSize()
+                        ),
+                        (RateLimiterStore<Deque<Long>>) store
+                );
+            }
+
+            case SLIDING_WINDOW_COUNTER -> {
+                if (request.getMaxRequests() <= 0 || request.getWindowSize() <= 0) {
+                    throw new IllegalArgumentException("Invalid Sliding Window Counter config");
+                }
+                validate(request.getMaxRequests(), "maxRequests");
+                validate(request.getWindowSize(), "windowSize");
+
+                yield new SlidingWindowCounterRateLimiter(
+                        new SlidingWindowConfig(
+                                request.getMaxRequests(),
+                                request.getWindowSize()
+                        ),
+                        (RateLimiterStore<SlidingWindowCounterState[]>) store
+                );
+            }
+
+            case SLIDING_WINDOW_BUCKETS -> {
+                if (request.getMaxRequests() <= 0 || request.getWindowSize() <= 0) {
+                    throw new IllegalArgumentException("Invalid Sliding Window Buckets config");
+                }
+                validate(request.getMaxRequests(), "maxRequests");
+                validate(request.getWindowSize(), "windowSize");
+
+                int subBuckets = request.getSubBuckets() == null
+                        ? DEFAULT_SUB_BUCKETS
+                        : request.getSubBuckets();
+                // a sub-bucket is at least one millisecond
+                if (subBuckets <= 0
+                        || subBuckets > MAX_SUB_BUCKETS
+                        || subBuckets > request.getWindowSize() * 1000) {
+                    throw new IllegalArgumentException("Invalid Sliding Window Buckets config");
+                }
+
+                yield new SlidingWindowBucketsRateLimiter(
+                        new SlidingWindowBucketsConfig(
+                                request.getMaxRequests(),
+                                request.getWindowSize(),
+                                subBuckets
+                        ),
+                        (RateLimiterStore<SlidingWindowBucketsState>) store
+                );
+            }
+
+            case LEAKY_BUCKET -> {
+                if (request.getBucketCapacity() <= 0 || request.getLeakRate() <= 0) {
+                    throw new IllegalArgumentException("Invalid Leaky Bucket config");
+                }
+                validate(request.getBucketCapacity(), "bucketCapacity");
+                validate(request.getLeakRate(), "leakRate");
+
+                yield new LeakyBucketRateLimiter(
+                        new LeakyBucketConfig(
+                                request.getBucketCapacity(),
+                                request.getLeakRate()
+                        ),
+                        (RateLimiterStore<LeakyBucketState>) store,
+                        timer
+                );
+            }
+
+            case ADAPTIVE_CONCURRENCY -> {
+                validate(request.getInitialLimit(), "initialLimit");
+                validate(request.getMinLimit(), "minLimit");
+                validate(request.getMaxLimit(), "maxLimit");
+                if (request.getMinLimit() <= 0
+                        || request.getMinLimit() > request.getInitialLimit()
+                        || request.getInitialLimit() > request.getMaxLimit()) {
+                    throw new IllegalArgumentException("Invalid Adaptive Concurrency config");
+                }
+
+                yield new AdaptiveConcurrencyRateLimiter(
+                        new AdaptiveConcurrencyConfig(
+                                request.getInitialLimit(),
+                                request.getMinLimit(),
+                                request.getMaxLimit()
+                        )
+                );
+            }
+
+            case QUOTA -> {
+                validate(request.getMaxRequests(), "maxRequests");
+                if (request.getMaxRequests() <= 0 || request.getPeriod() == null) {
+                    throw new IllegalArgumentException("Invalid Quota config");
+                }
+
+                yield new QuotaRateLimiter(
+                        new QuotaConfig(
+                                request.getMaxRequests(),
+                                request.getPeriod()
+                        ),
+                        (RateLimiterStore<QuotaState>) store
+                );
+            }
+        };
+    }
+
+    private RateLimiterStore<?> sharedStore(RateLimiterAlgoType algorithm) {
+        if (offHeap && (algorithm == RateLimiterAlgoType.TOKEN_BUCKET
+                || algorithm == RateLimiterAlgoType.LEAKY_BUCKET
+                || algorithm == RateLimiterAlgoType.FIXED_WINDOW)) {
+            return sharedOffHeapStores.computeIfAbsent(algorithm, this::newStore);
+        }
+        return switch (algorithm) {
+            case FIXED_WINDOW -> fixedWindowStore;
+            case TOKEN_BUCKET -> tokenBucketStore;
+            case SLIDING_WINDOW_LOG -> slidingWindowLogStore;
+            case SLIDING_WINDOW_COUNTER -> slidingWindowCounterStore;
+            case SLIDING_WINDOW_BUCKETS -> slidingWindowBucketsStore;
+            case LEAKY_BUCKET -> leakyBucketStore;
+            // keeps its state in the limiter itself
+            case ADAPTIVE_CONCURRENCY -> null;
+            case QUOTA -> quotaStore("");
+        };
+    }
+
+    // a factory built without quota stores (embedded, tests) has nowhere to keep quotas
+    private RateLimiterStore<?> quotaStore(String name) {
+        if (quotaStores == null) {
+            throw new IllegalArgumentException("QUOTA needs quota stores, none were configured");
+        }
+        return quotaStores.store(name);
+    }
+
+    private void validate(Object value, String fieldName) {
+        if (value == null) {
+            throw new IllegalArgumentException(fieldName + " is required");
+        }
+    }
+
+    public static final class Builder {
+
+        private RateLimiterStore<FixedWindowState> fixedWindowStore = new InMemoryStore<>();
+        private RateLimiterStore<TokenBucketState> tokenBucketStore = new InMemoryStore<>();
+        private RateLimiterStore<LeakyBucketState> leakyBucketStore = new InMemoryStore<>();
+        private RateLimiterStore<SlidingWindowCounterState[]> slidingWindowCounterStore = new InMemoryStore<>();
+        private RateLimiterStore<SlidingWindowBucketsState> slidingWindowBucketsStore = new InMemoryStore<>();
+        private RateLimiterStore<Deque<Long>> slidingWindowLogStore = new InMemoryStore<>();
+        // reservations and shaping of the bucket algorithms
+        private HashedWheelTimer timer;
+        // replicated FIXED_WINDOW counters
+        private GossipCluster cluster;
+        // forwarding of each key to its owner node
+        private OwnershipRing ring;
+        // persistent QUOTA state kept under the limiter's name
+        private QuotaStores quotaStores;
+        // store latency budgets and circuit breakers
+        private StoreGuards storeGuards;
+        private String storeType = "memory";
+        private int blockedCacheSize;
+
+        private Builder() {
+        }
+
+        public Builder fixedWindowStore(RateLimiterStore<FixedWindowState> store) {
+            this.fixedWindowStore = store;
+            return this;
+        }
+
+        public Builder tokenBucketStore(RateLimiterStore<TokenBucketState> store) {
+            this.tokenBucketStore = store;
+            return this;
+        }
+
+        public Builder leakyBucketStore(RateLimiterStore<LeakyBucketState> store) {
+            this.leakyBucketStore = store;
+            return this;
+        }
+
+        public Builder slidingWindowCounterStore(RateLimiterStore<SlidingWindowCounterState[]> store) {
+            this.slidingWindowCounterStore = store;
+            return this;
+        }
+
+        public Builder slidingWindowBucketsStore(RateLimiterStore<SlidingWindowBucketsState> store) {
+            this.slidingWindowBucketsStore = store;
+            return this;
+        }
+
+        public Builder slidingWindowLogStore(RateLimiterStore<Deque<Long>> store) {
+            this.slidingWindowLogStore = store;
+            return this;
+        }
+
+        public Builder timer(HashedWheelTimer timer) {
+            this.timer = timer;
+            return this;
+        }
+
+        public Builder cluster(GossipCluster cluster) {
+            this.cluster = cluster;
+            return this;
+        }
+
+        public Builder ring(OwnershipRing ring) {
+            this.ring = ring;
+            return this;
+        }
+
+        public Builder quotaStores(QuotaStores quotaStores) {
+            this.quotaStores = quotaStores;
+            return this;
+        }
+
+        public Builder storeGuards(StoreGuards storeGuards) {
+            this.storeGuards = storeGuards;
+            return this;
+        }
+
+        // "memory" or "offheap"
+        public Builder storeType(String storeType) {
+            this.storeType = storeType;
+            return this;
+        }
+
+        // 0 (default) turns the blocked-client cache off
+        public Builder blockedCacheSize(int blockedCacheSize) {
+            this.blockedCacheSize = blockedCacheSize;
+            return this;
+        }
+
+        public RateLimiterFactory build() {
+            return new RateLimiterFactory(this);
+        }
+    }
+}
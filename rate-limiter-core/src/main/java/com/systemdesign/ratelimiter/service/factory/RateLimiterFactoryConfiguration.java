@@ -0,0 +1,63 @@
+package com.systemdesign.ratelimiter.service.factory;
+
+import com.systemdesign.ratelimiter.service.algorithm.FixedWindow.FixedWindowState;
+import com.systemdesign.ratelimiter.service.algorithm.LeakyBucket.LeakyBucketState;
+import com.systemdesign.ratelimiter.service.algorithm.SlidingWindow.SlidingWindowBuckets.SlidingWindowBucketsState;
+import com.systemdesign.ratelimiter.service.algorithm.SlidingWindow.SlidingWindowCounter.SlidingWindowCounterState;
+import com.systemdesign.ratelimiter.service.algorithm.TokenBucket.TokenBucketState;
+import com.systemdesign.ratelimiter.service.cluster.GossipCluster;
+import com.systemdesign.ratelimiter.service.cluster.OwnershipRing;
+import com.systemdesign.ratelimiter.service.guard.StoreGuards;
+import com.systemdesign.ratelimiter.service.scheduler.HashedWheelTimer;
+import com.systemdesign.ratelimiter.store.RateLimiterStore;
+import com.systemdesign.ratelimiter.store.TieredStores.QuotaStores;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Deque;
+
+// The one place the factory's collaborators are listed, a new one is a builder call here and nowhere else
+@Configuration
+public class RateLimiterFactoryConfiguration {
+
+    @Bean
+    public RateLimiterFactory rateLimiterFactory(
+            @Qualifier("fixedWindowStore")
+            RateLimiterStore<FixedWindowState> fixedWindowStore,
+            @Qualifier("tokenBucketStore")
+            RateLimiterStore<TokenBucketState> tokenBucketStore,
+            @Qualifier("leakyBucketStore")
+            RateLimiterStore<LeakyBucketState> leakyBucketStore,
+            @Qualifier("slidingWindowCounterStore")
+            RateLimiterStore<SlidingWindowCounterState[]> slidingWindowCounterStore,
+            @Qualifier("slidingWindowBucketsStore")
+            RateLimiterStore<SlidingWindowBucketsState> slidingWindowBucketsStore,
+            @Qualifier("slidingWindowLogStore")
+            RateLimiterStore<Deque<Long>> slidingWindowLogStore,
+            HashedWheelTimer timer,
+            GossipCluster cluster,
+            OwnershipRing ring,
+            QuotaStores quotaStores,
+            StoreGuards storeGuards,
+            @Value("${ratelimiter.store:memory}") String storeType,
+            @Value("${ratelimiter.blocked-cache.size:65536}") int blockedCacheSize
+    ) {
+        return RateLimiterFactory.builder()
+                .fixedWindowStore(fixedWindowStore)
+                .tokenBucketStore(tokenBucketStore)
+                .leakyBucketStore(leakyBucketStore)
+                .slidingWindowCounterStore(slidingWindowCounterStore)
+                .slidingWindowBucketsStore(slidingWindowBucketsStore)
+                .slidingWindowLogStore(slidingWindowLogStore)
+                .timer(timer)
+                .cluster(cluster)
+                .ring(ring)
+                .quotaStores(quotaStores)
+                .storeGuards(storeGuards)
+                .storeType(storeType)
+                .blockedCacheSize(blockedCacheSize)
+                .build();
+    }
+}
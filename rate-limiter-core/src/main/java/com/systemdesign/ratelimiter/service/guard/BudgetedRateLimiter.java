@@ -0,0 +1,162 @@
+package com.systemdesign.ratelimiter.service.guard;
+
+import com.systemdesign.ratelimiter.dto.KeyState;
+import com.systemdesign.ratelimiter.dto.RateLimiterHitResponse;
+import com.systemdesign.ratelimiter.model.StoreBudgetConfig;
+import com.systemdesign.ratelimiter.service.algorithm.RateLimiter;
+import com.systemdesign.ratelimiter.tracing.StoreEvent;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/*
+Bounds how long a decision waits for the store. The algorithm (and with it every store call) runs on
+a virtual thread, the caller waits at most budgetMillis for it. Past the budget, on an exception or
+while the circuit is open, the decision comes from the configured fallback instead.
+A store call that misses the budget is not cancelled: when it completes its hit still counts in the
+store, the caller has already moved on. Resets, inspection and completions go to the store directly.
+The store time of a decision that made the budget is credited to the caller's thread, so the
+DecisionEvent around it still counts it (StoreEvent.measure()).
+ */
+public class BudgetedRateLimiter implements RateLimiter {
+
+    private final RateLimiter delegate;
+    // same algorithm and config on this node's memory, null unless the fallback is LOCAL
+    private final RateLimiter local;
+    private final StoreBudgetConfig config;
+    private final StoreGuard guard;
+    private final ExecutorService executor;
+
+    public BudgetedRateLimiter(
+            RateLimiter delegate,
+            RateLimiter local,
+            StoreBudgetConfig config,
+            StoreGuard guard,
+            ExecutorService executor
+    ) {
+        this.delegate = delegate;
+        this.local = local;
+        this.config = config;
+        this.guard = guard;
+        this.executor = executor;
+    }
+
+    @Override
+    public RateLimiterHitResponse hitEndpoint(String clientId) {
+        long now = System.currentTimeMillis();
+        StoreGuard.Admission admission = guard.admit(now);
+        if (admission == StoreGuard.Admission.SKIP) {
+            return fallback(clientId, now, "circuit open");
+        }
+
+        Future<StoreEvent.Measured<RateLimiterHitResponse>> decision;
+        try {
+            decision = executor.submit(() -> StoreEvent.measure(() -> delegate.hitEndpoint(clientId)));
+        } catch (RejectedExecutionException e) {
+            // executor shut down (the application is stopping), says nothing about the store
+            guard.onAbandoned(admission);
+            return fallback(clientId, now, "rejected");
+        }
+        try {
+            RateLimiterHitResponse response = decision.get(config.budgetMillis(), TimeUnit.MILLISECONDS).credit();
+            guard.onSuccess(admission);
+            return response;
+        } catch (TimeoutException e) {
+            guard.onTimeout(admission, now, config);
+            return fallback(clientId, now, "timeout");
+        } catch (ExecutionException e) {
+            guard.onError(admission, now, config);
+            return fallback(clientId, now, "error");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            // the caller gave up, not the store
+            guard.onAbandoned(admission);
+            return fallback(clientId, now, "interrupted");
+        }
+    }
+
+    private RateLimiterHitResponse fallback(String clientId, long now, String reason) {
+        guard.onFallback(config.fallback());
+        return switch (config.fallback()) {
+            case FAIL_OPEN -> new RateLimiterHitResponse(
+                    true,
+                    "Store unavailable, allowed",
+                    now,
+                    0,
+                    0,
+                    Map.of("fallback", config.fallback(), "reason", reason)
+            );
+            // retryAfter 1 keeps the negative cache out of it, the store may be back any moment
+            case FAIL_CLOSED -> new RateLimiterHitResponse(
+                    false,
+                    "Store unavailable, rejected",
+                    now,
+                    1,
+                    0,
+                    Map.of("fallback", config.fallback(), "reason", reason)
+            );
+            case LOCAL -> {
+                RateLimiterHitResponse response = local.hitEndpoint(clientId);
+                Map<String, Object> metadata = new HashMap<>(response.metadata());
+                metadata.put("fallback", config.fallback());
+                metadata.put("reason", reason);
+                yield new RateLimiterHitResponse(
+                        response.accepted(),
+                        response.message(),
+                        response.timestamp(),
+                        response.retryAfter(),
+                        response.remainingHits(),
+                        metadata
+                );
+            }
+        };
+    }
+
+    @Override
+    public void reset() {
+        delegate.reset();
+        if (local != null) {
+            local.reset();
+        }
+    }
+
+    @Override
+    public void reset(String keyPrefix) {
+        delegate.reset(keyPrefix);
+        if (local != null) {
+            local.reset(keyPrefix);
+        }
+    }
+
+    @Override
+    public void onComplete(String clientId, long latencyNanos, boolean success) {
+        delegate.onComplete(clientId, latencyNanos, success);
+    }
+
+    @Override
+    public int inspectSegments() {
+        return delegate.inspectSegments();
+    }
+
+    @Override
+    public void inspect(int segment, Consumer<KeyState> sink) {
+        delegate.inspect(segment, sink);
+    }
+
+    @Override
+    public void migrateFrom(RateLimiter previous) {
+        delegate.migrateFrom(previous.unwrap());
+    }
+
+    @Override
+    public RateLimiter unwrap() {
+        return delegate.unwrap();
+    }
+}
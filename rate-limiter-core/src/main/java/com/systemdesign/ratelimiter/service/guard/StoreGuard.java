@@ -0,0 +1,140 @@
+package com.systemdesign.ratelimiter.service.guard;
+
+import com.systemdesign.ratelimiter.enums.StoreFallback;
+import com.systemdesign.ratelimiter.model.StoreBudgetConfig;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+Circuit breaker and fallback counters of one limiter name, kept across policy reloads.
+  CLOSED     every decision calls the store
+  OPEN       failureThreshold timeouts / errors in a row, the store is left alone for openMillis
+  HALF_OPEN  after that one decision probes the store: success closes, failure opens again
+ */
+public class StoreGuard {
+
+    private static final Log log = LogFactory.getLog(StoreGuard.class);
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final String name;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    // 0 while closed
+    private volatile long openUntil;
+    private final AtomicBoolean probing = new AtomicBoolean();
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder shortCircuited = new LongAdder();
+    private final LongAdder opened = new LongAdder();
+    private final LongAdder[] fallbacks = new LongAdder[StoreFallback.values().length];
+
+    StoreGuard(String name) {
+        this.name = name;
+        for (int i = 0; i < fallbacks.length; i++) {
+            fallbacks[i] = new LongAdder();
+        }
+    }
+
+    // what one decision does with the store
+    enum Admission {
+        CALL,
+        // the one decision trying the store of an open circuit
+        PROBE,
+        SKIP
+    }
+
+    Admission admit(long now) {
+        long until = openUntil;
+        if (until == 0) {
+            calls.increment();
+            return Admission.CALL;
+        }
+        if (now < until || !probing.compareAndSet(false, true)) {
+            shortCircuited.increment();
+            return Admission.SKIP;
+        }
+        calls.increment();
+        return Admission.PROBE;
+    }
+
+    void onSuccess(Admission admission) {
+        consecutiveFailures.set(0);
+        if (admission == Admission.PROBE) {
+            openUntil = 0;
+            probing.set(false);
+            log.info("Store of '" + name + "' answers again, circuit closed");
+        }
+    }
+
+    // the decision ended without an answer either way, a probe hands its turn on
+    void onAbandoned(Admission admission) {
+        if (admission == Admission.PROBE) {
+            probing.set(false);
+        }
+    }
+
+    void onTimeout(Admission admission, long now, StoreBudgetConfig config) {
+        timeouts.increment();
+        onFailure(admission, now, config);
+    }
+
+    void onError(Admission admission, long now, StoreBudgetConfig config) {
+        errors.increment();
+        onFailure(admission, now, config);
+    }
+
+    void onFallback(StoreFallback fallback) {
+        fallbacks[fallback.ordinal()].increment();
+    }
+
+    // decisions that started before the circuit opened only count towards opening it again
+    private void onFailure(Admission admission, long now, StoreBudgetConfig config) {
+        if (admission == Admission.PROBE) {
+            open(now, config);
+            probing.set(false);
+            return;
+        }
+        if (consecutiveFailures.incrementAndGet() >= config.failureThreshold() && openUntil == 0) {
+            open(now, config);
+        }
+    }
+
+    private void open(long now, StoreBudgetConfig config) {
+        consecutiveFailures.set(0);
+        openUntil = now + config.openMillis();
+        opened.increment();
+        log.warn("Store of '" + name + "' is failing, circuit open for " + config.openMillis() + " ms");
+    }
+
+    public State state(long now) {
+        long until = openUntil;
+        if (until == 0) {
+            return State.CLOSED;
+        }
+        return now < until ? State.OPEN : State.HALF_OPEN;
+    }
+
+    public StoreGuardStats stats() {
+        return new StoreGuardStats(
+                state(System.currentTimeMillis()),
+                calls.sum(),
+                timeouts.sum(),
+                errors.sum(),
+                shortCircuited.sum(),
+                opened.sum(),
+                fallbacks[StoreFallback.FAIL_OPEN.ordinal()].sum(),
+                fallbacks[StoreFallback.FAIL_CLOSED.ordinal()].sum(),
+                fallbacks[StoreFallback.LOCAL.ordinal()].sum()
+        );
+    }
+}
@@ -0,0 +1,15 @@
+package com.systemdesign.ratelimiter.service.guard;
+
+public record StoreGuardStats(
+        StoreGuard.State state,
+        long calls,
+        long timeouts,
+        long errors,
+        long shortCircuited,
+        long opened,
+        long failOpen,
+        long failClosed,
+        long local
+        //calls- decisions that went to the store, shortCircuited- decisions that skipped it (circuit open),
+        //failOpen / failClosed / local- decisions answered by each fallback
+){}
@@ -0,0 +1,85 @@
+package com.systemdesign.ratelimiter.service.guard;
+
+import com.systemdesign.ratelimiter.dto.RateLimiterInitRequest;
+import com.systemdesign.ratelimiter.enums.StoreFallback;
+import com.systemdesign.ratelimiter.model.StoreBudgetConfig;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/*
+Latency budget defaults (ratelimiter.store-budget.*) and one StoreGuard per limiter name ("default"
+for /api/init). Guards outlive policy reloads, so the circuit state and the counters carry over.
+Store calls of budgeted limiters run on one virtual thread per decision.
+ */
+@Component
+public class StoreGuards {
+
+    private final long budgetMillis;
+    private final StoreFallback fallback;
+    private final int failureThreshold;
+    private final long openMillis;
+    private final Map<String, StoreGuard> guards = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("store-call-", 0).factory()
+    );
+
+    public StoreGuards(
+            @Value("${ratelimiter.store-budget.millis:0}") long budgetMillis,
+            @Value("${ratelimiter.store-budget.fallback:FAIL_OPEN}") StoreFallback fallback,
+            @Value("${ratelimiter.store-budget.failure-threshold:5}") int failureThreshold,
+            @Value("${ratelimiter.store-budget.open-millis:5000}") long openMillis
+    ) {
+        if (budgetMillis < 0 || failureThreshold <= 0 || openMillis <= 0) {
+            throw new IllegalArgumentException("ratelimiter.store-budget.millis must be >= 0, "
+                    + "failure-threshold and open-millis > 0");
+        }
+        this.budgetMillis = budgetMillis;
+        this.fallback = fallback;
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+    }
+
+    // the request's budget and fallback over the defaults, null when the limiter runs without a budget
+    public StoreBudgetConfig config(RateLimiterInitRequest request) {
+        long budget = request.getStoreBudgetMillis() == null ? budgetMillis : request.getStoreBudgetMillis();
+        if (budget < 0) {
+            throw new IllegalArgumentException("storeBudgetMillis must be >= 0");
+        }
+        if (budget == 0) {
+            return null;
+        }
+        return new StoreBudgetConfig(
+                budget,
+                request.getStoreFallback() == null ? fallback : request.getStoreFallback(),
+                failureThreshold,
+                openMillis
+        );
+    }
+
+    public StoreGuard guard(String name) {
+        return guards.computeIfAbsent(name.isEmpty() ? "default" : name, StoreGuard::new);
+    }
+
+    public ExecutorService executor() {
+        return executor;
+    }
+
+    public Map<String, StoreGuardStats> stats() {
+        Map<String, StoreGuardStats> stats = new TreeMap<>();
+        guards.forEach((name, guard) -> stats.put(name, guard.stats()));
+        return stats;
+    }
+
+    // stalled store calls are abandoned, not waited for
+    @PreDestroy
+    public void close() {
+        executor.shutdownNow();
+    }
+}
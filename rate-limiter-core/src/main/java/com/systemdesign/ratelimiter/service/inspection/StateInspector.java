@@ -0,0 +1,122 @@
+package com.systemdesign.ratelimiter.service.inspection;
+
+import com.systemdesign.ratelimiter.dto.KeyState;
+import com.systemdesign.ratelimiter.service.algorithm.RateLimiter;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/*
+Walks a limiter's keys for operators. Nothing is copied up front: a full stream hands every key
+to the sink while the store is traversed, a page keeps only the `limit` next keys after the cursor
+(ordered by store segment, then key), so memory stays O(limit) at any key count.
+A page starts at the cursor's segment and stops after the segment that filled it, so it reads about
+limit + one segment of keys instead of the whole store.
+Each page is its own weakly consistent pass: keys added or removed meanwhile may be missed,
+a key is never returned twice.
+ */
+@Component
+public class StateInspector {
+
+    public static final int MAX_PAGE = 10_000;
+
+    private record Positioned(int segment, KeyState state) {
+    }
+
+    private static final Comparator<Positioned> ORDER = Comparator
+            .comparingInt(Positioned::segment)
+            .thenComparing(positioned -> positioned.state().key());
+
+    public record Filter(
+            boolean blockedOnly,
+            double minUsage     //0..1, 0 = every key
+    ) {
+        public static final Filter ALL = new Filter(false, 0);
+
+        boolean matches(KeyState state) {
+            return (!blockedOnly || state.blocked()) && state.usage() >= minUsage;
+        }
+    }
+
+    public record Page(
+            List<KeyState> keys,
+            String nextCursor   //null on the last page
+    ) {}
+
+    // every matching key, in store order
+    public void stream(RateLimiter limiter, Filter filter, Consumer<KeyState> sink) {
+        limiter.unwrap().inspect(state -> {
+            if (filter.matches(state)) {
+                sink.accept(state);
+            }
+        });
+    }
+
+    // cursor: null for the first page, then the nextCursor of the previous one
+    public Page page(RateLimiter limiter, Filter filter, String cursor, int limit) {
+        if (limit <= 0 || limit > MAX_PAGE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE);
+        }
+        int afterSegment;
+        String afterKey;
+        if (cursor == null || cursor.isEmpty()) {
+            afterSegment = 0;
+            afterKey = null;
+        } else {
+            try {
+                String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = decoded.indexOf(':');
+                afterSegment = Integer.parseInt(decoded.substring(0, Math.max(0, separator)), 16);
+                afterKey = decoded.substring(separator + 1);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            if (afterSegment < 0) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+        }
+
+        // largest on top, so the head is evicted when a smaller key turns up
+        PriorityQueue<Positioned> next = new PriorityQueue<>(limit + 1, ORDER.reversed());
+        boolean[] more = new boolean[1];
+
+        RateLimiter target = limiter.unwrap();
+        int segments = target.inspectSegments();
+        // later segments only hold keys past everything on a full page
+        for (int segment = afterSegment; segment < segments && !more[0]; segment++) {
+            int current = segment;
+            target.inspect(segment, state -> {
+                if (!filter.matches(state)
+                        || (current == afterSegment && afterKey != null && state.key().compareTo(afterKey) <= 0)) {
+                    return;
+                }
+                next.add(new Positioned(current, state));
+                if (next.size() > limit) {
+                    next.poll();
+                    more[0] = true;
+                }
+            });
+        }
+
+        List<Positioned> page = new ArrayList<>(next);
+        page.sort(ORDER);
+        List<KeyState> keys = new ArrayList<>(page.size());
+        for (Positioned positioned : page) {
+            keys.add(positioned.state());
+        }
+        String nextCursor = null;
+        if (more[0]) {
+            Positioned last = page.getLast();
+            // opaque and header safe whatever the key contains
+            nextCursor = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                    (Integer.toHexString(last.segment()) + ":" + last.state().key()).getBytes(StandardCharsets.UTF_8));
+        }
+        return new Page(keys, nextCursor);
+    }
+}
@@ -0,0 +1,11 @@
+package com.systemdesign.ratelimiter.service.policy;
+
+import com.systemdesign.ratelimiter.dto.RateLimiterInitRequest;
+
+import java.util.List;
+import java.util.Map;
+
+public record PolicyDocument(
+        Map<String, RateLimiterInitRequest> policies,
+        List<RouteDefinition> routes
+) {}
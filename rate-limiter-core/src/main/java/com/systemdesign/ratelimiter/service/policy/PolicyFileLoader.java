@@ -0,0 +1,67 @@
+package com.systemdesign.ratelimiter.service.policy;
+
+import com.systemdesign.ratelimiter.dto.RateLimiterInitRequest;
+import org.springframework.stereotype.Component;
+import org.yaml.snakeyaml.Yaml;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+Reads policy definitions from YAML (JSON is valid YAML too):
+
+policies:
+  login:
+    algorithm: TOKEN_BUCKET
+    bucketCapacity: 5
+    refillRate: 0.5
+  search:
+    algorithm: FIXED_WINDOW
+    maxRequests: 100
+    windowSize: 60
+
+Each policy uses the same fields as POST /api/init.
+ */
+@Component
+public class PolicyFileLoader {
+
+    private final JsonMapper mapper;
+
+    public PolicyFileLoader(JsonMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    public PolicyDocument load(Path file) throws IOException {
+        Object root;
+        try (Reader reader = Files.newBufferedReader(file)) {
+            root = new Yaml().load(reader);
+        }
+
+        if (!(root instanceof Map<?, ?> document) || !(document.get("policies") instanceof Map<?, ?> policies)) {
+            throw new IllegalArgumentException("Policy file must contain a 'policies' map: " + file);
+        }
+
+        Map<String, RateLimiterInitRequest> definitions = new LinkedHashMap<>();
+        for (Map.Entry<?, ?> entry : policies.entrySet()) {
+            definitions.put(
+                    String.valueOf(entry.getKey()),
+                    mapper.convertValue(entry.getValue(), RateLimiterInitRequest.class)
+            );
+        }
+        List<RouteDefinition> routes = new ArrayList<>();
+        if (document.get("routes") instanceof List<?> routeList) {
+            for (Object route : routeList) {
+                routes.add(mapper.convertValue(route, RouteDefinition.class));
+            }
+        }
+
+        return new PolicyDocument(definitions, routes);
+    }
+}
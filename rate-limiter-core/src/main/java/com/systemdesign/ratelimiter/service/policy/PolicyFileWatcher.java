@@ -0,0 +1,103 @@
+package com.systemdesign.ratelimiter.service.policy;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
+// Loads ratelimiter.policy-file at startup and re-applies it whenever the file changes on disk
+@Component
+public class PolicyFileWatcher {
+
+    private static final Log log = LogFactory.getLog(PolicyFileWatcher.class);
+
+    // editors often emit several events per save, wait for the burst to settle
+    private static final long DEBOUNCE_MILLIS = 200;
+
+    private final PolicyRegistry registry;
+    private final PolicyFileLoader loader;
+    private final String policyFile;
+
+    private Path file;
+    private WatchService watchService;
+
+    public PolicyFileWatcher(
+            PolicyRegistry registry,
+            PolicyFileLoader loader,
+            @Value("${ratelimiter.policy-file:}") String policyFile
+    ) {
+        this.registry = registry;
+        this.loader = loader;
+        this.policyFile = policyFile;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (policyFile.isBlank()) {
+            return;
+        }
+
+        file = Path.of(policyFile).toAbsolutePath();
+        // fail fast on a broken file at startup, later reloads keep the last good table instead
+        registry.apply(loader.load(file));
+        log.info("Loaded rate limit policies from " + file);
+
+        watchService = file.getFileSystem().newWatchService();
+        file.getParent().register(watchService, ENTRY_CREATE, ENTRY_MODIFY);
+
+        Thread.ofPlatform()
+                .daemon()
+                .name("policy-file-watcher")
+                .start(this::watch);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    private void watch() {
+        while (true) {
+            try {
+                WatchKey key = watchService.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (file.getFileName().equals(event.context())) {
+                        changed = true;
+                    }
+                }
+                key.reset();
+
+                if (changed) {
+                    Thread.sleep(DEBOUNCE_MILLIS);
+                    reload();
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+        }
+    }
+
+    private void reload() {
+        try {
+            PolicyTable table = registry.apply(loader.load(file));
+            log.info("Reloaded rate limit policies, version " + table.version());
+        } catch (Exception e) {
+            log.error("Policy reload failed, keeping previous policies", e);
+        }
+    }
+}
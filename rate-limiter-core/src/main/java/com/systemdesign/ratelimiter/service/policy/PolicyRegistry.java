@@ -0,0 +1,94 @@
+package com.systemdesign.ratelimiter.service.policy;
+
+import com.systemdesign.ratelimiter.dto.RateLimiterInitRequest;
+import com.systemdesign.ratelimiter.service.algorithm.RateLimiter;
+import com.systemdesign.ratelimiter.service.factory.RateLimiterFactory;
+import com.systemdesign.ratelimiter.store.RateLimiterStore;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+Named policies and the compiled route table loaded from the policy file.
+Readers only do a volatile read of the current table, so hits never wait on a reload.
+A policy that keeps its algorithm keeps its store and the new limiter migrates the per-key state,
+a policy that changes algorithm starts from an empty store.
+Hits that still reach a replaced limiter are forwarded to its successor.
+ */
+@Component
+public class PolicyRegistry {
+
+    private final RateLimiterFactory factory;
+    private volatile PolicyTable table = PolicyTable.EMPTY;
+    // the unnamed limiter set up through /api/init
+    private volatile RateLimiter defaultLimiter;
+
+    public PolicyRegistry(RateLimiterFactory factory) {
+        this.factory = factory;
+    }
+
+    public RateLimitPolicy find(String name) {
+        return table.get(name);
+    }
+
+    // null / empty name -> default limiter, otherwise the named policy (null when unknown)
+    public RateLimiter resolve(String name) {
+        if (name == null || name.isEmpty()) {
+            return defaultLimiter;
+        }
+        RateLimitPolicy policy = table.get(name);
+        return policy == null ? null : policy.limiter();
+    }
+
+    public void setDefaultLimiter(RateLimiter limiter) {
+        this.defaultLimiter = limiter;
+    }
+
+    public <R> boolean match(R request, RequestAccessor<R> accessor, RouteMatch result) {
+        return table.routes().match(request, accessor, result);
+    }
+
+    public PolicyTable current() {
+        return table;
+    }
+
+    // Single writer (the file watcher / startup), so no CAS loop is needed around the swap
+    public synchronized PolicyTable apply(PolicyDocument document) {
+        Map<String, RateLimiterInitRequest> definitions = document.policies();
+        PolicyTable previous = table;
+        Map<String, RateLimitPolicy> next = new HashMap<>();
+
+        // build everything first: a bad definition must leave the old table untouched
+        for (Map.Entry<String, RateLimiterInitRequest> entry : definitions.entrySet()) {
+            String name = entry.getKey();
+            RateLimiterInitRequest definition = entry.getValue();
+            RateLimitPolicy old = previous.get(name);
+
+            boolean sameAlgorithm = old != null
+                    && old.definition().getAlgorithm() == definition.getAlgorithm();
+
+            RateLimiterStore<?> store = sameAlgorithm
+                    ? old.store()
+                    : factory.newStore(name, definition.getAlgorithm());
+
+            RateLimiter limiter = factory.createRateLimiter(name, definition, store);
+            next.put(name, new RateLimitPolicy(name, definition, limiter, store));
+        }
+
+        RouteMatcher routes = RouteMatcher.compile(document.routes(), next);
+
+        // the old limiters stop writing once their migration starts and forward to the new ones, which
+        // rescale what the sweep has not reached yet, so hits on the old table stay correct meanwhile
+        for (RateLimitPolicy policy : next.values()) {
+            RateLimitPolicy old = previous.get(policy.name());
+            if (old != null && old.store() == policy.store()) {
+                policy.limiter().migrateFrom(old.limiter());
+            }
+        }
+
+        PolicyTable updated = new PolicyTable(previous.version() + 1, next, routes);
+        table = updated;
+        return updated;
+    }
+}
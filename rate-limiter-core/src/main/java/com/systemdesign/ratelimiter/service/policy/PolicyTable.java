@@ -0,0 +1,20 @@
+package com.systemdesign.ratelimiter.service.policy;
+
+import java.util.Map;
+
+// Immutable snapshot, replaced as a whole on every reload
+public record PolicyTable(
+        long version,
+        Map<String, RateLimitPolicy> policies,
+        RouteMatcher routes
+) {
+    public static final PolicyTable EMPTY = new PolicyTable(0, Map.of(), RouteMatcher.EMPTY);
+
+    public PolicyTable {
+        policies = Map.copyOf(policies);
+    }
+
+    public RateLimitPolicy get(String name) {
+        return policies.get(name);
+    }
+}
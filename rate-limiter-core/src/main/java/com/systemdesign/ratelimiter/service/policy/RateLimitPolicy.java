@@ -0,0 +1,12 @@
+package com.systemdesign.ratelimiter.service.policy;
+
+import com.systemdesign.ratelimiter.dto.RateLimiterInitRequest;
+import com.systemdesign.ratelimiter.service.algorithm.RateLimiter;
+import com.systemdesign.ratelimiter.store.RateLimiterStore;
+
+public record RateLimitPolicy(
+        String name,
+        RateLimiterInitRequest definition,
+        RateLimiter limiter,
+        RateLimiterStore<?> store
+) {}
@@ -0,0 +1,9 @@
+package com.systemdesign.ratelimiter.service.policy;
+
+// Lets the route matcher read any request type without wrapping it per request
+public interface RequestAccessor<R> {
+    String method(R request);
+    String path(R request);
+    String header(R request, String name);
+    String remoteAddress(R request);
+}
@@ -0,0 +1,9 @@
+package com.systemdesign.ratelimiter.service.policy;
+
+public record RouteDefinition(
+        String path,    // /orders/*, /admin/** ({name} is the same as *)
+        String method,  // null -> any method
+        String header,  // "X-Tier=gold", "X-Tier" (present) or null
+        String policy,
+        String key      // ip | apiKey | header:<name>, null -> ip
+) {}
@@ -0,0 +1,21 @@
+package com.systemdesign.ratelimiter.service.policy;
+
+// Filled in by RouteMatcher.match, callers own it and may reuse it across requests
+public class RouteMatch {
+
+    RateLimitPolicy policy;
+    String key;
+    String pattern;
+
+    public RateLimitPolicy policy() {
+        return policy;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public String pattern() {
+        return pattern;
+    }
+}
@@ -0,0 +1,340 @@
+package com.systemdesign.ratelimiter.service.policy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/*
+Route table compiled once per policy reload.
+
+Patterns are split into a segment trie (literal, "*" for one segment, "**" for the rest).
+At compile time the "*" branch of every node is merged into its literal siblings, so at match
+time each segment needs exactly one lookup: literal child if present, else the "*" child.
+No backtracking, no regex, no substrings: segments are hashed straight from the path chars and
+compared with regionMatches, which keeps matching O(path length) without allocating.
+
+Candidates at a node are ordered most specific first: more literal segments, then more
+method / header rules, then file order. Exact ends are tried before "**". The first candidate
+whose method / header rule holds wins.
+ */
+public final class RouteMatcher {
+
+    public static final RouteMatcher EMPTY = new RouteMatcher(new Node().freeze(new CompiledRoute[0]), 0);
+
+    private static final String API_KEY_HEADER = "X-API-Key";
+
+    private final Node root;
+    private final int size;
+
+    private RouteMatcher(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    public static RouteMatcher compile(List<RouteDefinition> routes, Map<String, RateLimitPolicy> policies) {
+        Node root = new Node();
+
+        for (int order = 0; order < routes.size(); order++) {
+            RouteDefinition route = routes.get(order);
+            RateLimitPolicy policy = policies.get(route.policy());
+            if (policy == null) {
+                throw new IllegalArgumentException("Route " + route.path() + " uses unknown policy " + route.policy());
+            }
+            insert(root, route, new CompiledRoute(route, policy, order));
+        }
+
+        determinize(root);
+        return new RouteMatcher(root.freeze(new CompiledRoute[0]), routes.size());
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public <R> boolean match(R request, RequestAccessor<R> accessor, RouteMatch result) {
+        String path = accessor.path(request);
+        if (path == null) {
+            return false;
+        }
+
+        int end = path.indexOf('?');
+        if (end < 0) {
+            end = path.length();
+        }
+
+        Node node = root;
+        int i = 0;
+        while (i < end) {
+            if (path.charAt(i) == '/') {
+                i++;
+                continue;
+            }
+            int segmentEnd = i;
+            while (segmentEnd < end && path.charAt(segmentEnd) != '/') {
+                segmentEnd++;
+            }
+
+            Node next = node.literal(path, i, segmentEnd);
+            if (next == null) {
+                next = node.wildcard;
+            }
+            if (next == null) {
+                // ran off the trie: only a "**" seen on the way can still match
+                return select(node.catchAllRoutes, request, accessor, result);
+            }
+            node = next;
+            i = segmentEnd;
+        }
+
+        return select(node.terminalRoutes, request, accessor, result)
+                || select(node.catchAllRoutes, request, accessor, result);
+    }
+
+    private static <R> boolean select(
+            CompiledRoute[] candidates,
+            R request,
+            RequestAccessor<R> accessor,
+            RouteMatch result
+    ) {
+        for (CompiledRoute route : candidates) {
+            if (route.accepts(request, accessor)) {
+                result.policy = route.policy;
+                result.key = route.key(request, accessor);
+                result.pattern = route.pattern;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void insert(Node root, RouteDefinition route, CompiledRoute compiled) {
+        String path = route.path();
+        if (path == null || !path.startsWith("/")) {
+            throw new IllegalArgumentException("Route path must start with '/': " + path);
+        }
+
+        String[] segments = path.split("/");
+        Node node = root;
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (segment.isEmpty()) {
+                continue;
+            }
+            if (segment.equals("**")) {
+                if (i != segments.length - 1) {
+                    throw new IllegalArgumentException("'**' must be the last segment: " + path);
+                }
+                node.catchAll.add(compiled);
+                return;
+            }
+            if (segment.equals("*") || (segment.startsWith("{") && segment.endsWith("}"))) {
+                if (node.wildcard == null) {
+                    node.wildcard = new Node();
+                }
+                node = node.wildcard;
+            } else {
+                node = node.literals.computeIfAbsent(segment, s -> new Node());
+            }
+        }
+        node.terminal.add(compiled);
+    }
+
+    // After this, a literal child also answers everything its "*" sibling would have
+    private static void determinize(Node node) {
+        if (node.wildcard != null) {
+            for (Node child : node.literals.values()) {
+                mergeInto(child, node.wildcard);
+            }
+        }
+        for (Node child : node.literals.values()) {
+            determinize(child);
+        }
+        if (node.wildcard != null) {
+            determinize(node.wildcard);
+        }
+    }
+
+    private static void mergeInto(Node target, Node source) {
+        target.terminal.addAll(source.terminal);
+        target.catchAll.addAll(source.catchAll);
+
+        for (Map.Entry<String, Node> entry : source.literals.entrySet()) {
+            Node existing = target.literals.get(entry.getKey());
+            if (existing == null) {
+                target.literals.put(entry.getKey(), entry.getValue().copy());
+            } else {
+                mergeInto(existing, entry.getValue());
+            }
+        }
+
+        if (source.wildcard != null) {
+            if (target.wildcard == null) {
+                target.wildcard = source.wildcard.copy();
+            } else {
+                mergeInto(target.wildcard, source.wildcard);
+            }
+        }
+    }
+
+    private static final class Node {
+
+        // compile time
+        final Map<String, Node> literals = new LinkedHashMap<>();
+        final List<CompiledRoute> terminal = new ArrayList<>();
+        final List<CompiledRoute> catchAll = new ArrayList<>();
+        Node wildcard;
+
+        // match time: open addressing over literal segments
+        String[] keys;
+        Node[] children;
+        int mask;
+        CompiledRoute[] terminalRoutes;
+        CompiledRoute[] catchAllRoutes;
+
+        Node copy() {
+            Node copy = new Node();
+            copy.terminal.addAll(terminal);
+            copy.catchAll.addAll(catchAll);
+            literals.forEach((segment, child) -> copy.literals.put(segment, child.copy()));
+            copy.wildcard = wildcard == null ? null : wildcard.copy();
+            return copy;
+        }
+
+        // inheritedCatchAll: "**" routes of the ancestors, less specific than our own
+        Node freeze(CompiledRoute[] inheritedCatchAll) {
+            LinkedHashSet<CompiledRoute> effective = new LinkedHashSet<>(catchAll);
+            effective.addAll(List.of(inheritedCatchAll));
+            catchAllRoutes = effective.toArray(new CompiledRoute[0]);
+            terminalRoutes = new LinkedHashSet<>(terminal).toArray(new CompiledRoute[0]);
+            Arrays.sort(catchAllRoutes, CompiledRoute.MOST_SPECIFIC_FIRST);
+            Arrays.sort(terminalRoutes, CompiledRoute.MOST_SPECIFIC_FIRST);
+
+            int capacity = Integer.highestOneBit(Math.max(1, literals.size() * 2 - 1)) << 1;
+            keys = new String[capacity];
+            children = new Node[capacity];
+            mask = capacity - 1;
+
+            for (Map.Entry<String, Node> entry : literals.entrySet()) {
+                int index = spread(entry.getKey().hashCode()) & mask;
+                while (keys[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = entry.getKey();
+                children[index] = entry.getValue().freeze(catchAllRoutes);
+            }
+            if (wildcard != null) {
+                wildcard.freeze(catchAllRoutes);
+            }
+            return this;
+        }
+
+        Node literal(String path, int start, int end) {
+            // same polynomial as String.hashCode, computed over the segment in place
+            int hash = 0;
+            for (int i = start; i < end; i++) {
+                hash = 31 * hash + path.charAt(i);
+            }
+
+            int length = end - start;
+            int index = spread(hash) & mask;
+            String key;
+            while ((key = keys[index]) != null) {
+                if (key.length() == length && path.regionMatches(start, key, 0, length)) {
+                    return children[index];
+                }
+                index = (index + 1) & mask;
+            }
+            return null;
+        }
+
+        private static int spread(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+    }
+
+    private static final class CompiledRoute {
+
+        private enum KeySource { IP, API_KEY, HEADER }
+
+        static final Comparator<CompiledRoute> MOST_SPECIFIC_FIRST = Comparator
+                .comparingInt((CompiledRoute route) -> -route.literalSegments)
+                .thenComparingInt(route -> -route.attributeRules)
+                .thenComparingInt(route -> route.order);
+
+        final String pattern;
+        final int literalSegments;
+        final int attributeRules;
+        final int order;
+        final RateLimitPolicy policy;
+        final String method;
+        final String headerName;
+        final String headerValue;
+        final KeySource keySource;
+        final String keyHeader;
+
+        CompiledRoute(RouteDefinition route, RateLimitPolicy policy, int order) {
+            this.pattern = route.path();
+            this.policy = policy;
+            this.order = order;
+            this.literalSegments = (int) Arrays.stream(pattern.split("/"))
+                    .filter(segment -> !segment.isEmpty()
+                            && !segment.equals("*")
+                            && !segment.equals("**")
+                            && !segment.startsWith("{"))
+                    .count();
+            this.method = route.method() == null ? null : route.method().toUpperCase(Locale.ROOT);
+
+            String header = route.header();
+            int eq = header == null ? -1 : header.indexOf('=');
+            this.headerName = eq < 0 ? header : header.substring(0, eq).trim();
+            this.headerValue = eq < 0 ? null : header.substring(eq + 1).trim();
+
+            String key = route.key() == null ? "ip" : route.key();
+            if (key.equals("ip")) {
+                this.keySource = KeySource.IP;
+                this.keyHeader = null;
+            } else if (key.equals("apiKey")) {
+                this.keySource = KeySource.API_KEY;
+                this.keyHeader = API_KEY_HEADER;
+            } else if (key.startsWith("header:") && key.length() > "header:".length()) {
+                this.keySource = KeySource.HEADER;
+                this.keyHeader = key.substring("header:".length());
+            } else {
+                throw new IllegalArgumentException("Unknown route key '" + key + "' for " + pattern);
+            }
+
+            this.attributeRules = (method != null ? 1 : 0)
+                    + (headerName != null ? 1 : 0)
+                    + (headerValue != null ? 1 : 0);
+        }
+
+        <R> boolean accepts(R request, RequestAccessor<R> accessor) {
+            if (method != null && !method.equals(accessor.method(request))) {
+                return false;
+            }
+            if (headerName != null) {
+                String value = accessor.header(request, headerName);
+                if (value == null || (headerValue != null && !headerValue.equals(value))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // missing key header falls back to the caller's address rather than one shared bucket
+        <R> String key(R request, RequestAccessor<R> accessor) {
+            if (keySource != KeySource.IP) {
+                String value = accessor.header(request, keyHeader);
+                if (value != null) {
+                    return value;
+                }
+            }
+            return accessor.remoteAddress(request);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.systemdesign.ratelimiter.service.policy;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+public enum ServletRequestAccessor implements RequestAccessor<HttpServletRequest> {
+
+    // the request itself is the one being limited
+    DIRECT {
+        @Override
+        public String method(HttpServletRequest request) {
+            return request.getMethod();
+        }
+
+        @Override
+        public String path(HttpServletRequest request) {
+            return request.getRequestURI();
+        }
+    },
+
+    // a proxy asks on behalf of another request (same headers as nginx auth_request)
+    FORWARDED {
+        @Override
+        public String method(HttpServletRequest request) {
+            String method = request.getHeader("X-Original-Method");
+            return method != null ? method : request.getMethod();
+        }
+
+        @Override
+        public String path(HttpServletRequest request) {
+            String uri = request.getHeader("X-Original-URI");
+            return uri != null ? uri : "/";
+        }
+    };
+
+    @Override
+    public String header(HttpServletRequest request, String name) {
+        return request.getHeader(name);
+    }
+
+    @Override
+    public String remoteAddress(HttpServletRequest request) {
+        return request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,208 @@
+package com.systemdesign.ratelimiter.service.scheduler;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+Single shared timer for every limiter.
+Tasks are hashed into wheel slots by deadline, one worker thread advances the wheel every tick
+and fires whatever expired. Scheduling and cancelling are O(1), so 100k parked waiters cost
+100k small entries, not 100k sleeping threads.
+ */
+@Component
+public class HashedWheelTimer implements AutoCloseable {
+
+    private static final Log log = LogFactory.getLog(HashedWheelTimer.class);
+
+    public static final long DEFAULT_TICK_MILLIS = 10;
+    public static final int DEFAULT_WHEEL_SIZE = 512;
+
+    private final long tickNanos;
+    private final int mask;
+    private final List<Queue<TimerTask>> wheel;
+
+    // producers only touch these two queues, the wheel itself belongs to the worker thread
+    private final Queue<TimerTask> pending = new ConcurrentLinkedQueue<>();
+    private final Queue<TimerTask> cancelled = new ConcurrentLinkedQueue<>();
+
+    private final long startNanos = System.nanoTime();
+    private final Thread worker;
+    private volatile boolean running = true;
+    private long tick;
+
+    public HashedWheelTimer() {
+        this(DEFAULT_TICK_MILLIS, DEFAULT_WHEEL_SIZE);
+    }
+
+    public HashedWheelTimer(long tickMillis, int wheelSize) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis must be positive");
+        }
+        if (wheelSize <= 0 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("wheelSize must be a power of two");
+        }
+
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.mask = wheelSize - 1;
+        this.wheel = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            wheel.add(new ArrayDeque<>());
+        }
+
+        this.worker = new Thread(this::run, "rate-limiter-wheel-timer");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    public Timeout schedule(Runnable task, long delayMillis) {
+        if (!running) {
+            throw new IllegalStateException("Timer is closed");
+        }
+        long deadline = System.nanoTime() - startNanos
+                + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMillis));
+
+        TimerTask timerTask = new TimerTask(task, deadline);
+        pending.add(timerTask);
+        return timerTask;
+    }
+
+    public long tickMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(tickNanos);
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        worker.interrupt();
+    }
+
+    private void run() {
+        while (running) {
+            waitForNextTick();
+            if (!running) {
+                return;
+            }
+
+            purgeCancelled();
+            transferPending();
+            expire(wheel.get((int) (tick & mask)));
+            tick++;
+        }
+    }
+
+    private void waitForNextTick() {
+        long deadline = tickNanos * (tick + 1);
+        long sleepNanos;
+        while ((sleepNanos = deadline - (System.nanoTime() - startNanos)) > 0) {
+            LockSupport.parkNanos(this, sleepNanos);
+            if (!running) {
+                return;
+            }
+        }
+    }
+
+    private void transferPending() {
+        TimerTask task;
+        while ((task = pending.poll()) != null) {
+            if (task.state.get() != TimerTask.ST_INIT) {
+                continue;
+            }
+            long expiryTick = task.deadline / tickNanos;
+            task.remainingRounds = (expiryTick - tick) / wheel.size();
+
+            // already overdue: fire in the current slot instead of a full lap later
+            long slotTick = Math.max(expiryTick, tick);
+            task.slot = wheel.get((int) (slotTick & mask));
+            task.slot.add(task);
+        }
+    }
+
+    private void purgeCancelled() {
+        TimerTask task;
+        while ((task = cancelled.poll()) != null) {
+            if (task.slot != null) {
+                task.slot.remove(task);
+            }
+        }
+    }
+
+    private void expire(Queue<TimerTask> slot) {
+        int size = slot.size();
+        for (int i = 0; i < size; i++) {
+            TimerTask task = slot.poll();
+            if (task.remainingRounds > 0) {
+                task.remainingRounds--;
+                slot.add(task);
+                continue;
+            }
+            task.fire();
+        }
+    }
+
+    public interface Timeout {
+        boolean cancel();
+        boolean isExpired();
+        boolean isCancelled();
+    }
+
+    private final class TimerTask implements Timeout {
+
+        static final int ST_INIT = 0;
+        static final int ST_CANCELLED = 1;
+        static final int ST_EXPIRED = 2;
+
+        private final Runnable task;
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(ST_INIT);
+
+        // worker thread only
+        private long remainingRounds;
+        private Queue<TimerTask> slot;
+
+        TimerTask(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        void fire() {
+            if (!state.compareAndSet(ST_INIT, ST_EXPIRED)) {
+                return;
+            }
+            try {
+                task.run();
+            } catch (Throwable t) {
+                // a failing callback must not kill the wheel for everyone else
+                log.error("Timer task failed", t);
+            }
+        }
+
+        @Override
+        public boolean cancel() {
+            if (!state.compareAndSet(ST_INIT, ST_CANCELLED)) {
+                return false;
+            }
+            cancelled.add(this);
+            return true;
+        }
+
+        @Override
+        public boolean isExpired() {
+            return state.get() == ST_EXPIRED;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return state.get() == ST_CANCELLED;
+        }
+    }
+}
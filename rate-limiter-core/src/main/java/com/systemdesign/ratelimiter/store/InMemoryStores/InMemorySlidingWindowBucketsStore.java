@@ -0,0 +1,7 @@
+package com.systemdesign.ratelimiter.store.InMemoryStores;
+
+import org.springframework.stereotype.Component;
+
+@Component("slidingWindowBucketsStore")
+public class InMemorySlidingWindowBucketsStore<T> extends InMemoryStore<T> {
+}
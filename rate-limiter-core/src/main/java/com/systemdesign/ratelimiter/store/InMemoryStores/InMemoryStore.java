@@ -0,0 +1,217 @@
+package com.systemdesign.ratelimiter.store.InMemoryStores;
+
+import com.systemdesign.ratelimiter.store.RateLimiterStore;
+import com.systemdesign.ratelimiter.tracing.StoreEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+/*
+Resets are O(1): instead of clearing the map, reset() moves the epoch forward and every entry
+written before it counts as absent from then on. Stale entries are dropped by the next compute()
+on their key, or by a background sweep on a virtual thread that starts after a reset.
+reset(prefix) does the same for keys starting with prefix, its marker is dropped once a sweep
+has removed everything it covers.
+The keys are spread over SEGMENTS maps by the top bits of their hash (the maps themselves index by
+the low bits), so a paged walk can pick up at one of them instead of rescanning everything.
+ */
+public class InMemoryStore<T> implements RateLimiterStore<T> {
+
+    // immutable, every write puts a new one: readers outside the bin lock never see half an update
+    protected static final class Entry<T> {
+        final T value;
+        final long epoch;
+
+        Entry(T value, long epoch) {
+            this.value = value;
+            this.epoch = epoch;
+        }
+    }
+
+    private record PrefixReset(String prefix, long epoch) {
+    }
+
+    private static final int SEGMENT_BITS = 6;
+    private static final int SEGMENTS = 1 << SEGMENT_BITS;
+
+    protected final List<Map<String, Entry<T>>> storage = new ArrayList<>(SEGMENTS);
+
+    // moves forward on every reset, entries are tagged with the value they were written at
+    private final AtomicLong epoch = new AtomicLong();
+    // entries written before this epoch are gone
+    private volatile long resetEpoch;
+    // copy on write, usually empty
+    private volatile List<PrefixReset> prefixResets = List.of();
+
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private final AtomicBoolean sweepRequested = new AtomicBoolean();
+
+    public InMemoryStore() {
+        for (int i = 0; i < SEGMENTS; i++) {
+            storage.add(new ConcurrentHashMap<>());
+        }
+    }
+
+    @Override
+    public T compute(String key, BiFunction<String, T, T> remappingFunction) {
+        StoreEvent event = new StoreEvent();
+        if (!event.isEnabled()) {
+            return computeEntry(key, remappingFunction);
+        }
+        return event.trace("memory", key, remappingFunction, this::computeEntry);
+    }
+
+    private T computeEntry(String key, BiFunction<String, T, T> remappingFunction) {
+        Entry<T> entry = segment(key).compute(key, (id, current) -> {
+            // read under the bin lock: a reset that comes later makes this write stale as well
+            long writeEpoch = epoch.get();
+            T value = current == null || isStale(id, current) ? null : current.value;
+            T updated = remappingFunction.apply(id, value);
+            if (updated == null) {
+                return null;
+            }
+            return new Entry<>(updated, writeEpoch);
+        });
+        return entry == null ? null : entry.value;
+    }
+
+    @Override
+    public void reset() {
+        synchronized (this) {
+            // the boundary goes out before the write epoch reaches it, so no write tagged with the
+            // new epoch can have read a value from before the reset
+            resetEpoch = epoch.get() + 1;
+            epoch.incrementAndGet();
+            // a full reset covers every prefix reset before it
+            dropPrefixResetsUpTo(resetEpoch);
+        }
+        requestSweep();
+    }
+
+    @Override
+    public void reset(String keyPrefix) {
+        if (keyPrefix.isEmpty()) {
+            reset();
+            return;
+        }
+        synchronized (this) {
+            List<PrefixReset> updated = new ArrayList<>(prefixResets);
+            // published before the write epoch moves, same as reset()
+            updated.add(new PrefixReset(keyPrefix, epoch.get() + 1));
+            prefixResets = List.copyOf(updated);
+            epoch.incrementAndGet();
+        }
+        requestSweep();
+    }
+
+    @Override
+    public void replaceAll(BiFunction<String, T, T> function) {
+        // key by key under the bin lock, like compute(): the function runs once per key and nothing
+        // written in between is overwritten. Stale entries are kept as they are, the sweep removes them
+        for (Map<String, Entry<T>> segment : storage) {
+            for (String key : segment.keySet()) {
+                segment.computeIfPresent(key, (id, entry) -> {
+                    if (isStale(id, entry)) {
+                        return entry;
+                    }
+                    T updated = function.apply(id, entry.value);
+                    if (updated == null) {
+                        // same contract as ConcurrentHashMap.replaceAll
+                        throw new NullPointerException("replaceAll cannot remove entries");
+                    }
+                    return new Entry<>(updated, entry.epoch);
+                });
+            }
+        }
+    }
+
+    // ConcurrentHashMap traversal takes no locks, states that are mutated in place are handed over live
+    @Override
+    public void forEach(BiConsumer<String, T> action) {
+        for (int segment = 0; segment < SEGMENTS; segment++) {
+            forEach(segment, action);
+        }
+    }
+
+    @Override
+    public int segments() {
+        return SEGMENTS;
+    }
+
+    @Override
+    public void forEach(int segment, BiConsumer<String, T> action) {
+        storage.get(segment).forEach((key, entry) -> {
+            if (!isStale(key, entry)) {
+                action.accept(key, entry.value);
+            }
+        });
+    }
+
+    // stale entries included, until the sweep drops them
+    long mappedEntries() {
+        long entries = 0;
+        for (Map<String, Entry<T>> segment : storage) {
+            entries += segment.size();
+        }
+        return entries;
+    }
+
+    private Map<String, Entry<T>> segment(String key) {
+        return storage.get((key.hashCode() * 0x9E3779B9) >>> (32 - SEGMENT_BITS));
+    }
+
+    private boolean isStale(String key, Entry<T> entry) {
+        if (entry.epoch < resetEpoch) {
+            return true;
+        }
+        List<PrefixReset> resets = prefixResets;
+        for (int i = 0; i < resets.size(); i++) {
+            PrefixReset reset = resets.get(i);
+            if (entry.epoch < reset.epoch() && key.startsWith(reset.prefix())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void requestSweep() {
+        sweepRequested.set(true);
+        if (sweeping.compareAndSet(false, true)) {
+            Thread.ofVirtual().name("store-sweeper").start(this::sweep);
+        }
+    }
+
+    private void sweep() {
+        do {
+            while (sweepRequested.getAndSet(false)) {
+                long sweptUpTo;
+                synchronized (this) {
+                    // every reset up to here is already published in resetEpoch / prefixResets
+                    sweptUpTo = epoch.get();
+                }
+                for (Map<String, Entry<T>> segment : storage) {
+                    for (String key : segment.keySet()) {
+                        segment.computeIfPresent(key, (id, entry) -> isStale(id, entry) ? null : entry);
+                    }
+                }
+                synchronized (this) {
+                    dropPrefixResetsUpTo(sweptUpTo);
+                }
+            }
+            sweeping.set(false);
+            // a reset that came in between the last check and clearing the flag
+        } while (sweepRequested.get() && sweeping.compareAndSet(false, true));
+    }
+
+    private void dropPrefixResetsUpTo(long upTo) {
+        prefixResets = prefixResets.stream()
+                .filter(reset -> reset.epoch() > upTo)
+                .toList();
+    }
+}
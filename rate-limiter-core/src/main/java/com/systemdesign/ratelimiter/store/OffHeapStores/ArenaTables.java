@@ -0,0 +1,27 @@
+package com.systemdesign.ratelimiter.store.OffHeapStores;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+
+// Native memory from automatic arenas, a replaced table is freed once unreachable. Gone on restart.
+public class ArenaTables implements TableStorage {
+
+    @Override
+    public MemorySegment existing(int stripe) {
+        return null;
+    }
+
+    @Override
+    public MemorySegment allocate(int stripe, long bytes) {
+        // Arena.allocate zeroes the memory
+        return Arena.ofAuto().allocate(bytes, 8);
+    }
+
+    @Override
+    public void publish(int stripe, MemorySegment table) {
+    }
+
+    @Override
+    public void flush() {
+    }
+}
@@ -0,0 +1,31 @@
+package com.systemdesign.ratelimiter.store.OffHeapStores;
+
+import com.systemdesign.ratelimiter.service.algorithm.FixedWindow.FixedWindowState;
+
+import java.lang.foreign.MemorySegment;
+
+import static java.lang.foreign.ValueLayout.JAVA_INT_UNALIGNED;
+import static java.lang.foreign.ValueLayout.JAVA_LONG_UNALIGNED;
+
+// 12 bytes: int requestCount, long windowStart
+public class FixedWindowStateCodec implements StateCodec<FixedWindowState> {
+
+    @Override
+    public int size() {
+        return 12;
+    }
+
+    @Override
+    public void write(MemorySegment segment, long offset, FixedWindowState state) {
+        segment.set(JAVA_INT_UNALIGNED, offset, state.requestCount());
+        segment.set(JAVA_LONG_UNALIGNED, offset + 4, state.windowStart());
+    }
+
+    @Override
+    public FixedWindowState read(MemorySegment segment, long offset) {
+        return new FixedWindowState(
+                segment.get(JAVA_INT_UNALIGNED, offset),
+                segment.get(JAVA_LONG_UNALIGNED, offset + 4)
+        );
+    }
+}
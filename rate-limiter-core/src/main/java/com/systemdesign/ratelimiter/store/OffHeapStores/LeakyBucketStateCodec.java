@@ -0,0 +1,31 @@
+package com.systemdesign.ratelimiter.store.OffHeapStores;
+
+import com.systemdesign.ratelimiter.service.algorithm.LeakyBucket.LeakyBucketState;
+
+import java.lang.foreign.MemorySegment;
+
+import static java.lang.foreign.ValueLayout.JAVA_DOUBLE_UNALIGNED;
+import static java.lang.foreign.ValueLayout.JAVA_LONG_UNALIGNED;
+
+// 16 bytes: double currentWater, long lastLeakTimeInMillis
+public class LeakyBucketStateCodec implements StateCodec<LeakyBucketState> {
+
+    @Override
+    public int size() {
+        return 16;
+    }
+
+    @Override
+    public void write(MemorySegment segment, long offset, LeakyBucketState state) {
+        segment.set(JAVA_DOUBLE_UNALIGNED, offset, state.currentWater());
+        segment.set(JAVA_LONG_UNALIGNED, offset + 8, state.lastLeakTimeInMillis());
+    }
+
+    @Override
+    public LeakyBucketState read(MemorySegment segment, long offset) {
+        return new LeakyBucketState(
+                segment.get(JAVA_DOUBLE_UNALIGNED, offset),
+                segment.get(JAVA_LONG_UNALIGNED, offset + 8)
+        );
+    }
+}
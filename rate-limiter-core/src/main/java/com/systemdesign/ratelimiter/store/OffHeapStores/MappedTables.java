@@ -0,0 +1,111 @@
+package com.systemdesign.ratelimiter.store.OffHeapStores;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/*
+Stripe tables in memory mapped files, one per stripe (stripe-007.tbl), so the state survives restarts.
+Only the pages that are touched are read into memory: idle keys cost disk, not RAM.
+A new table (growth, reset) is written to stripe-007.tbl.new, forced to disk and renamed over the
+old file: a crash in between leaves the old table in place. Writes to a published table reach the
+file whenever the OS writes the pages back, flush() forces them.
+The layout file records stripes and slot size, a directory written with another layout is refused
+(keys would hash to other stripes / slots would be misread).
+ */
+public class MappedTables implements TableStorage {
+
+    private static final String LAYOUT = "layout";
+
+    private final Path directory;
+    private final MemorySegment[] current;
+
+    public MappedTables(Path directory, int stripes, long slotSize) {
+        this.directory = directory;
+        this.current = new MemorySegment[stripes];
+        try {
+            Files.createDirectories(directory);
+            String layout = "stripes=" + stripes + " slotSize=" + slotSize;
+            Path layoutFile = directory.resolve(LAYOUT);
+            if (!Files.exists(layoutFile)) {
+                Files.writeString(layoutFile, layout);
+            } else if (!Files.readString(layoutFile).trim().equals(layout)) {
+                throw new IllegalStateException(directory + " was written with "
+                        + Files.readString(layoutFile).trim() + ", expected " + layout);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized MemorySegment existing(int stripe) {
+        Path file = file(stripe);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        current[stripe] = map(file, -1);
+        return current[stripe];
+    }
+
+    @Override
+    public MemorySegment allocate(int stripe, long bytes) {
+        Path file = directory.resolve(file(stripe).getFileName() + ".new");
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        // a sparse file reads as zeroes
+        return map(file, bytes);
+    }
+
+    @Override
+    public synchronized void publish(int stripe, MemorySegment table) {
+        Path file = file(stripe);
+        table.force();
+        try {
+            Files.move(directory.resolve(file.getFileName() + ".new"), file,
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        // the mapping stays valid after the rename, the replaced file is freed once its mapping is unreachable
+        current[stripe] = table;
+    }
+
+    @Override
+    public synchronized void flush() {
+        for (MemorySegment table : current) {
+            if (table != null) {
+                table.force();
+            }
+        }
+    }
+
+    public Path directory() {
+        return directory;
+    }
+
+    private Path file(int stripe) {
+        return directory.resolve(String.format("stripe-%03d.tbl", stripe));
+    }
+
+    // bytes < 0: map the whole existing file
+    private static MemorySegment map(Path file, long bytes) {
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = bytes < 0 ? channel.size() : bytes;
+            // unmapped when the segment is no longer reachable, closing the channel does not unmap
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size, Arena.ofAuto());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
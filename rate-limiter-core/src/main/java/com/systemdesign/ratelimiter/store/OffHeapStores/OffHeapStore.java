@@ -0,0 +1,427 @@
+package com.systemdesign.ratelimiter.store.OffHeapStores;
+
+import com.systemdesign.ratelimiter.store.RateLimiterStore;
+import com.systemdesign.ratelimiter.tracing.StoreEvent;
+
+import java.lang.foreign.MemorySegment;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+import static java.lang.foreign.ValueLayout.JAVA_CHAR_UNALIGNED;
+import static java.lang.foreign.ValueLayout.JAVA_INT;
+import static java.lang.foreign.ValueLayout.JAVA_LONG;
+
+/*
+Per-key state kept outside the Java heap, so the heap (and GC work) does not grow with the key count.
+
+Keys are spread over striped sub-tables, each an open addressing (linear probing) table in one
+off-heap segment, guarded by its stripe's monitor like a ConcurrentHashMap bin.
+Slot layout, SLOT_HEADER + codec size rounded up to 8 bytes:
+  0  long  key hash (0 = empty slot)
+  8  int   key length in chars
+  16 char[24] key, or for longer keys the first 20 chars + a second 64-bit hash of the whole key
+  64 state (StateCodec)
+Deletes shift the following run back instead of leaving tombstones.
+The state records handed to the remapping function are short lived copies, nothing per key stays on heap.
+Tables come from a TableStorage: automatic arenas by default (a table replaced on growth is freed
+once unreachable), or memory mapped files (MappedTables) that are picked up again after a restart.
+ */
+public class OffHeapStore<T> implements RateLimiterStore<T> {
+
+    private static final int KEY_CHARS = 24;
+    private static final int LONG_KEY_PREFIX_CHARS = 20;
+    private static final long HASH = 0;
+    private static final long LENGTH = 8;
+    private static final long KEY = 16;
+    private static final long SLOT_HEADER = KEY + KEY_CHARS * 2;
+    private static final double MAX_LOAD = 0.7;
+    // slots decoded per stripe lock in forEach
+    private static final int SCAN_CHUNK = 256;
+
+    private final StateCodec<T> codec;
+    private final long slotSize;
+    private final int initialCapacity;
+    private final TableStorage storage;
+    private final Stripe[] stripes;
+
+    private static final class Stripe {
+        final int index;
+        MemorySegment table;
+        int capacity;
+        int size;
+
+        Stripe(int index) {
+            this.index = index;
+        }
+    }
+
+    public OffHeapStore(StateCodec<T> codec) {
+        this(codec, 64, 1024);
+    }
+
+    public OffHeapStore(StateCodec<T> codec, int stripeCount, int initialCapacityPerStripe) {
+        this(codec, stripeCount, initialCapacityPerStripe, new ArenaTables());
+    }
+
+    public OffHeapStore(StateCodec<T> codec, int stripeCount, int initialCapacityPerStripe, TableStorage storage) {
+        if (Integer.bitCount(stripeCount) != 1 || Integer.bitCount(initialCapacityPerStripe) != 1) {
+            throw new IllegalArgumentException("stripes and capacity must be powers of two");
+        }
+        this.codec = codec;
+        this.slotSize = slotSize(codec);
+        this.initialCapacity = initialCapacityPerStripe;
+        this.storage = storage;
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(i);
+            MemorySegment existing = storage.existing(i);
+            if (existing != null) {
+                reopen(stripes[i], existing);
+            } else {
+                allocate(stripes[i], initialCapacity);
+                storage.publish(i, stripes[i].table);
+            }
+        }
+    }
+
+    // bytes per slot, for storages that lay out files up front
+    public static long slotSize(StateCodec<?> codec) {
+        return SLOT_HEADER + ((codec.size() + 7) & ~7L);
+    }
+
+    @Override
+    public T compute(String key, BiFunction<String, T, T> remappingFunction) {
+        StoreEvent event = new StoreEvent();
+        if (!event.isEnabled()) {
+            return computeInStripe(key, remappingFunction);
+        }
+        return event.trace("offheap", key, remappingFunction, this::computeInStripe);
+    }
+
+    private T computeInStripe(String key, BiFunction<String, T, T> remappingFunction) {
+        long hash = keyHash(key);
+        Stripe stripe = stripe(hash);
+
+        synchronized (stripe) {
+            int slot = find(stripe, key, hash);
+            T current = slot >= 0
+                    ? codec.read(stripe.table, offset(slot) + SLOT_HEADER)
+                    : null;
+
+            T updated = remappingFunction.apply(key, current);
+
+            if (updated == null) {
+                if (slot >= 0) {
+                    delete(stripe, slot);
+                }
+                return null;
+            }
+
+            if (slot < 0) {
+                if (stripe.size + 1 > stripe.capacity * MAX_LOAD) {
+                    grow(stripe);
+                    slot = find(stripe, key, hash);
+                }
+                slot = -slot - 1;
+                writeKey(stripe.table, offset(slot), key, hash);
+                stripe.size++;
+            }
+            codec.write(stripe.table, offset(slot) + SLOT_HEADER, updated);
+            return updated;
+        }
+    }
+
+    // Grows the key's stripe now if inserting the key would, so a caller can keep growth (with MappedTables
+    // a forced write of the whole new table) out of its own locks
+    public void reserve(String key) {
+        long hash = keyHash(key);
+        Stripe stripe = stripe(hash);
+        synchronized (stripe) {
+            if (stripe.size + 1 > stripe.capacity * MAX_LOAD && find(stripe, key, hash) < 0) {
+                grow(stripe);
+            }
+        }
+    }
+
+    @Override
+    public void reset() {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                // give memory back after a big burst of keys
+                allocate(stripe, initialCapacity);
+                storage.publish(stripe.index, stripe.table);
+            }
+        }
+    }
+
+    // Eager, one stripe at a time (tables carry no epoch). Only the first chars of long keys are kept,
+    // so prefixes are limited to that length.
+    @Override
+    public void reset(String keyPrefix) {
+        if (keyPrefix.length() > LONG_KEY_PREFIX_CHARS) {
+            throw new IllegalArgumentException("Off-heap stores reset prefixes of up to "
+                    + LONG_KEY_PREFIX_CHARS + " chars");
+        }
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                int slot = 0;
+                while (slot < stripe.capacity) {
+                    long offset = offset(slot);
+                    if (stripe.table.get(JAVA_LONG, offset + HASH) != 0
+                            && readKey(stripe.table, offset).startsWith(keyPrefix)) {
+                        // the delete may shift the next entry into this slot, look at it again
+                        delete(stripe, slot);
+                        continue;
+                    }
+                    slot++;
+                }
+            }
+        }
+    }
+
+    // Keys longer than the inline capacity are handed to the function truncated (only a hash of the rest is kept)
+    @Override
+    public void replaceAll(BiFunction<String, T, T> function) {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                for (int slot = 0; slot < stripe.capacity; slot++) {
+                    long offset = offset(slot);
+                    if (stripe.table.get(JAVA_LONG, offset + HASH) == 0) {
+                        continue;
+                    }
+                    T updated = function.apply(
+                            readKey(stripe.table, offset),
+                            codec.read(stripe.table, offset + SLOT_HEADER)
+                    );
+                    if (updated == null) {
+                        // same contract as ConcurrentHashMap.replaceAll
+                        throw new NullPointerException("replaceAll cannot remove entries");
+                    }
+                    codec.write(stripe.table, offset + SLOT_HEADER, updated);
+                }
+            }
+        }
+    }
+
+    // Stripe locks are held for SCAN_CHUNK slots at a time and the action runs outside them.
+    // A stripe that grows mid-scan can skip or repeat keys, long keys come back truncated as in replaceAll.
+    @Override
+    public void forEach(BiConsumer<String, T> action) {
+        for (int segment = 0; segment < stripes.length; segment++) {
+            forEach(segment, action);
+        }
+    }
+
+    // one segment per stripe
+    @Override
+    public int segments() {
+        return stripes.length;
+    }
+
+    @Override
+    public void forEach(int segment, BiConsumer<String, T> action) {
+        Stripe stripe = stripes[segment];
+        List<String> keys = new ArrayList<>(SCAN_CHUNK);
+        List<T> states = new ArrayList<>(SCAN_CHUNK);
+        int slot = 0;
+        while (true) {
+            synchronized (stripe) {
+                if (slot >= stripe.capacity) {
+                    break;
+                }
+                int end = Math.min(stripe.capacity, slot + SCAN_CHUNK);
+                for (; slot < end; slot++) {
+                    long offset = offset(slot);
+                    if (stripe.table.get(JAVA_LONG, offset + HASH) != 0) {
+                        keys.add(readKey(stripe.table, offset));
+                        states.add(codec.read(stripe.table, offset + SLOT_HEADER));
+                    }
+                }
+            }
+            for (int i = 0; i < keys.size(); i++) {
+                action.accept(keys.get(i), states.get(i));
+            }
+            keys.clear();
+            states.clear();
+        }
+    }
+
+    public long size() {
+        long size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size;
+            }
+        }
+        return size;
+    }
+
+    // forces tables kept in files to disk
+    public void flush() {
+        storage.flush();
+    }
+
+    public long offHeapBytes() {
+        long bytes = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                bytes += stripe.table.byteSize();
+            }
+        }
+        return bytes;
+    }
+
+    // every slot of a new table starts empty (zeroed), the storage publishes it once it is filled
+    private void allocate(Stripe stripe, int capacity) {
+        stripe.table = storage.allocate(stripe.index, capacity * slotSize);
+        stripe.capacity = capacity;
+        stripe.size = 0;
+    }
+
+    private void reopen(Stripe stripe, MemorySegment table) {
+        long capacity = table.byteSize() / slotSize;
+        if (capacity * slotSize != table.byteSize() || Long.bitCount(capacity) != 1) {
+            throw new IllegalStateException("Stripe " + stripe.index + " table has an unexpected size "
+                    + table.byteSize());
+        }
+        stripe.table = table;
+        stripe.capacity = (int) capacity;
+        stripe.size = 0;
+        for (int slot = 0; slot < stripe.capacity; slot++) {
+            if (table.get(JAVA_LONG, offset(slot) + HASH) != 0) {
+                stripe.size++;
+            }
+        }
+    }
+
+    private Stripe stripe(long hash) {
+        return stripes[(int) (hash >>> 40) & (stripes.length - 1)];
+    }
+
+    private long offset(int slot) {
+        return slot * slotSize;
+    }
+
+    // slot of the key, or -(first empty slot of its probe run) - 1
+    private int find(Stripe stripe, String key, long hash) {
+        int mask = stripe.capacity - 1;
+        int slot = (int) hash & mask;
+        while (true) {
+            long offset = offset(slot);
+            long slotHash = stripe.table.get(JAVA_LONG, offset + HASH);
+            if (slotHash == 0) {
+                return -slot - 1;
+            }
+            if (slotHash == hash && keyEquals(stripe.table, offset, key)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private boolean keyEquals(MemorySegment table, long offset, String key) {
+        int length = key.length();
+        if (table.get(JAVA_INT, offset + LENGTH) != length) {
+            return false;
+        }
+        int inline = length <= KEY_CHARS ? length : LONG_KEY_PREFIX_CHARS;
+        for (int i = 0; i < inline; i++) {
+            if (table.get(JAVA_CHAR_UNALIGNED, offset + KEY + i * 2L) != key.charAt(i)) {
+                return false;
+            }
+        }
+        return length <= KEY_CHARS
+                || table.get(JAVA_LONG, offset + KEY + LONG_KEY_PREFIX_CHARS * 2) == hash(key, 0x9e3779b97f4a7c15L);
+    }
+
+    private void writeKey(MemorySegment table, long offset, String key, long hash) {
+        int length = key.length();
+        table.set(JAVA_LONG, offset + HASH, hash);
+        table.set(JAVA_INT, offset + LENGTH, length);
+        int inline = length <= KEY_CHARS ? length : LONG_KEY_PREFIX_CHARS;
+        for (int i = 0; i < inline; i++) {
+            table.set(JAVA_CHAR_UNALIGNED, offset + KEY + i * 2L, key.charAt(i));
+        }
+        if (length > KEY_CHARS) {
+            table.set(JAVA_LONG, offset + KEY + LONG_KEY_PREFIX_CHARS * 2, hash(key, 0x9e3779b97f4a7c15L));
+        }
+    }
+
+    private String readKey(MemorySegment table, long offset) {
+        int length = table.get(JAVA_INT, offset + LENGTH);
+        int inline = length <= KEY_CHARS ? length : LONG_KEY_PREFIX_CHARS;
+        char[] chars = new char[inline];
+        for (int i = 0; i < inline; i++) {
+            chars[i] = table.get(JAVA_CHAR_UNALIGNED, offset + KEY + i * 2L);
+        }
+        return new String(chars);
+    }
+
+    // Backward shift delete: pull later entries of the probe run into the hole so lookups never stop early
+    private void delete(Stripe stripe, int slot) {
+        MemorySegment table = stripe.table;
+        int mask = stripe.capacity - 1;
+        int hole = slot;
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            long nextHash = table.get(JAVA_LONG, offset(next) + HASH);
+            if (nextHash == 0) {
+                break;
+            }
+            int home = (int) nextHash & mask;
+            // entry may move into the hole only if the hole lies between its home slot and where it is now
+            boolean movable = hole <= next
+                    ? home <= hole || home > next
+                    : home <= hole && home > next;
+            if (movable) {
+                MemorySegment.copy(table, offset(next), table, offset(hole), slotSize);
+                hole = next;
+            }
+        }
+        table.asSlice(offset(hole), slotSize).fill((byte) 0);
+        stripe.size--;
+    }
+
+    private void grow(Stripe stripe) {
+        MemorySegment old = stripe.table;
+        int oldCapacity = stripe.capacity;
+        allocate(stripe, oldCapacity * 2);
+
+        int mask = stripe.capacity - 1;
+        for (int i = 0; i < oldCapacity; i++) {
+            long hash = old.get(JAVA_LONG, offset(i) + HASH);
+            if (hash == 0) {
+                continue;
+            }
+            int slot = (int) hash & mask;
+            while (stripe.table.get(JAVA_LONG, offset(slot) + HASH) != 0) {
+                slot = (slot + 1) & mask;
+            }
+            MemorySegment.copy(old, offset(i), stripe.table, offset(slot), slotSize);
+            stripe.size++;
+        }
+        storage.publish(stripe.index, stripe.table);
+    }
+
+    // picks the stripe (bits 40+) and the home slot (low bits), package-private so tests can line up collisions
+    static long keyHash(String key) {
+        return hash(key, 0xcbf29ce484222325L);
+    }
+
+    // FNV-1a over the chars with the murmur3 finalizer, never 0 (0 marks an empty slot)
+    private static long hash(String key, long seed) {
+        long h = seed;
+        for (int i = 0; i < key.length(); i++) {
+            h = (h ^ key.charAt(i)) * 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h == 0 ? 1 : h;
+    }
+}
@@ -0,0 +1,30 @@
+package com.systemdesign.ratelimiter.store.OffHeapStores;
+
+import com.systemdesign.ratelimiter.service.algorithm.Quota.QuotaState;
+
+import java.lang.foreign.MemorySegment;
+
+import static java.lang.foreign.ValueLayout.JAVA_LONG_UNALIGNED;
+
+// 16 bytes: long used, long periodStart
+public class QuotaStateCodec implements StateCodec<QuotaState> {
+
+    @Override
+    public int size() {
+        return 16;
+    }
+
+    @Override
+    public void write(MemorySegment segment, long offset, QuotaState state) {
+        segment.set(JAVA_LONG_UNALIGNED, offset, state.used());
+        segment.set(JAVA_LONG_UNALIGNED, offset + 8, state.periodStart());
+    }
+
+    @Override
+    public QuotaState read(MemorySegment segment, long offset) {
+        return new QuotaState(
+                segment.get(JAVA_LONG_UNALIGNED, offset),
+                segment.get(JAVA_LONG_UNALIGNED, offset + 8)
+        );
+    }
+}
@@ -0,0 +1,14 @@
+package com.systemdesign.ratelimiter.store.OffHeapStores;
+
+import java.lang.foreign.MemorySegment;
+
+// Fixed-size binary layout of one per-key state, written into an OffHeapStore slot
+public interface StateCodec<T> {
+
+    // bytes per state
+    int size();
+
+    void write(MemorySegment segment, long offset, T state);
+
+    T read(MemorySegment segment, long offset);
+}
@@ -0,0 +1,19 @@
+package com.systemdesign.ratelimiter.store.OffHeapStores;
+
+import java.lang.foreign.MemorySegment;
+
+// Where the stripe tables of an OffHeapStore live. New tables are always zeroed (every slot empty).
+public interface TableStorage {
+
+    // the table the stripe had when the store was last used (a reopened file), null for a fresh stripe
+    MemorySegment existing(int stripe);
+
+    // a new table for the stripe, it only replaces the current one once published
+    MemorySegment allocate(int stripe, long bytes);
+
+    // the stripe reads and writes `table` from now on (fresh, grown or reset table, filled in)
+    void publish(int stripe, MemorySegment table);
+
+    // make everything written so far durable, nothing to do for memory
+    void flush();
+}
@@ -0,0 +1,31 @@
+package com.systemdesign.ratelimiter.store.OffHeapStores;
+
+import com.systemdesign.ratelimiter.service.algorithm.TokenBucket.TokenBucketState;
+
+import java.lang.foreign.MemorySegment;
+
+import static java.lang.foreign.ValueLayout.JAVA_DOUBLE_UNALIGNED;
+import static java.lang.foreign.ValueLayout.JAVA_LONG_UNALIGNED;
+
+// 16 bytes: double tokens, long lastRefillTimeMillis
+public class TokenBucketStateCodec implements StateCodec<TokenBucketState> {
+
+    @Override
+    public int size() {
+        return 16;
+    }
+
+    @Override
+    public void write(MemorySegment segment, long offset, TokenBucketState state) {
+        segment.set(JAVA_DOUBLE_UNALIGNED, offset, state.tokens());
+        segment.set(JAVA_LONG_UNALIGNED, offset + 8, state.lastRefillTimeMillis());
+    }
+
+    @Override
+    public TokenBucketState read(MemorySegment segment, long offset) {
+        return new TokenBucketState(
+                segment.get(JAVA_DOUBLE_UNALIGNED, offset),
+                segment.get(JAVA_LONG_UNALIGNED, offset + 8)
+        );
+    }
+}
@@ -0,0 +1,28 @@
+package com.systemdesign.ratelimiter.store;
+
+import org.springframework.stereotype.Component;
+
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+@Component
+public interface RateLimiterStore<T> {
+    T compute(String key, BiFunction<String, T, T> remappingFunction);
+    void reset();
+    // forgets only the keys starting with keyPrefix
+    void reset(String keyPrefix);
+    // rewrites every entry in place without blocking concurrent compute() on other keys
+    void replaceAll(BiFunction<String, T, T> function);
+    // weakly consistent walk over the live entries, concurrent compute() is never held up for long
+    void forEach(BiConsumer<String, T> action);
+
+    // Keys are split into segments() fixed parts, forEach(segment, ...) walks just one of them, so a paged
+    // walk can resume at the part it stopped in. Stores that cannot split their keys have one part.
+    default int segments() {
+        return 1;
+    }
+
+    default void forEach(int segment, BiConsumer<String, T> action) {
+        forEach(action);
+    }
+}
@@ -0,0 +1,70 @@
+package com.systemdesign.ratelimiter.store.TieredStores;
+
+import com.systemdesign.ratelimiter.service.algorithm.Quota.QuotaState;
+import com.systemdesign.ratelimiter.store.OffHeapStores.MappedTables;
+import com.systemdesign.ratelimiter.store.OffHeapStores.OffHeapStore;
+import com.systemdesign.ratelimiter.store.OffHeapStores.QuotaStateCodec;
+import jakarta.annotation.PreDestroy;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+One persistent quota store per limiter name, in ratelimiter.quota.dir/<name> ("default" for /api/init).
+A store outlives the policy that uses it: a policy that is removed and added back, or the same
+name after a restart, picks its counts up again. Stores are only closed (flushed) on shutdown.
+ */
+@Component
+public class QuotaStores {
+
+    private static final Log log = LogFactory.getLog(QuotaStores.class);
+
+    private static final int STRIPES = 64;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final Path directory;
+    private final long idleMillis;
+    private final long flushMillis;
+    private final Map<String, TieredStore<QuotaState>> stores = new ConcurrentHashMap<>();
+
+    public QuotaStores(
+            @Value("${ratelimiter.quota.dir:data/quota}") String directory,
+            @Value("${ratelimiter.quota.idle-seconds:300}") long idleSeconds,
+            @Value("${ratelimiter.quota.flush-millis:1000}") long flushMillis
+    ) {
+        if (idleSeconds <= 0 || flushMillis <= 0) {
+            throw new IllegalArgumentException("ratelimiter.quota.idle-seconds and flush-millis must be > 0");
+        }
+        this.directory = Path.of(directory);
+        this.idleMillis = idleSeconds * 1000;
+        this.flushMillis = flushMillis;
+    }
+
+    public TieredStore<QuotaState> store(String name) {
+        String directoryName = name.isEmpty() ? "default" : name;
+        // the name becomes a directory, nothing that could leave ratelimiter.quota.dir
+        if (!directoryName.matches("[A-Za-z0-9_-][A-Za-z0-9._-]*")) {
+            throw new IllegalArgumentException("Quota limiter names may only use letters, digits, '.', '_' and '-'");
+        }
+        return stores.computeIfAbsent(directoryName, key -> {
+            QuotaStateCodec codec = new QuotaStateCodec();
+            MappedTables tables = new MappedTables(directory.resolve(key), STRIPES, OffHeapStore.slotSize(codec));
+            log.info("Quota store " + key + " in " + tables.directory().toAbsolutePath());
+            return new TieredStore<>(
+                    new OffHeapStore<>(codec, STRIPES, INITIAL_CAPACITY, tables),
+                    idleMillis,
+                    flushMillis
+            );
+        });
+    }
+
+    @PreDestroy
+    public void close() {
+        stores.values().forEach(TieredStore::close);
+    }
+}
@@ -0,0 +1,247 @@
+package com.systemdesign.ratelimiter.store.TieredStores;
+
+import com.systemdesign.ratelimiter.store.OffHeapStores.OffHeapStore;
+import com.systemdesign.ratelimiter.store.RateLimiterStore;
+import com.systemdesign.ratelimiter.tracing.StoreEvent;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+/*
+Two tiers for state that lives long but is touched rarely (daily / monthly quotas):
+  hot   on heap, only the keys used in the last idleMillis
+  cold  an OffHeapStore, usually on MappedTables, holding every key
+A compute() on a key that is not hot promotes it from the cold tier first. A mover thread writes
+changed hot entries back to the cold tier every flushMillis (write-behind, a crash loses at most
+that much) and demotes entries idle for idleMillis, so heap follows the active keys and the rest
+only costs disk pages.
+Locks are always taken hot bin first, cold stripe second. Resets and replaceAll hold the write lock
+so no promotion can bring back what they just removed.
+Only the mover adds keys to the cold tier. It grows a full cold stripe before it locks the hot entry,
+so hits never wait on a growing stripe (with MappedTables, a forced write of the new table) through
+a hot bin. Promotions and removals of keys in that stripe still wait for it.
+ */
+public class TieredStore<T> implements RateLimiterStore<T>, AutoCloseable {
+
+    private static final Log log = LogFactory.getLog(TieredStore.class);
+
+    // one per hot key, written only under the map's bin lock
+    private static final class Hot<T> {
+        T value;
+        long lastAccess;
+        boolean dirty;
+
+        Hot(T value, long lastAccess) {
+            this.value = value;
+            this.lastAccess = lastAccess;
+        }
+    }
+
+    private final ConcurrentHashMap<String, Hot<T>> hot = new ConcurrentHashMap<>();
+    private final OffHeapStore<T> cold;
+    private final long idleMillis;
+    private final long flushMillis;
+    // read: compute and the mover, write: anything that rewrites both tiers
+    private final ReadWriteLock tiers = new ReentrantReadWriteLock();
+    private final LongAdder promotions = new LongAdder();
+    private final LongAdder demotions = new LongAdder();
+    private final Thread mover;
+
+    private volatile boolean closed;
+
+    public TieredStore(OffHeapStore<T> cold, long idleMillis, long flushMillis) {
+        this.cold = cold;
+        this.idleMillis = idleMillis;
+        this.flushMillis = flushMillis;
+        this.mover = Thread.ofPlatform()
+                .daemon()
+                .name("tiered-store-mover")
+                .start(this::moveLoop);
+    }
+
+    @Override
+    public T compute(String key, BiFunction<String, T, T> remappingFunction) {
+        StoreEvent event = new StoreEvent();
+        if (!event.isEnabled()) {
+            return computeEntry(key, remappingFunction);
+        }
+        return event.trace("tiered", key, remappingFunction, this::computeEntry);
+    }
+
+    private T computeEntry(String key, BiFunction<String, T, T> remappingFunction) {
+        long now = System.currentTimeMillis();
+        tiers.readLock().lock();
+        try {
+            Hot<T> entry = hot.compute(key, (id, current) -> {
+                if (current == null) {
+                    T stored = cold.compute(id, (coldId, state) -> state);
+                    if (stored != null) {
+                        promotions.increment();
+                    }
+                    current = new Hot<>(stored, now);
+                }
+                T updated = remappingFunction.apply(id, current.value);
+                if (updated == null) {
+                    if (current.value != null) {
+                        cold.compute(id, (coldId, state) -> null);
+                    }
+                    return null;
+                }
+                current.value = updated;
+                current.lastAccess = now;
+                current.dirty = true;
+                return current;
+            });
+            return entry == null ? null : entry.value;
+        } finally {
+            tiers.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void reset() {
+        tiers.writeLock().lock();
+        try {
+            hot.clear();
+            cold.reset();
+        } finally {
+            tiers.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void reset(String keyPrefix) {
+        tiers.writeLock().lock();
+        try {
+            // the cold tier checks the prefix length before anything is dropped
+            cold.reset(keyPrefix);
+            hot.keySet().removeIf(key -> key.startsWith(keyPrefix));
+        } finally {
+            tiers.writeLock().unlock();
+        }
+    }
+
+    // The cold copy of a hot key is rewritten too, the hot one replaces it on the next flush
+    @Override
+    public void replaceAll(BiFunction<String, T, T> function) {
+        tiers.writeLock().lock();
+        try {
+            cold.replaceAll(function);
+            hot.replaceAll((key, entry) -> {
+                entry.value = function.apply(key, entry.value);
+                entry.dirty = true;
+                return entry;
+            });
+        } finally {
+            tiers.writeLock().unlock();
+        }
+    }
+
+    // Writes the hot tier back and walks the cold one, long keys come back truncated as with OffHeapStore
+    @Override
+    public void forEach(BiConsumer<String, T> action) {
+        flush();
+        cold.forEach(action);
+    }
+
+    // the cold tier's segments. Changed hot entries are written back first, without forcing them to disk
+    @Override
+    public int segments() {
+        return cold.segments();
+    }
+
+    @Override
+    public void forEach(int segment, BiConsumer<String, T> action) {
+        move(System.currentTimeMillis(), false);
+        cold.forEach(segment, action);
+    }
+
+    // writes every changed hot entry to the cold tier and forces it to disk
+    public void flush() {
+        move(System.currentTimeMillis(), false);
+        cold.flush();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        mover.interrupt();
+        try {
+            mover.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    public int hotSize() {
+        return hot.size();
+    }
+
+    public long coldSize() {
+        return cold.size();
+    }
+
+    public long promotions() {
+        return promotions.sum();
+    }
+
+    public long demotions() {
+        return demotions.sum();
+    }
+
+    // one pass of the mover, package-private so tests can run it without waiting
+    void moveOnce(long now) {
+        move(now, true);
+        cold.flush();
+    }
+
+    private void move(long now, boolean demote) {
+        tiers.readLock().lock();
+        try {
+            for (String key : hot.keySet()) {
+                // racy read, only decides whether to make room up front
+                Hot<T> current = hot.get(key);
+                if (current != null && current.dirty) {
+                    cold.reserve(key);
+                }
+                hot.computeIfPresent(key, (id, entry) -> {
+                    if (entry.dirty) {
+                        T value = entry.value;
+                        cold.compute(id, (coldId, state) -> value);
+                        entry.dirty = false;
+                    }
+                    if (demote && now - entry.lastAccess >= idleMillis) {
+                        demotions.increment();
+                        return null;
+                    }
+                    return entry;
+                });
+            }
+        } finally {
+            tiers.readLock().unlock();
+        }
+    }
+
+    private void moveLoop() {
+        while (!closed) {
+            try {
+                Thread.sleep(flushMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                moveOnce(System.currentTimeMillis());
+            } catch (RuntimeException e) {
+                // the hot tier keeps everything until the next pass succeeds
+                log.error("Tiered store flush failed", e);
+            }
+        }
+    }
+}
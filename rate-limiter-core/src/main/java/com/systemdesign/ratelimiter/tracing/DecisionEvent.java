@@ -0,0 +1,50 @@
+package com.systemdesign.ratelimiter.tracing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/*
+One hitEndpoint call. Event duration is the whole decision, storeDuration the part spent in
+store operations (bin / stripe wait + remapping), the rest is algorithm and response building.
+Off unless a recording enables it (see FlightRecordings), then a disabled check is all it costs.
+ */
+@Name("ratelimiter.Decision")
+@Label("Rate Limiter Decision")
+@Category({"Rate Limiter"})
+@Enabled(false)
+@StackTrace(false)
+public class DecisionEvent extends jdk.jfr.Event {
+
+    @Label("Policy")
+    @Description("Policy name, empty for the /api/init limiter")
+    String policy;
+
+    @Label("Algorithm")
+    String algorithm;
+
+    @Label("Key")
+    String key;
+
+    @Label("Allowed")
+    boolean allowed;
+
+    @Label("Remaining Hits")
+    int remainingHits;
+
+    @Label("Retry After")
+    @Timespan(Timespan.SECONDS)
+    long retryAfter;
+
+    @Label("Store Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    long storeDuration;
+
+    @Label("Store Operations")
+    @Description("Store calls made for this decision, more than one means the algorithm retried or took several steps")
+    int storeOperations;
+}
@@ -0,0 +1,150 @@
+package com.systemdesign.ratelimiter.tracing;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.Map;
+
+/*
+One on-demand JFR recording at a time: the JDK's "default" or "profile" settings plus the
+rate limiter events, which stay off otherwise. The file stays available after stop until the
+next start.
+ */
+@Component
+public class FlightRecordings {
+
+    private static final Log log = LogFactory.getLog(FlightRecordings.class);
+
+    private Recording recording;
+    private Path lastFile;
+    // reused for every snapshot of a running recording
+    private Path snapshotFile;
+
+    // thresholdMs: only decisions / store calls at least this slow are recorded
+    public synchronized Map<String, Object> start(String settings, long thresholdMs, long maxSeconds) {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            throw new RecordingStateException("A recording is already running");
+        }
+        if (thresholdMs < 0 || maxSeconds <= 0) {
+            throw new IllegalArgumentException("thresholdMs must be >= 0 and maxSeconds > 0");
+        }
+
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settings);
+        } catch (IOException | ParseException e) {
+            throw new IllegalArgumentException("Unknown JFR settings: " + settings);
+        }
+
+        discard();
+        recording = new Recording(configuration);
+        recording.setName("rate-limiter");
+        // stops by itself if nobody calls stop
+        recording.setDuration(Duration.ofSeconds(maxSeconds));
+        recording.setToDisk(true);
+        recording.enable(DecisionEvent.class).withThreshold(Duration.ofMillis(thresholdMs));
+        recording.enable(StoreEvent.class).withThreshold(Duration.ofMillis(thresholdMs));
+        recording.start();
+
+        log.info("JFR recording started, settings=" + settings
+                + ", threshold=" + thresholdMs + "ms, max " + maxSeconds + "s");
+        return status();
+    }
+
+    public synchronized Map<String, Object> stop() {
+        if (recording == null || recording.getState() == RecordingState.CLOSED) {
+            throw new RecordingStateException("No recording to stop");
+        }
+        if (recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+        }
+        lastFile = dump();
+        recording.close();
+        recording = null;
+        return status();
+    }
+
+    // running -> snapshot of what was recorded so far, otherwise the file of the last stopped recording
+    public synchronized Path download() {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            if (snapshotFile == null) {
+                snapshotFile = dump();
+            } else {
+                dumpTo(snapshotFile);
+            }
+            return snapshotFile;
+        }
+        if (recording != null) {
+            // ran out of maxSeconds
+            stop();
+        }
+        if (lastFile == null) {
+            throw new RecordingStateException("Nothing recorded");
+        }
+        return lastFile;
+    }
+
+    public synchronized Map<String, Object> status() {
+        if (recording == null) {
+            return Map.of(
+                    "state", "NONE",
+                    "file", lastFile == null ? "" : lastFile.toString()
+            );
+        }
+        return Map.of(
+                "state", recording.getState().name(),
+                "startTime", String.valueOf(recording.getStartTime()),
+                "bytes", recording.getSize()
+        );
+    }
+
+    private Path dump() {
+        try {
+            Path file = Files.createTempFile("rate-limiter-", ".jfr");
+            dumpTo(file);
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void dumpTo(Path file) {
+        try {
+            recording.dump(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void discard() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+        delete(lastFile);
+        delete(snapshotFile);
+        lastFile = null;
+        snapshotFile = null;
+    }
+
+    private void delete(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete " + file, e);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.systemdesign.ratelimiter.tracing;
+
+// start / stop / download asked for in the wrong recording state, answered with 409 by the web app
+public class RecordingStateException extends IllegalStateException {
+
+    public RecordingStateException(String message) {
+        super(message);
+    }
+}
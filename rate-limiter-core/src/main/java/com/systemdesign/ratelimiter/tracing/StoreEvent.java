@@ -0,0 +1,108 @@
+package com.systemdesign.ratelimiter.tracing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/*
+One store compute(). remapDuration is the time inside the algorithm's remapping function,
+duration - remapDuration is what the store itself cost: ConcurrentHashMap bin lock / stripe monitor,
+hashing, probing, (de)serializing off-heap slots.
+ */
+@Name("ratelimiter.StoreCompute")
+@Label("Rate Limiter Store Compute")
+@Category({"Rate Limiter"})
+@Enabled(false)
+@StackTrace(false)
+public class StoreEvent extends jdk.jfr.Event {
+
+    // store time and operation count of the current thread, read around a decision by TracingRateLimiter
+    private static final ThreadLocal<long[]> THREAD_TOTALS = ThreadLocal.withInitial(() -> new long[2]);
+
+    @Label("Store")
+    @Description("memory, offheap or tiered")
+    String store;
+
+    @Label("Key")
+    String key;
+
+    @Label("Remap Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    long remapDuration;
+
+    /*
+    Stores call this only after isEnabled(), so a disabled event costs one allocation the JIT removes:
+        StoreEvent event = new StoreEvent();
+        if (!event.isEnabled()) { return plainCompute(key, fn); }
+        return event.trace("memory", key, fn, this::plainCompute);
+     */
+    public <T> T trace(
+            String store,
+            String key,
+            BiFunction<String, T, T> remappingFunction,
+            BiFunction<String, BiFunction<String, T, T>, T> compute
+    ) {
+        this.store = store;
+        this.key = key;
+        long[] remap = new long[1];
+
+        begin();
+        long start = System.nanoTime();
+        try {
+            return compute.apply(key, (id, state) -> {
+                long remapStart = System.nanoTime();
+                try {
+                    return remappingFunction.apply(id, state);
+                } finally {
+                    remap[0] += System.nanoTime() - remapStart;
+                }
+            });
+        } finally {
+            end();
+            remapDuration = remap[0];
+            long[] totals = THREAD_TOTALS.get();
+            totals[0] += System.nanoTime() - start;
+            totals[1]++;
+            commit();
+        }
+    }
+
+    static long[] threadTotals() {
+        return THREAD_TOTALS.get();
+    }
+
+    /*
+    A decision handed to another thread (BudgetedRateLimiter's executor) adds its store time to that
+    thread's totals. measure() runs it there, credit() adds what it measured to the thread that waited
+    for it, the one TracingRateLimiter reads. Nothing is measured while the event is disabled.
+     */
+    public record Measured<T>(T result, long storeNanos, long storeOperations) {
+
+        public T credit() {
+            if (storeOperations > 0) {
+                long[] totals = THREAD_TOTALS.get();
+                totals[0] += storeNanos;
+                totals[1] += storeOperations;
+            }
+            return result;
+        }
+    }
+
+    public static <T> Measured<T> measure(Supplier<T> decision) {
+        if (!new StoreEvent().isEnabled()) {
+            return new Measured<>(decision.get(), 0, 0);
+        }
+        long[] totals = THREAD_TOTALS.get();
+        long storeNanosBefore = totals[0];
+        long storeOperationsBefore = totals[1];
+        T result = decision.get();
+        return new Measured<>(result, totals[0] - storeNanosBefore, totals[1] - storeOperationsBefore);
+    }
+}
@@ -0,0 +1,87 @@
+package com.systemdesign.ratelimiter.tracing;
+
+import com.systemdesign.ratelimiter.dto.KeyState;
+import com.systemdesign.ratelimiter.dto.RateLimiterHitResponse;
+import com.systemdesign.ratelimiter.service.algorithm.RateLimiter;
+
+import java.util.function.Consumer;
+
+/*
+Emits a DecisionEvent per hit. Installed by the factory around every limiter, so when no recording
+runs the only cost is the disabled check. Waiting (/acquire, /shape) and binary frames with permits > 1
+decide on unwrap(), they show up as StoreEvents only.
+ */
+public class TracingRateLimiter implements RateLimiter {
+
+    private final String policy;
+    private final String algorithm;
+    private final RateLimiter delegate;
+
+    public TracingRateLimiter(String policy, String algorithm, RateLimiter delegate) {
+        this.policy = policy;
+        this.algorithm = algorithm;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public RateLimiterHitResponse hitEndpoint(String clientId) {
+        DecisionEvent event = new DecisionEvent();
+        if (!event.isEnabled()) {
+            return delegate.hitEndpoint(clientId);
+        }
+
+        long[] totals = StoreEvent.threadTotals();
+        long storeNanosBefore = totals[0];
+        long storeOperationsBefore = totals[1];
+
+        event.begin();
+        RateLimiterHitResponse response = delegate.hitEndpoint(clientId);
+        event.end();
+
+        event.policy = policy;
+        event.algorithm = algorithm;
+        event.key = clientId;
+        event.allowed = response.accepted();
+        event.remainingHits = response.remainingHits();
+        event.retryAfter = response.retryAfter();
+        event.storeDuration = totals[0] - storeNanosBefore;
+        event.storeOperations = (int) (totals[1] - storeOperationsBefore);
+        event.commit();
+        return response;
+    }
+
+    @Override
+    public void reset() {
+        delegate.reset();
+    }
+
+    @Override
+    public void reset(String keyPrefix) {
+        delegate.reset(keyPrefix);
+    }
+
+    @Override
+    public void onComplete(String clientId, long latencyNanos, boolean success) {
+        delegate.onComplete(clientId, latencyNanos, success);
+    }
+
+    @Override
+    public int inspectSegments() {
+        return delegate.inspectSegments();
+    }
+
+    @Override
+    public void inspect(int segment, Consumer<KeyState> sink) {
+        delegate.inspect(segment, sink);
+    }
+
+    @Override
+    public void migrateFrom(RateLimiter previous) {
+        delegate.migrateFrom(previous.unwrap());
+    }
+
+    @Override
+    public RateLimiter unwrap() {
+        return delegate.unwrap();
+    }
+}
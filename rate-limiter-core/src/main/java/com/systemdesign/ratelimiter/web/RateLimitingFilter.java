@@ -0,0 +1,37 @@
+package com.systemdesign.ratelimiter.web;
+
+import com.systemdesign.ratelimiter.service.policy.PolicyRegistry;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+
+/*
+Applies the policy routes in-process, in front of any servlet application.
+The decision is a direct RateLimiter call, no extra HTTP hop to /api/hit.
+ */
+public class RateLimitingFilter implements Filter {
+
+    private final PolicyRegistry registry;
+
+    public RateLimitingFilter(PolicyRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+
+        if (request instanceof HttpServletRequest httpRequest
+                && response instanceof HttpServletResponse httpResponse
+                && !ServletRateLimiting.admit(registry, httpRequest, httpResponse)) {
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,44 @@
+package com.systemdesign.ratelimiter.web;
+
+import com.systemdesign.ratelimiter.dto.RateLimiterHitResponse;
+import com.systemdesign.ratelimiter.service.policy.PolicyRegistry;
+import com.systemdesign.ratelimiter.service.policy.RouteMatch;
+import com.systemdesign.ratelimiter.service.policy.ServletRequestAccessor;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+
+// Inline decision shared by the servlet filter and the Spring MVC interceptor
+public final class ServletRateLimiting {
+
+    public static final int TOO_MANY_REQUESTS = 429;
+
+    private ServletRateLimiting() {
+    }
+
+    // true -> let the request through. Requests no route matches are not limited.
+    public static boolean admit(
+            PolicyRegistry registry,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+
+        RouteMatch match = new RouteMatch();
+        if (!registry.match(request, ServletRequestAccessor.DIRECT, match)) {
+            return true;
+        }
+
+        RateLimiterHitResponse decision = match.policy().limiter().hitEndpoint(match.key());
+
+        response.setHeader("X-RateLimit-Policy", match.policy().name());
+        response.setHeader("X-RateLimit-Remaining", String.valueOf(decision.remainingHits()));
+        if (decision.accepted()) {
+            return true;
+        }
+
+        response.setHeader("Retry-After", String.valueOf(decision.retryAfter()));
+        response.sendError(TOO_MANY_REQUESTS, decision.message());
+        return false;
+    }
+}
@@ -0,0 +1,31 @@
+package com.systemdesign.ratelimiter.config;
+
+import com.systemdesign.ratelimiter.web.RateLimitingInterceptor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final RateLimitingInterceptor rateLimitingInterceptor;
+    private final String[] inlinePathPatterns;
+
+    public WebConfig(
+            RateLimitingInterceptor rateLimitingInterceptor,
+            @Value("${ratelimiter.inline.path-patterns:}") String[] inlinePathPatterns
+    ) {
+        this.rateLimitingInterceptor = rateLimitingInterceptor;
+        this.inlinePathPatterns = inlinePathPatterns;
+    }
+
+    // Off by default: the /api endpoints are the limiter itself and must not be limited by it
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (inlinePathPatterns.length > 0) {
+            registry.addInterceptor(rateLimitingInterceptor)
+                    .addPathPatterns(inlinePathPatterns);
+        }
+    }
+}
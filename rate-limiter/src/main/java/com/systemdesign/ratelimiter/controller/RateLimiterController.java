@@ -3,24 +3,81 @@ package com.systemdesign.ratelimiter.controller;
 import com.systemdesign.ratelimiter.dto.RateLimiterHitResponse;
 import com.systemdesign.ratelimiter.dto.RateLimiterInitRequest;
 import com.systemdesign.ratelimiter.dto.RateLimiterInitResponse;
+import com.systemdesign.ratelimiter.enums.RateLimiterAlgoType;
+import com.systemdesign.ratelimiter.service.algorithm.BlockingRateLimiter;
+import com.systemdesign.ratelimiter.service.algorithm.ShapingRateLimiter;
+import com.systemdesign.ratelimiter.service.cluster.GossipCluster;
+import com.systemdesign.ratelimiter.service.cluster.OwnershipRing;
+import com.systemdesign.ratelimiter.service.cluster.RingMember;
 import com.systemdesign.ratelimiter.service.factory.RateLimiterFactory;
+import com.systemdesign.ratelimiter.service.guard.StoreGuards;
+import com.systemdesign.ratelimiter.service.inspection.StateInspector;
 import com.systemdesign.ratelimiter.service.algorithm.RateLimiter;
+import com.systemdesign.ratelimiter.service.policy.PolicyRegistry;
+import com.systemdesign.ratelimiter.service.policy.RateLimitPolicy;
+import com.systemdesign.ratelimiter.service.policy.RouteMatch;
+import com.systemdesign.ratelimiter.service.policy.ServletRequestAccessor;
+import com.systemdesign.ratelimiter.tracing.FlightRecordings;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @CrossOrigin(origins = "http://localhost:3000")
 @RestController
 @RequestMapping("/api")
 public class RateLimiterController {
 
-    // NOTE: single limiter for demo / visualizer
-    private volatile RateLimiter rateLimiter;
     private final RateLimiterFactory factory;
+    private final PolicyRegistry policyRegistry;
+    private final GossipCluster cluster;
+    private final OwnershipRing ring;
+    private final FlightRecordings recordings;
+    private final StateInspector inspector;
+    private final StoreGuards storeGuards;
+    private final JsonMapper mapper;
+    // trusted header naming the client (load tests, gateways), empty -> remote address
+    private final String clientIdHeader;
 
-    public RateLimiterController(RateLimiterFactory factory) {
+    public RateLimiterController(
+            RateLimiterFactory factory,
+            PolicyRegistry policyRegistry,
+            GossipCluster cluster,
+            OwnershipRing ring,
+            FlightRecordings recordings,
+            StateInspector inspector,
+            StoreGuards storeGuards,
+            JsonMapper mapper,
+            @Value("${ratelimiter.hit.client-id-header:}") String clientIdHeader
+    ) {
         this.factory = factory;
+        this.policyRegistry = policyRegistry;
+        this.cluster = cluster;
+        this.ring = ring;
+        this.recordings = recordings;
+        this.inspector = inspector;
+        this.storeGuards = storeGuards;
+        this.mapper = mapper;
+        this.clientIdHeader = clientIdHeader;
     }
 
     @PostMapping("/init")
@@ -29,7 +86,8 @@ public class RateLimiterController {
     ){
         try{
             System.out.println(request.getRefillRate());
-            this.rateLimiter = factory.createRateLimiter(request);
+            // NOTE: single unnamed limiter for demo / visualizer
+            policyRegistry.setDefaultLimiter(factory.createRateLimiter(request));
         } catch (Exception e) {
             System.out.println(e.getMessage());
             throw new RuntimeException(e);
@@ -48,14 +106,38 @@ public class RateLimiterController {
     // STEP 2: Fire request
     @GetMapping("/hit")
     //ResponseEntity<RateLimiterHitResponse>
-    public ResponseEntity<?> hit(HttpServletRequest httpRequest) {
+    public ResponseEntity<?> hit(
+            HttpServletRequest httpRequest,
+            @RequestParam(required = false) String policy
+    ) {
+
+        RateLimiter limiter = resolve(policy);
+        if (limiter == null) {
+            return badRequest(notFoundMessage(policy));
+        }
+
+        String clientId = clientId(httpRequest);
+        RateLimiterHitResponse response = limiter.hitEndpoint(clientId);
+
+        HttpStatus status = response.accepted()
+                ? HttpStatus.OK
+                : HttpStatus.TOO_MANY_REQUESTS;
+
+        return ResponseEntity.status(status).body(response);
+    }
 
-        if (rateLimiter == null) {
+    // Decision for another request, picked by the route table (method, path, headers).
+    // Meant for proxies: X-Original-Method / X-Original-URI describe the request being limited.
+    @GetMapping("/decide")
+    public ResponseEntity<?> decide(HttpServletRequest httpRequest) {
+
+        RouteMatch match = new RouteMatch();
+        if (!policyRegistry.match(httpRequest, ServletRequestAccessor.FORWARDED, match)) {
             return ResponseEntity
-                    .status(HttpStatus.BAD_REQUEST)
+                    .status(HttpStatus.NOT_FOUND)
                     .body(new RateLimiterHitResponse(
                             false,
-                            "Rate limiter not initialized",
+                            "No route matches",
                             System.currentTimeMillis(),
                             0,
                             0,
@@ -63,8 +145,42 @@ public class RateLimiterController {
                     ));
         }
 
-        String clientId = httpRequest.getRemoteAddr();
-        RateLimiterHitResponse response = rateLimiter.hitEndpoint(clientId);
+        RateLimiterHitResponse response = match.policy().limiter().hitEndpoint(match.key());
+
+        HttpStatus status = response.accepted()
+                ? HttpStatus.OK
+                : HttpStatus.TOO_MANY_REQUESTS;
+
+        return ResponseEntity.status(status)
+                .header("X-RateLimit-Policy", match.policy().name())
+                .body(response);
+    }
+
+    // Waits (up to timeoutMs) for capacity instead of answering 429 straight away.
+    // Only bucket algorithms support it, requests run on virtual threads so parked callers are cheap.
+    @GetMapping("/acquire")
+    public ResponseEntity<?> acquire(
+            HttpServletRequest httpRequest,
+            @RequestParam(defaultValue = "1") int permits,
+            @RequestParam(defaultValue = "1000") long timeoutMs,
+            @RequestParam(required = false) String policy
+    ) throws InterruptedException {
+
+        RateLimiter limiter = resolve(policy);
+        // waiting happens on this node, it is never forwarded to a key owner
+        RateLimiter local = limiter == null ? null : limiter.unwrap();
+        if (!(local instanceof BlockingRateLimiter blockingLimiter)) {
+            return badRequest(limiter == null
+                    ? notFoundMessage(policy)
+                    : "Algorithm does not support acquire");
+        }
+
+        String clientId = clientId(httpRequest);
+        RateLimiterHitResponse response = blockingLimiter.acquire(
+                clientId,
+                permits,
+                Duration.ofMillis(timeoutMs)
+        );
 
         HttpStatus status = response.accepted()
                 ? HttpStatus.OK
@@ -73,14 +189,250 @@ public class RateLimiterController {
         return ResponseEntity.status(status).body(response);
     }
 
+    // Queues the request and answers once the leaky bucket meters it out (constant rate per client).
+    // A request not released within timeoutMs leaves the queue and is answered 429.
+    @GetMapping("/shape")
+    public ResponseEntity<?> shape(
+            HttpServletRequest httpRequest,
+            @RequestParam(defaultValue = "30000") long timeoutMs,
+            @RequestParam(required = false) String policy
+    ) throws InterruptedException, ExecutionException {
+
+        RateLimiter limiter = resolve(policy);
+        RateLimiter local = limiter == null ? null : limiter.unwrap();
+        if (!(local instanceof ShapingRateLimiter shapingLimiter)) {
+            return badRequest(limiter == null
+                    ? notFoundMessage(policy)
+                    : "Algorithm does not support shaping");
+        }
+
+        String clientId = clientId(httpRequest);
+        CompletableFuture<RateLimiterHitResponse> queued = shapingLimiter.enqueue(clientId);
+        RateLimiterHitResponse response;
+        try {
+            response = queued.get(Math.max(0, timeoutMs), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // cancelling frees the queue slot
+            queued.cancel(false);
+            response = new RateLimiterHitResponse(
+                    false,
+                    "Not released within timeout",
+                    System.currentTimeMillis(),
+                    0,
+                    0,
+                    Map.of("timeoutMs", timeoutMs)
+            );
+        } catch (InterruptedException e) {
+            queued.cancel(false);
+            throw e;
+        }
+
+        HttpStatus status = response.accepted()
+                ? HttpStatus.OK
+                : HttpStatus.TOO_MANY_REQUESTS;
+
+        return ResponseEntity.status(status).body(response);
+    }
+
+    // Reports how a request that /hit let through went, feeds latency driven limiters.
+    @PostMapping("/complete")
+    public ResponseEntity<?> complete(
+            HttpServletRequest httpRequest,
+            @RequestParam long latencyMs,
+            @RequestParam(defaultValue = "true") boolean success,
+            @RequestParam(required = false) String policy
+    ) {
+
+        RateLimiter limiter = resolve(policy);
+        if (limiter == null) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+
+        String clientId = clientId(httpRequest);
+        limiter.onComplete(clientId, TimeUnit.MILLISECONDS.toNanos(latencyMs), success);
+        return ResponseEntity.ok().build();
+    }
+
+    // O(1) for in-memory state, prefix limits it to client keys starting with it
     @PostMapping("/reset")
-    public ResponseEntity<?> resetLimiter() {
+    public ResponseEntity<?> resetLimiter(
+            @RequestParam(required = false) String policy,
+            @RequestParam(required = false) String prefix
+    ) {
 
-        if (rateLimiter == null) {
+        RateLimiter limiter = resolve(policy);
+        if (limiter == null) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         }
 
-        rateLimiter.reset();
+        if (prefix == null) {
+            limiter.reset();
+        } else {
+            limiter.reset(prefix);
+        }
         return ResponseEntity.ok().build();
     }
+
+    @GetMapping("/policies")
+    public ResponseEntity<?> policies() {
+        Map<String, RateLimiterAlgoType> algorithms = new TreeMap<>();
+        for (RateLimitPolicy policy : policyRegistry.current().policies().values()) {
+            algorithms.put(policy.name(), policy.definition().getAlgorithm());
+        }
+        return ResponseEntity.ok(Map.of(
+                "version", policyRegistry.current().version(),
+                "policies", algorithms,
+                "routes", policyRegistry.current().routes().size()
+        ));
+    }
+
+    // Gossip traffic of this node, 404 when running without peers
+    @GetMapping("/cluster")
+    public ResponseEntity<?> cluster() {
+        if (cluster.node() == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        return ResponseEntity.ok(cluster.node().stats());
+    }
+
+    @GetMapping("/ring")
+    public ResponseEntity<?> ring() {
+        if (!ring.enabled()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        return ResponseEntity.ok(Map.of(
+                "nodeId", ring.nodeId(),
+                "shares", ring.ring().shares()
+        ));
+    }
+
+    // Replaces the member list (node joined / left), body: ["a@host:7070", "b@host:7071"]
+    @PutMapping("/ring")
+    public ResponseEntity<?> updateRing(@RequestBody List<String> members) {
+        if (!ring.enabled()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        List<RingMember> parsed = members.stream().map(RingMember::parse).toList();
+        ring.setMembers(parsed);
+        return ring();
+    }
+
+    // JFR recording with the decision / store events, settings: "default" or "profile"
+    @PostMapping("/recording/start")
+    public ResponseEntity<?> startRecording(
+            @RequestParam(defaultValue = "default") String settings,
+            @RequestParam(defaultValue = "0") long thresholdMs,
+            @RequestParam(defaultValue = "300") long maxSeconds
+    ) {
+        return ResponseEntity.ok(recordings.start(settings, thresholdMs, maxSeconds));
+    }
+
+    @PostMapping("/recording/stop")
+    public ResponseEntity<?> stopRecording() {
+        return ResponseEntity.ok(recordings.stop());
+    }
+
+    @GetMapping("/recording")
+    public ResponseEntity<?> recording() {
+        return ResponseEntity.ok(recordings.status());
+    }
+
+    // .jfr file for JDK Mission Control / `jfr print`, a snapshot while the recording still runs
+    @GetMapping("/recording/download")
+    public ResponseEntity<?> downloadRecording() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"rate-limiter.jfr\"")
+                .body(new FileSystemResource(recordings.download()));
+    }
+
+    // Tracked keys with their decoded state, one JSON object per line.
+    // limit > 0: one page in store order (segment, then key), the next one via the X-Next-Cursor header.
+    // limit = 0: every key in a single pass, unordered.
+    @GetMapping("/admin/keys")
+    public ResponseEntity<StreamingResponseBody> keys(
+            @RequestParam(required = false) String policy,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "1000") int limit,
+            @RequestParam(defaultValue = "false") boolean blocked,
+            @RequestParam(defaultValue = "0") double minUsage
+    ) {
+
+        RateLimiter limiter = resolve(policy);
+        if (limiter == null) {
+            throw new IllegalArgumentException(notFoundMessage(policy));
+        }
+        StateInspector.Filter filter = new StateInspector.Filter(blocked, minUsage);
+        MediaType ndjson = MediaType.parseMediaType("application/x-ndjson");
+
+        if (limit == 0) {
+            StreamingResponseBody body = out -> {
+                OutputStream buffered = new BufferedOutputStream(out);
+                inspector.stream(limiter, filter, state -> writeLine(buffered, state));
+                buffered.flush();
+            };
+            return ResponseEntity.ok().contentType(ndjson).body(body);
+        }
+
+        StateInspector.Page page = inspector.page(limiter, filter, cursor, limit);
+        StreamingResponseBody body = out -> {
+            OutputStream buffered = new BufferedOutputStream(out);
+            page.keys().forEach(state -> writeLine(buffered, state));
+            buffered.flush();
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(ndjson);
+        if (page.nextCursor() != null) {
+            response.header("X-Next-Cursor", page.nextCursor());
+        }
+        return response.body(body);
+    }
+
+    // Circuit state and fallback counts per limiter with a store latency budget, counters never reset
+    @GetMapping("/admin/store-guards")
+    public ResponseEntity<?> storeGuards() {
+        return ResponseEntity.ok(storeGuards.stats());
+    }
+
+    private void writeLine(OutputStream out, Object value) {
+        try {
+            out.write(mapper.writeValueAsBytes(value));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String clientId(HttpServletRequest httpRequest) {
+        if (!clientIdHeader.isEmpty()) {
+            String header = httpRequest.getHeader(clientIdHeader);
+            if (header != null && !header.isBlank()) {
+                return header;
+            }
+        }
+        return httpRequest.getRemoteAddr();
+    }
+
+    // No policy -> the limiter set up through /init, otherwise a named policy from the policy file
+    private RateLimiter resolve(String policy) {
+        return policyRegistry.resolve(policy);
+    }
+
+    private String notFoundMessage(String policy) {
+        return policy == null
+                ? "Rate limiter not initialized"
+                : "Unknown policy: " + policy;
+    }
+
+    private ResponseEntity<RateLimiterHitResponse> badRequest(String message) {
+        return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(new RateLimiterHitResponse(
+                        false,
+                        message,
+                        System.currentTimeMillis(),
+                        0,
+                        0,
+                        null
+                ));
+    }
 }
@@ -1,6 +1,8 @@
 package com.systemdesign.ratelimiter.exception;
 
 import com.systemdesign.ratelimiter.dto.RateLimiterInitResponse;
+import com.systemdesign.ratelimiter.tracing.RecordingStateException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -20,4 +22,18 @@ public class GlobalExceptionHandler {
                 )
         );
     }
+
+    // a JFR recording already running, or none to stop; other IllegalStateExceptions stay 500s
+    @ExceptionHandler(RecordingStateException.class)
+    public ResponseEntity<RateLimiterInitResponse> handleRecordingState(
+            RecordingStateException ex
+    ) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(
+                new RateLimiterInitResponse(
+                        false,
+                        ex.getMessage(),
+                        null
+                )
+        );
+    }
 }
@@ -0,0 +1,97 @@
+package com.systemdesign.ratelimiter.startup;
+
+import com.systemdesign.ratelimiter.dto.RateLimiterHitResponse;
+import com.systemdesign.ratelimiter.dto.RateLimiterInitRequest;
+import com.systemdesign.ratelimiter.enums.QuotaPeriod;
+import com.systemdesign.ratelimiter.enums.RateLimiterAlgoType;
+import com.systemdesign.ratelimiter.service.algorithm.RateLimiter;
+import com.systemdesign.ratelimiter.service.factory.RateLimiterFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+/*
+Runs the decision path of every algorithm before the web server starts, so the first real hits on
+a fresh replica don't pay for class loading, interpretation and JIT compilation.
+afterSingletonsInstantiated() runs before Tomcat binds its port: no request can arrive meanwhile.
+Each algorithm gets a throwaway limiter and store, decided on this node only (no gossip, no
+forwarding to key owners), so warm-up hits never show up in real state.
+Also runs during the AOT cache training run (-Dspring.context.exit=onRefresh exits after this),
+so the classes and profiles it touches end up in the cache.
+ */
+@Component
+public class WarmUp implements SmartInitializingSingleton {
+
+    private final RateLimiterFactory factory;
+    private final JsonMapper mapper;
+    // decisions per algorithm, 0 turns warm-up off
+    private final int iterations;
+    private final int keys;
+
+    public WarmUp(
+            RateLimiterFactory factory,
+            JsonMapper mapper,
+            @Value("${ratelimiter.warmup.iterations:10000}") int iterations,
+            @Value("${ratelimiter.warmup.keys:256}") int keys
+    ) {
+        if (iterations < 0) {
+            throw new IllegalArgumentException("ratelimiter.warmup.iterations must be >= 0");
+        }
+        if (keys <= 0) {
+            throw new IllegalArgumentException("ratelimiter.warmup.keys must be > 0");
+        }
+        this.factory = factory;
+        this.mapper = mapper;
+        this.iterations = iterations;
+        this.keys = keys;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (iterations == 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        long allowed = 0;
+
+        for (RateLimiterAlgoType algorithm : RateLimiterAlgoType.values()) {
+            RateLimiter limiter = factory.createLocalRateLimiter(request(algorithm), factory.newStore(algorithm));
+            for (int i = 0; i < iterations; i++) {
+                String key = "warmup-" + (i % keys);
+                RateLimiterHitResponse response = limiter.hitEndpoint(key);
+                if (response.accepted()) {
+                    allowed++;
+                    limiter.onComplete(key, 1_000_000, true);
+                }
+                // the /api/hit response body
+                mapper.writeValueAsBytes(response);
+            }
+            limiter.reset();
+        }
+
+        long total = (long) iterations * RateLimiterAlgoType.values().length;
+        System.out.println("Warm-up: " + total + " decisions (" + allowed + " allowed) in "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms, JVM up "
+                + ManagementFactory.getRuntimeMXBean().getUptime() + " ms");
+    }
+
+    // small limits, so the allowed and the rejected branch both get compiled
+    private static RateLimiterInitRequest request(RateLimiterAlgoType algorithm) {
+        RateLimiterInitRequest request = new RateLimiterInitRequest();
+        request.setAlgorithm(algorithm);
+        request.setMaxRequests(5);
+        request.setWindowSize(1L);
+        request.setBucketCapacity(5);
+        request.setRefillRate(5.0);
+        request.setLeakRate(5);
+        request.setInitialLimit(10);
+        request.setMinLimit(1);
+        request.setMaxLimit(100);
+        request.setPeriod(QuotaPeriod.DAY);
+        return request;
+    }
+}
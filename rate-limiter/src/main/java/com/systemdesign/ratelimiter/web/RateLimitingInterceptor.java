@@ -0,0 +1,24 @@
+package com.systemdesign.ratelimiter.web;
+
+import com.systemdesign.ratelimiter.service.policy.PolicyRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+// Spring MVC flavour of RateLimitingFilter, runs after handler mapping so it can be scoped by path pattern
+@Component
+public class RateLimitingInterceptor implements HandlerInterceptor {
+
+    private final PolicyRegistry registry;
+
+    public RateLimitingInterceptor(PolicyRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws Exception {
+        return ServletRateLimiting.admit(registry, request, response);
+    }
+}
@@ -0,0 +1,130 @@
+package com.systemdesign.ratelimiter.bench;
+
+import com.systemdesign.ratelimiter.model.TokenBucketConfig;
+import com.systemdesign.ratelimiter.service.algorithm.Batch.BucketColumns;
+import com.systemdesign.ratelimiter.service.algorithm.Batch.ScalarBucketKernel;
+import com.systemdesign.ratelimiter.service.algorithm.Batch.VectorBucketKernel;
+import com.systemdesign.ratelimiter.service.algorithm.TokenBucket.TokenBucketRateLimiter;
+import com.systemdesign.ratelimiter.store.InMemoryStores.InMemoryStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/*
+One hit for each of `keys` token buckets, per key through TokenBucketRateLimiter vs columnar batches.
+  perKey          hitEndpoint() per key: store.compute lambda, a TokenBucketState and a response each
+  columnsScalar   BucketColumns.decide(): key lookup, gather, scalar kernel, scatter
+  columnsVector   the same with the Vector API kernel
+  kernelScalar    decideAll(): the kernel alone, straight over the columns
+  kernelVector
+Every invocation makes DECISIONS decisions (DECISIONS / keys batches), scores are per decision.
+Run with src/test/scripts/bench_batch_kernel.sh
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class BucketBatchBenchmark {
+
+    private static final int DECISIONS = 65536;
+    private static final TokenBucketConfig CONFIG = new TokenBucketConfig(100, 50);
+
+    // a batch is every key once, in random order. 1024 keys stay in L1, 65536 don't
+    @Param({"1024", "65536"})
+    int keys;
+
+    private String[] batch;
+    private boolean[] allowed;
+    private double[] levels;
+    private TokenBucketRateLimiter limiter;
+    private BucketColumns scalarColumns;
+    private BucketColumns vectorColumns;
+
+    @Setup
+    public void setup() {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < keys; i++) {
+            ids.add("client-" + i);
+        }
+        Collections.shuffle(ids, new Random(42));
+        batch = ids.toArray(new String[0]);
+        allowed = new boolean[keys];
+        levels = new double[keys];
+
+        limiter = new TokenBucketRateLimiter(CONFIG, new InMemoryStore<>(), null);
+        scalarColumns = BucketColumns.tokenBucket(CONFIG, new ScalarBucketKernel());
+        vectorColumns = BucketColumns.tokenBucket(CONFIG, new VectorBucketKernel());
+
+        // every key known up front, the benchmarks measure decisions, not inserts
+        long now = System.currentTimeMillis();
+        for (String id : batch) {
+            limiter.hitEndpoint(id);
+        }
+        scalarColumns.decide(batch, keys, now, allowed, levels);
+        vectorColumns.decide(batch, keys, now, allowed, levels);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DECISIONS)
+    public void perKey(Blackhole blackhole) {
+        for (int b = 0; b < DECISIONS / keys; b++) {
+            for (String id : batch) {
+                blackhole.consume(limiter.hitEndpoint(id));
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DECISIONS)
+    public boolean[] columnsScalar() {
+        for (int b = 0; b < DECISIONS / keys; b++) {
+            scalarColumns.decide(batch, keys, System.currentTimeMillis(), allowed, levels);
+        }
+        return allowed;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DECISIONS)
+    public boolean[] columnsVector() {
+        for (int b = 0; b < DECISIONS / keys; b++) {
+            vectorColumns.decide(batch, keys, System.currentTimeMillis(), allowed, levels);
+        }
+        return allowed;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DECISIONS)
+    public boolean[] kernelScalar() {
+        for (int b = 0; b < DECISIONS / keys; b++) {
+            scalarColumns.decideAll(System.currentTimeMillis(), allowed);
+        }
+        return allowed;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DECISIONS)
+    public boolean[] kernelVector() {
+        for (int b = 0; b < DECISIONS / keys; b++) {
+            vectorColumns.decideAll(System.currentTimeMillis(), allowed);
+        }
+        return allowed;
+    }
+}
@@ -0,0 +1,113 @@
+package com.systemdesign.ratelimiter.bench;
+
+import com.systemdesign.ratelimiter.protocol.Decision;
+import com.systemdesign.ratelimiter.protocol.DecisionClient;
+import com.systemdesign.ratelimiter.protocol.DecisionFrames;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+Same decisions through /api/hit and through the binary protocol, against a running service
+started with ratelimiter.binary.port. Not a unit test, run it with src/test/scripts/bench_binary_protocol.sh
+
+args: [host] [httpPort] [binaryPort] [requests] [concurrency]
+ */
+public class DecisionProtocolBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int httpPort = args.length > 1 ? Integer.parseInt(args[1]) : 8080;
+        int binaryPort = args.length > 2 ? Integer.parseInt(args[2]) : 7070;
+        int requests = args.length > 3 ? Integer.parseInt(args[3]) : 200_000;
+        int concurrency = args.length > 4 ? Integer.parseInt(args[4]) : 64;
+
+        System.out.println("requests=" + requests + " concurrency=" + concurrency);
+
+        // warm both paths before measuring
+        rest(host, httpPort, requests / 10, concurrency);
+        binary(host, binaryPort, requests / 10, concurrency);
+
+        report("REST   /api/hit", rest(host, httpPort, requests, concurrency));
+        report("binary protocol", binary(host, binaryPort, requests, concurrency));
+    }
+
+    private record Run(int requests, long nanos, long latencyNanos, long allowed, long responseBytes) {
+    }
+
+    private static Run rest(String host, int port, int requests, int concurrency) throws Exception {
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://" + host + ":" + port + "/api/hit")).build();
+
+        Semaphore window = new Semaphore(concurrency);
+        LongAdder latency = new LongAdder();
+        LongAdder allowed = new LongAdder();
+        AtomicLong bytes = new AtomicLong();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            window.acquire();
+            long sent = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                    .whenComplete((response, error) -> {
+                        latency.add(System.nanoTime() - sent);
+                        if (response != null) {
+                            if (response.statusCode() == 200) {
+                                allowed.increment();
+                            }
+                            bytes.addAndGet(response.body().length());
+                        }
+                        window.release();
+                    });
+        }
+        window.acquire(concurrency);
+        return new Run(requests, System.nanoTime() - start, latency.sum(), allowed.sum(), bytes.get());
+    }
+
+    private static Run binary(String host, int port, int requests, int concurrency) throws Exception {
+        byte[] policy = new byte[0];
+        byte[] key = DecisionFrames.utf8("bench-client");
+
+        Semaphore window = new Semaphore(concurrency);
+        LongAdder latency = new LongAdder();
+        LongAdder allowed = new LongAdder();
+
+        try (DecisionClient client = new DecisionClient(new InetSocketAddress(host, port))) {
+            long start = System.nanoTime();
+            for (int i = 0; i < requests; i++) {
+                window.acquire();
+                long sent = System.nanoTime();
+                CompletableFuture<Decision> future = client.decide(policy, key, 1);
+                future.whenComplete((decision, error) -> {
+                    latency.add(System.nanoTime() - sent);
+                    if (decision != null && decision.allowed()) {
+                        allowed.increment();
+                    }
+                    window.release();
+                });
+            }
+            window.acquire(concurrency);
+            return new Run(requests, System.nanoTime() - start, latency.sum(), allowed.sum(),
+                    (long) requests * DecisionFrames.RESPONSE_SIZE);
+        }
+    }
+
+    private static void report(String name, Run run) {
+        double seconds = run.nanos / 1e9;
+        System.out.printf(
+                "%s: %.0f decisions/s, mean latency %.1f us, allowed %d, %.0f response bytes per decision%n",
+                name,
+                run.requests / seconds,
+                run.latencyNanos / 1e3 / run.requests,
+                run.allowed,
+                (double) run.responseBytes / run.requests
+        );
+    }
+}
@@ -0,0 +1,251 @@
+package com.systemdesign.ratelimiter.bench;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+Open model load generator for /api/hit against a running service.
+Requests are sent on a fixed schedule (rate per second) whether or not earlier ones came back,
+and latency is measured from the moment a request was *due*, so a stalled server shows up as
+latency instead of silently lowering the offered load (no coordinated omission).
+
+Runs every algorithm x key cardinality, keys go in X-Client-Id, so the service has to be started
+with ratelimiter.hit.client-id-header=X-Client-Id. Not a unit test, see src/test/scripts/load_test.sh
+
+system properties (all optional):
+  loadtest.url         http://localhost:8080
+  loadtest.rate        requests per second          (2000)
+  loadtest.duration    measured seconds per run     (20)
+  loadtest.warmup      unmeasured seconds per run   (5)
+  loadtest.algorithms  comma separated              (all but ADAPTIVE_CONCURRENCY)
+  loadtest.keys        key cardinalities            (1,1000,100000)
+  loadtest.output      directory for .hgrm files    (target/loadtest)
+ */
+public class HttpLoadTest {
+
+    // generous enough that most runs mix allowed and rejected hits
+    private static final Map<String, String> INIT_BODIES = new LinkedHashMap<>();
+
+    static {
+        INIT_BODIES.put("FIXED_WINDOW", "{\"maxRequests\": 100, \"windowSize\": 1}");
+        INIT_BODIES.put("TOKEN_BUCKET", "{\"bucketCapacity\": 100, \"refillRate\": 50}");
+        INIT_BODIES.put("SLIDING_WINDOW_LOG", "{\"maxRequests\": 100, \"windowSize\": 1}");
+        INIT_BODIES.put("SLIDING_WINDOW_COUNTER", "{\"maxRequests\": 100, \"windowSize\": 1}");
+        INIT_BODIES.put("SLIDING_WINDOW_BUCKETS", "{\"maxRequests\": 100, \"windowSize\": 1, \"subBuckets\": 10}");
+        INIT_BODIES.put("LEAKY_BUCKET", "{\"bucketCapacity\": 100, \"leakRate\": 50}");
+        // every allowed hit is reported back through /api/complete, not in the default list
+        INIT_BODIES.put("ADAPTIVE_CONCURRENCY", "{\"initialLimit\": 100, \"minLimit\": 10, \"maxLimit\": 1000}");
+    }
+
+    private record Result(
+            String algorithm,
+            int keys,
+            double throughput,
+            long allowed,
+            long rejected,
+            long errors,
+            Histogram latency
+    ) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = System.getProperty("loadtest.url", "http://localhost:8080");
+        int rate = Integer.getInteger("loadtest.rate", 2000);
+        int duration = Integer.getInteger("loadtest.duration", 20);
+        int warmup = Integer.getInteger("loadtest.warmup", 5);
+        List<String> algorithms = list(System.getProperty(
+                "loadtest.algorithms",
+                "FIXED_WINDOW,TOKEN_BUCKET,SLIDING_WINDOW_LOG,SLIDING_WINDOW_COUNTER,SLIDING_WINDOW_BUCKETS,LEAKY_BUCKET"
+        ));
+        List<String> keyCounts = list(System.getProperty("loadtest.keys", "1,1000,100000"));
+        Path output = Path.of(System.getProperty("loadtest.output", "target/loadtest"));
+        Files.createDirectories(output);
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        System.out.printf("target %s, %d req/s, %ds warmup + %ds per run%n", url, rate, warmup, duration);
+
+        List<Result> results = new ArrayList<>();
+        for (String algorithm : algorithms) {
+            String body = INIT_BODIES.get(algorithm);
+            if (body == null) {
+                throw new IllegalArgumentException("Unknown algorithm " + algorithm);
+            }
+            for (String keyCount : keyCounts) {
+                int keys = Integer.parseInt(keyCount);
+                init(client, url, algorithm, body);
+
+                run(client, url, algorithm, keys, rate, warmup, null);
+                Result result = run(client, url, algorithm, keys, rate, duration, output);
+                print(result);
+                results.add(result);
+            }
+        }
+
+        System.out.println();
+        System.out.printf("%-24s %8s %10s %9s %9s %9s %9s %8s%n",
+                "algorithm", "keys", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "errors");
+        for (Result r : results) {
+            System.out.printf("%-24s %8d %10.0f %9.2f %9.2f %9.2f %9.2f %8d%n",
+                    r.algorithm, r.keys, r.throughput,
+                    millis(r.latency.getValueAtPercentile(50)),
+                    millis(r.latency.getValueAtPercentile(99)),
+                    millis(r.latency.getValueAtPercentile(99.9)),
+                    millis(r.latency.getMaxValue()),
+                    r.errors);
+        }
+    }
+
+    private static void init(HttpClient client, String url, String algorithm, String body) throws Exception {
+        client.send(HttpRequest.newBuilder(URI.create(url + "/api/reset"))
+                        .POST(HttpRequest.BodyPublishers.noBody())
+                        .build(),
+                HttpResponse.BodyHandlers.discarding());
+
+        String json = "{\"algorithm\": \"" + algorithm + "\", " + body.substring(1);
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(url + "/api/init"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(json))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("init " + algorithm + " failed: " + response.body());
+        }
+    }
+
+    // output == null -> warmup, nothing reported
+    private static Result run(
+            HttpClient client,
+            String url,
+            String algorithm,
+            int keys,
+            int rate,
+            int seconds,
+            Path output
+    ) throws IOException, InterruptedException {
+
+        // auto-resizing: a latency past any fixed highest value must not throw on the client thread
+        Recorder recorder = new Recorder(3);
+        LongAdder allowed = new LongAdder();
+        LongAdder rejected = new LongAdder();
+        LongAdder errors = new LongAdder();
+        LongAdder outstanding = new LongAdder();
+
+        URI hit = URI.create(url + "/api/hit");
+        boolean reportCompletion = algorithm.equals("ADAPTIVE_CONCURRENCY");
+        long total = (long) rate * seconds;
+        long intervalNanos = 1_000_000_000L / rate;
+        long start = System.nanoTime();
+
+        for (long i = 0; i < total; i++) {
+            long due = start + i * intervalNanos;
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            // when behind schedule the request goes out now, but is still timed from `due`
+
+            String key = "load-" + (i % keys);
+            HttpRequest request = HttpRequest.newBuilder(hit)
+                    .header("X-Client-Id", key)
+                    .timeout(Duration.ofSeconds(30))
+                    .build();
+
+            outstanding.increment();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        // the wait loop below ends only once every request is counted down
+                        try {
+                            long latency = Math.max(0, System.nanoTime() - due);
+                            recorder.recordValue(latency);
+                            if (error != null || (response.statusCode() != 200 && response.statusCode() != 429)) {
+                                errors.increment();
+                            } else if (response.statusCode() == 200) {
+                                allowed.increment();
+                                if (reportCompletion) {
+                                    complete(client, url, key, latency);
+                                }
+                            } else {
+                                rejected.increment();
+                            }
+                        } finally {
+                            outstanding.decrement();
+                        }
+                    });
+        }
+
+        while (outstanding.sum() > 0) {
+            Thread.sleep(10);
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        Histogram latency = recorder.getIntervalHistogram();
+        if (output != null) {
+            try (PrintStream out = new PrintStream(Files.newOutputStream(
+                    output.resolve(algorithm + "-" + keys + "keys.hgrm")))) {
+                latency.outputPercentileDistribution(out, 1_000_000.0);
+            }
+        }
+        // answered decisions only, errors and timeouts are not throughput
+        return new Result(algorithm, keys, (allowed.sum() + rejected.sum()) / elapsedSeconds,
+                allowed.sum(), rejected.sum(), errors.sum(), latency);
+    }
+
+    // releases the in-flight slot, not part of the measured latency
+    private static void complete(HttpClient client, String url, String key, long latencyNanos) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(
+                        url + "/api/complete?latencyMs=" + TimeUnit.NANOSECONDS.toMillis(latencyNanos)))
+                .header("X-Client-Id", key)
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding());
+    }
+
+    private static void print(Result r) {
+        System.out.printf(
+                "%s, %d keys: %.0f req/s, allowed %d, rejected %d, errors %d, "
+                        + "p50 %.2f ms, p99 %.2f ms, p99.9 %.2f ms, max %.2f ms%n",
+                r.algorithm, r.keys, r.throughput, r.allowed, r.rejected, r.errors,
+                millis(r.latency.getValueAtPercentile(50)),
+                millis(r.latency.getValueAtPercentile(99)),
+                millis(r.latency.getValueAtPercentile(99.9)),
+                millis(r.latency.getMaxValue())
+        );
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static List<String> list(String value) {
+        List<String> result = new ArrayList<>();
+        for (String part : value.split(",")) {
+            if (!part.isBlank()) {
+                result.add(part.trim());
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,203 @@
+package com.systemdesign.ratelimiter.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+How fast a new replica becomes useful: starts the packaged service as a child process once per
+variant (a set of JVM options) and measures, from the moment the process is launched,
+  time to first decision    first /api/hit answered with 200 or 429
+  time to peak throughput   first 1s window reaching 90% of the best 1s window of the run
+Load is closed model (concurrency workers back to back), throughput per 100 ms slot.
+Not a unit test, see src/test/scripts/bench_startup.sh (needs ./mvnw -Paot-cache package first).
+
+system properties (all optional):
+  startup.jar          target/aot/rate-limiter-0.0.1-SNAPSHOT.jar
+  startup.variants     name=jvm options, ';' separated
+                       (cold=-Dratelimiter.warmup.iterations=0;warm=;warm+aot=-XX:AOTCache=target/aot/app.aot)
+  startup.runs         launches per variant        (3)
+  startup.seconds      seconds of load per launch  (15)
+  startup.concurrency  workers                     (32)
+  startup.port         port of the child process   (18080)
+ */
+public class StartupBenchmark {
+
+    private static final long SLOT_NANOS = 100_000_000L;
+    // a 1s window is this many slots
+    private static final int WINDOW_SLOTS = 10;
+    private static final double PEAK_SHARE = 0.9;
+
+    private record Run(long firstDecisionMillis, long peakMillis, double peakThroughput) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String jar = System.getProperty("startup.jar", "target/aot/rate-limiter-0.0.1-SNAPSHOT.jar");
+        Map<String, String> variants = variants(System.getProperty(
+                "startup.variants",
+                "cold=-Dratelimiter.warmup.iterations=0;warm=;warm+aot=-XX:AOTCache=target/aot/app.aot"
+        ));
+        int runs = Integer.getInteger("startup.runs", 3);
+        int seconds = Integer.getInteger("startup.seconds", 15);
+        int concurrency = Integer.getInteger("startup.concurrency", 32);
+        int port = Integer.getInteger("startup.port", 18080);
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(1))
+                .build();
+
+        Map<String, List<Run>> results = new LinkedHashMap<>();
+        for (Map.Entry<String, String> variant : variants.entrySet()) {
+            for (int i = 0; i < runs; i++) {
+                Run run = launch(client, jar, variant.getValue(), port, seconds, concurrency);
+                System.out.printf("%s #%d: first decision %d ms, peak %.0f req/s reached at %d ms%n",
+                        variant.getKey(), i + 1, run.firstDecisionMillis, run.peakThroughput, run.peakMillis);
+                results.computeIfAbsent(variant.getKey(), k -> new ArrayList<>()).add(run);
+            }
+        }
+
+        System.out.println();
+        System.out.printf("%-16s %22s %22s %14s%n", "variant", "first decision ms", "peak throughput ms", "peak req/s");
+        for (Map.Entry<String, List<Run>> entry : results.entrySet()) {
+            List<Run> list = entry.getValue();
+            System.out.printf("%-16s %22.0f %22.0f %14.0f%n",
+                    entry.getKey(),
+                    list.stream().mapToLong(Run::firstDecisionMillis).average().orElse(0),
+                    list.stream().mapToLong(Run::peakMillis).average().orElse(0),
+                    list.stream().mapToDouble(Run::peakThroughput).average().orElse(0));
+        }
+    }
+
+    private static Run launch(
+            HttpClient client,
+            String jar,
+            String jvmOptions,
+            int port,
+            int seconds,
+            int concurrency
+    ) throws Exception {
+
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + "/bin/java");
+        for (String option : jvmOptions.trim().split("\\s+")) {
+            if (!option.isEmpty()) {
+                command.add(option);
+            }
+        }
+        command.add("-jar");
+        command.add(jar);
+        command.add("--server.port=" + port);
+        command.add("--ratelimiter.hit.client-id-header=X-Client-Id");
+
+        String url = "http://localhost:" + port;
+        long launched = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(new File("target/startup-" + port + ".log"))
+                .start();
+        try {
+            // the first request that gets through is the /api/init, the decision right after it counts
+            while (!init(client, url)) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("service exited, see target/startup-" + port + ".log");
+                }
+                Thread.sleep(5);
+            }
+            send(client, url, "first");
+            long firstDecision = System.nanoTime() - launched;
+
+            AtomicLongArray slots = new AtomicLongArray((int) (seconds * 1_000_000_000L / SLOT_NANOS) + 1);
+            long loadStart = System.nanoTime();
+            long loadEnd = loadStart + seconds * 1_000_000_000L;
+            try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int w = 0; w < concurrency; w++) {
+                    int worker = w;
+                    workers.submit(() -> {
+                        long i = 0;
+                        while (System.nanoTime() < loadEnd) {
+                            send(client, url, "key-" + worker + "-" + (i++ % 64));
+                            // counted when answered, the last ones may land in the slot after loadEnd
+                            int slot = (int) ((System.nanoTime() - loadStart) / SLOT_NANOS);
+                            slots.incrementAndGet(Math.min(slot, slots.length() - 1));
+                        }
+                        return null;
+                    });
+                }
+            }
+
+            // best 1s window, then the first window that came within PEAK_SHARE of it
+            long[] windows = new long[slots.length() - WINDOW_SLOTS + 1];
+            long best = 0;
+            for (int i = 0; i < windows.length; i++) {
+                for (int j = 0; j < WINDOW_SLOTS; j++) {
+                    windows[i] += slots.get(i + j);
+                }
+                best = Math.max(best, windows[i]);
+            }
+            int peakWindow = 0;
+            while (windows[peakWindow] < best * PEAK_SHARE) {
+                peakWindow++;
+            }
+            // the window counts once it is complete
+            long peak = (loadStart - launched) + (peakWindow + WINDOW_SLOTS) * SLOT_NANOS;
+            return new Run(firstDecision / 1_000_000, peak / 1_000_000, best);
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static boolean init(HttpClient client, String url) throws InterruptedException {
+        try {
+            HttpResponse<Void> response = client.send(HttpRequest.newBuilder(URI.create(url + "/api/init"))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(
+                                    "{\"algorithm\": \"TOKEN_BUCKET\", \"bucketCapacity\": 100, \"refillRate\": 50}"))
+                            .build(),
+                    HttpResponse.BodyHandlers.discarding());
+            return response.statusCode() == 200;
+        } catch (IOException e) {
+            // not listening yet
+            return false;
+        }
+    }
+
+    private static void send(HttpClient client, String url, String key) throws Exception {
+        HttpResponse<Void> response = client.send(HttpRequest.newBuilder(URI.create(url + "/api/hit"))
+                        .header("X-Client-Id", key)
+                        .build(),
+                HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200 && response.statusCode() != 429) {
+            throw new IllegalStateException("/api/hit returned " + response.statusCode());
+        }
+    }
+
+    // "a=-Xfoo -Xbar;b=" -> {a: "-Xfoo -Xbar", b: ""}
+    private static Map<String, String> variants(String value) {
+        Map<String, String> result = new LinkedHashMap<>();
+        for (String part : value.split(";")) {
+            if (part.isBlank()) {
+                continue;
+            }
+            int eq = part.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("Invalid variant (expected name=options): " + part);
+            }
+            result.put(part.substring(0, eq).trim(), part.substring(eq + 1));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,113 @@
+package com.systemdesign.ratelimiter.bench;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.systemdesign.ratelimiter.model.TokenBucketConfig;
+import com.systemdesign.ratelimiter.service.algorithm.TokenBucket.TokenBucketRateLimiter;
+import com.systemdesign.ratelimiter.service.algorithm.TokenBucket.TokenBucketState;
+import com.systemdesign.ratelimiter.service.scheduler.HashedWheelTimer;
+import com.systemdesign.ratelimiter.store.InMemoryStores.InMemoryStore;
+import com.systemdesign.ratelimiter.store.OffHeapStores.OffHeapStore;
+import com.systemdesign.ratelimiter.store.OffHeapStores.TokenBucketStateCodec;
+import com.systemdesign.ratelimiter.store.RateLimiterStore;
+
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+Heap footprint and GC pauses of a token bucket limiter backed by InMemoryStore vs OffHeapStore.
+Fills `keys` keys, then hits random keys from several threads for `seconds` seconds.
+Not a unit test, run it with src/test/scripts/bench_offheap_store.sh (one JVM per store).
+
+args: [memory|offheap] [keys] [seconds] [threads]
+ */
+public class StoreGcBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        String type = args.length > 0 ? args[0] : "memory";
+        int keys = args.length > 1 ? Integer.parseInt(args[1]) : 5_000_000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+
+        RateLimiterStore<TokenBucketState> store = type.equals("offheap")
+                ? new OffHeapStore<>(new TokenBucketStateCodec())
+                : new InMemoryStore<>();
+
+        HashedWheelTimer timer = new HashedWheelTimer();
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(
+                new TokenBucketConfig(100, 10),
+                store,
+                timer
+        );
+
+        AtomicLong maxPauseMillis = new AtomicLong();
+        LongAdder pauses = new LongAdder();
+        LongAdder pauseMillis = new LongAdder();
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            ((NotificationEmitter) gc).addNotificationListener((notification, handback) -> {
+                if (!notification.getType().equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) {
+                    return;
+                }
+                GarbageCollectionNotificationInfo info =
+                        GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+                // concurrent cycles are not pauses
+                if (info.getGcName().contains("Cycles")) {
+                    return;
+                }
+                long duration = info.getGcInfo().getDuration();
+                pauses.increment();
+                pauseMillis.add(duration);
+                maxPauseMillis.accumulateAndGet(duration, Math::max);
+            }, null, null);
+        }
+
+        long fillStart = System.nanoTime();
+        for (int i = 0; i < keys; i++) {
+            limiter.hitEndpoint("client-" + i);
+        }
+        System.out.printf("%s: filled %d keys in %.1f s%n", type, keys, (System.nanoTime() - fillStart) / 1e9);
+
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        long heapAfterFill = runtime.totalMemory() - runtime.freeMemory();
+        long pausesAfterFill = pauses.sum();
+        long pauseMillisAfterFill = pauseMillis.sum();
+        maxPauseMillis.set(0);
+
+        LongAdder hits = new LongAdder();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = Thread.ofPlatform().start(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    for (int i = 0; i < 1000; i++) {
+                        limiter.hitEndpoint("client-" + random.nextInt(keys));
+                    }
+                    hits.add(1000);
+                }
+            });
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        System.out.printf("%s: heap used after fill + full GC: %d MB%n", type, heapAfterFill >> 20);
+        if (store instanceof OffHeapStore<?> offHeapStore) {
+            System.out.printf("%s: off-heap tables: %d MB for %d keys%n",
+                    type, offHeapStore.offHeapBytes() >> 20, offHeapStore.size());
+        }
+        System.out.printf("%s: %.0f hits/s over %d s%n", type, hits.sum() / (double) seconds, seconds);
+        System.out.printf("%s: GC pauses while serving: %d, total %d ms, max %d ms%n",
+                type,
+                pauses.sum() - pausesAfterFill,
+                pauseMillis.sum() - pauseMillisAfterFill,
+                maxPauseMillis.get());
+
+        timer.close();
+    }
+}
@@ -0,0 +1,49 @@
+package com.systemdesign.ratelimiter.exception;
+
+import com.systemdesign.ratelimiter.tracing.FlightRecordings;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class GlobalExceptionHandlerTests {
+
+	@RestController
+	static class Endpoints {
+
+		private final FlightRecordings recordings = new FlightRecordings();
+
+		@PostMapping("/recording/stop")
+		Object stop() {
+			return recordings.stop();
+		}
+
+		@PostMapping("/acquire")
+		Object acquire() {
+			throw new IllegalStateException("Acquire was cancelled");
+		}
+	}
+
+	private final MockMvc mvc = MockMvcBuilders.standaloneSetup(new Endpoints())
+			.setControllerAdvice(new GlobalExceptionHandler())
+			.build();
+
+	@Test
+	void onlyRecordingStateConflictsAreAnswered409() throws Exception {
+		mvc.perform(post("/recording/stop"))
+				.andExpect(status().isConflict())
+				.andExpect(jsonPath("$.message").value("No recording to stop"));
+
+		// not a client mistake, left to the default 500 handling
+		ServletException unhandled = assertThrows(ServletException.class, () -> mvc.perform(post("/acquire")));
+		assertInstanceOf(IllegalStateException.class, unhandled.getCause());
+	}
+}
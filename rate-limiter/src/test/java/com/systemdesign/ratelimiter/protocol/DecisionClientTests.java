@@ -0,0 +1,42 @@
+package com.systemdesign.ratelimiter.protocol;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DecisionClientTests {
+
+	// the connection is taken by the listen backlog but nothing ever reads or answers
+	@Test
+	void aRequestTheCallerGaveUpOnLeavesNothingInFlight() throws Exception {
+		try (ServerSocket silent = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+			 DecisionClient client = new DecisionClient(
+					 new InetSocketAddress(InetAddress.getLoopbackAddress(), silent.getLocalPort()), 1000)) {
+
+			CompletableFuture<Decision> timedOut = client.decide("", "client", 1).orTimeout(50, TimeUnit.MILLISECONDS);
+			ExecutionException e = assertThrows(ExecutionException.class, timedOut::get);
+			assertInstanceOf(TimeoutException.class, e.getCause());
+
+			CompletableFuture<Decision> cancelled = client.decide("", "client", 1);
+			cancelled.cancel(false);
+
+			long deadline = System.currentTimeMillis() + 5000;
+			while (client.pending() > 0 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(10);
+			}
+			assertEquals(0, client.pending());
+		}
+	}
+
+}
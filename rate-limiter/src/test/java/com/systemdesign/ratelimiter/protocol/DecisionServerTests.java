@@ -0,0 +1,247 @@
+package com.systemdesign.ratelimiter.protocol;
+
+import com.systemdesign.ratelimiter.dto.RateLimiterHitResponse;
+import com.systemdesign.ratelimiter.enums.StoreFallback;
+import com.systemdesign.ratelimiter.model.FixedWindowConfig;
+import com.systemdesign.ratelimiter.model.StoreBudgetConfig;
+import com.systemdesign.ratelimiter.service.algorithm.FixedWindow.FixedWindowRateLimiter;
+import com.systemdesign.ratelimiter.service.algorithm.RateLimiter;
+import com.systemdesign.ratelimiter.service.cluster.OwnershipRing;
+import com.systemdesign.ratelimiter.service.cluster.RingMember;
+import com.systemdesign.ratelimiter.service.guard.BudgetedRateLimiter;
+import com.systemdesign.ratelimiter.service.guard.StoreGuards;
+import com.systemdesign.ratelimiter.service.policy.PolicyRegistry;
+import com.systemdesign.ratelimiter.store.InMemoryStores.InMemoryStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DecisionServerTests {
+
+	private DecisionServer server;
+	private SocketChannel channel;
+	private OwnershipRing ring;
+	private StoreGuards guards;
+
+	// the /api/init limiter: two hits per hour per key
+	@BeforeEach
+	void start() throws IOException {
+		start(new FixedWindowRateLimiter(new FixedWindowConfig(2, 3600), new InMemoryStore<>()));
+	}
+
+	private void start(RateLimiter limiter) throws IOException {
+		if (server != null) {
+			channel.close();
+			server.stop();
+		}
+		PolicyRegistry registry = new PolicyRegistry(null);
+		registry.setDefaultLimiter(limiter);
+
+		int port;
+		try (ServerSocket free = new ServerSocket(0)) {
+			port = free.getLocalPort();
+		}
+		server = new DecisionServer(registry, port);
+		server.start();
+		channel = connect();
+	}
+
+	private SocketChannel connect() throws IOException {
+		return SocketChannel.open(new InetSocketAddress("localhost", server.port()));
+	}
+
+	@AfterEach
+	void stop() throws IOException {
+		channel.close();
+		server.stop();
+		if (ring != null) {
+			ring.stop();
+		}
+		if (guards != null) {
+			guards.close();
+		}
+	}
+
+	// stands in for a remote store: hits on "slow..." keys take two seconds
+	private static class SlowStoreLimiter implements RateLimiter {
+		@Override
+		public RateLimiterHitResponse hitEndpoint(String clientId) {
+			if (clientId.startsWith("slow")) {
+				try {
+					Thread.sleep(2_000);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			return new RateLimiterHitResponse(true, "ALLOWED", System.currentTimeMillis(), 0, 1, Map.of());
+		}
+
+		@Override
+		public void reset() {
+		}
+	}
+
+	// built by hand so the tests can send what DecisionFrames.writeRequest refuses to write
+	private static ByteBuffer frame(int requestId, int permits, String policy, byte[] key) {
+		byte[] policyBytes = DecisionFrames.utf8(policy);
+		ByteBuffer frame = ByteBuffer.allocate(4 + 4 + 2 + 1 + policyBytes.length + 2 + key.length);
+		frame.putInt(frame.capacity() - 4);
+		frame.putInt(requestId);
+		frame.putShort((short) permits);
+		frame.put((byte) policyBytes.length);
+		frame.put(policyBytes);
+		frame.putShort((short) key.length);
+		frame.put(key);
+		return frame.flip();
+	}
+
+	private static ByteBuffer frame(int requestId, String key) {
+		return frame(requestId, 1, "", DecisionFrames.utf8(key));
+	}
+
+	private void send(ByteBuffer... frames) throws IOException {
+		send(channel, frames);
+	}
+
+	private static void send(SocketChannel channel, ByteBuffer... frames) throws IOException {
+		int size = 0;
+		for (ByteBuffer frame : frames) {
+			size += frame.remaining();
+		}
+		ByteBuffer batch = ByteBuffer.allocate(size);
+		for (ByteBuffer frame : frames) {
+			batch.put(frame);
+		}
+		batch.flip();
+		while (batch.hasRemaining()) {
+			channel.write(batch);
+		}
+	}
+
+	private Decision receive() throws IOException {
+		return receive(channel);
+	}
+
+	private static Decision receive(SocketChannel channel) throws IOException {
+		ByteBuffer in = ByteBuffer.allocate(DecisionFrames.RESPONSE_SIZE);
+		while (in.hasRemaining()) {
+			if (channel.read(in) < 0) {
+				throw new IOException("connection closed");
+			}
+		}
+		return DecisionFrames.readResponse(in.flip());
+	}
+
+	private void assertDecision(int requestId, byte status, int remaining, Decision decision) {
+		assertEquals(requestId, decision.requestId());
+		assertEquals(status, decision.status());
+		assertEquals(remaining, decision.remainingHits());
+	}
+
+	@Test
+	void pipelinedFramesAreAnsweredInOrder() throws IOException {
+		send(frame(7, "client"), frame(8, "client"), frame(9, "client"), frame(10, "other"));
+
+		assertDecision(7, DecisionFrames.ALLOWED, 1, receive());
+		assertDecision(8, DecisionFrames.ALLOWED, 0, receive());
+		Decision rejected = receive();
+		assertDecision(9, DecisionFrames.REJECTED, 0, rejected);
+		assertTrue(rejected.retryAfter() > 0);
+		assertDecision(10, DecisionFrames.ALLOWED, 1, receive());
+	}
+
+	@Test
+	void aFrameSplitAcrossReadsIsReassembled() throws IOException, InterruptedException {
+		ByteBuffer whole = frame(1, "client");
+		ByteBuffer head = whole.slice(0, 5);
+		ByteBuffer tail = whole.slice(5, whole.remaining() - 5);
+
+		send(head);
+		// let the server see the partial frame on its own
+		Thread.sleep(50);
+		send(tail, frame(2, "client"));
+
+		assertDecision(1, DecisionFrames.ALLOWED, 1, receive());
+		assertDecision(2, DecisionFrames.ALLOWED, 0, receive());
+	}
+
+	@Test
+	void badRequestsGetAStatusAndTheConnectionStaysUp() throws IOException {
+		send(
+				frame(1, 1, "no-such-policy", DecisionFrames.utf8("client")),
+				frame(2, 0, "", DecisionFrames.utf8("client")),
+				frame(3, 2, "", DecisionFrames.utf8("client")),
+				frame(4, "client")
+		);
+
+		assertDecision(1, DecisionFrames.UNKNOWN_POLICY, 0, receive());
+		assertDecision(2, DecisionFrames.ERROR, 0, receive());
+		// fixed window only counts single hits
+		assertDecision(3, DecisionFrames.UNSUPPORTED, 0, receive());
+		assertDecision(4, DecisionFrames.ALLOWED, 1, receive());
+	}
+
+	@Test
+	void anOversizedKeyIsAnErrorNotADroppedConnection() throws IOException {
+		// fits the frame length limit because the policy is empty
+		byte[] key = new byte[DecisionFrames.MAX_KEY_LENGTH + 100];
+		send(frame(1, 1, "", key), frame(2, "client"));
+
+		assertDecision(1, DecisionFrames.ERROR, 0, receive());
+		assertDecision(2, DecisionFrames.ALLOWED, 1, receive());
+	}
+
+	@Test
+	void aSlowDecisionDoesNotHoldUpOtherConnections() throws IOException {
+		start(new SlowStoreLimiter());
+		try (SocketChannel other = connect()) {
+			send(frame(1, "slow-client"));
+			long start = System.nanoTime();
+			send(other, frame(2, "client"));
+
+			assertDecision(2, DecisionFrames.ALLOWED, 1, receive(other));
+			assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1_000);
+			// and the slow one still gets its answer
+			assertDecision(1, DecisionFrames.ALLOWED, 1, receive());
+		}
+	}
+
+	// forwarded hits land here through the routing layer, only that layer is skipped
+	@Test
+	void decisionsKeepTheStoreBudgetBehindTheRing() throws IOException {
+		ring = new OwnershipRing("self", "", 128, 1.25, 500);
+		ring.setMembers(List.of(new RingMember("self", new InetSocketAddress("localhost", 1))));
+		guards = new StoreGuards(0, StoreFallback.FAIL_CLOSED, 5, 60_000);
+		RateLimiter budgeted = new BudgetedRateLimiter(new SlowStoreLimiter(), null,
+				new StoreBudgetConfig(50, StoreFallback.FAIL_CLOSED, 5, 60_000), guards.guard("test"), guards.executor());
+		start(ring.route("", budgeted));
+
+		long start = System.nanoTime();
+		send(frame(1, "slow-client"), frame(2, "client"));
+
+		assertDecision(1, DecisionFrames.REJECTED, 0, receive());
+		assertDecision(2, DecisionFrames.ALLOWED, 1, receive());
+		assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1_000);
+	}
+
+	@Test
+	void aBrokenFrameLengthClosesTheConnection() throws IOException {
+		ByteBuffer bad = ByteBuffer.allocate(8).putInt(1).putInt(0).flip();
+		send(bad);
+
+		ByteBuffer in = ByteBuffer.allocate(DecisionFrames.RESPONSE_SIZE);
+		assertEquals(-1, channel.read(in));
+	}
+}
@@ -0,0 +1,83 @@
+package com.systemdesign.ratelimiter.service.algorithm.AdaptiveConcurrency;
+
+import com.systemdesign.ratelimiter.model.AdaptiveConcurrencyConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyRateLimiterTests {
+
+	private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+	private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+	private static int limit(AdaptiveConcurrencyRateLimiter limiter) {
+		return (int) limiter.hitEndpoint("probe").metadata().get("limit");
+	}
+
+	// fills the current limit, then completes every admitted request with the same latency
+	private static void round(AdaptiveConcurrencyRateLimiter limiter, long latencyNanos, boolean success) {
+		int admitted = 0;
+		while (limiter.hitEndpoint("client").accepted()) {
+			admitted++;
+		}
+		for (int i = 0; i < admitted; i++) {
+			limiter.onComplete("client", latencyNanos, success);
+		}
+	}
+
+	@Test
+	void steadyLatencyUnderFullLoadGrowsTheLimit() {
+		AdaptiveConcurrencyRateLimiter limiter =
+				new AdaptiveConcurrencyRateLimiter(new AdaptiveConcurrencyConfig(10, 1, 100));
+		for (int i = 0; i < 20; i++) {
+			round(limiter, FAST, true);
+		}
+		assertTrue(limit(limiter) > 20, "limit " + limit(limiter));
+	}
+
+	@Test
+	void risingLatencyShrinksTheLimitByTheGradient() {
+		AdaptiveConcurrencyRateLimiter limiter =
+				new AdaptiveConcurrencyRateLimiter(new AdaptiveConcurrencyConfig(50, 1, 100));
+		round(limiter, FAST, true);
+		int before = limit(limiter);
+		limiter.onComplete("probe", FAST, true);
+
+		for (int i = 0; i < 5; i++) {
+			round(limiter, SLOW, true);
+		}
+		assertTrue(limit(limiter) < before / 2, before + " -> " + limit(limiter));
+	}
+
+	@Test
+	void failuresCutTheLimitMultiplicatively() {
+		AdaptiveConcurrencyRateLimiter limiter =
+				new AdaptiveConcurrencyRateLimiter(new AdaptiveConcurrencyConfig(40, 1, 100));
+		limiter.hitEndpoint("client");
+		limiter.onComplete("client", FAST, false);
+		assertEquals(36, limit(limiter));
+	}
+
+	@Test
+	void resetKeepsCountingRequestsStillInFlight() {
+		AdaptiveConcurrencyRateLimiter limiter =
+				new AdaptiveConcurrencyRateLimiter(new AdaptiveConcurrencyConfig(2, 1, 2));
+		assertTrue(limiter.hitEndpoint("client").accepted());
+		assertTrue(limiter.hitEndpoint("client").accepted());
+
+		limiter.reset();
+		assertFalse(limiter.hitEndpoint("client").accepted());
+
+		// completions of the two admitted before the reset free exactly two slots
+		limiter.onComplete("client", FAST, true);
+		limiter.onComplete("client", FAST, true);
+		limiter.onComplete("client", FAST, true);
+		assertTrue(limiter.hitEndpoint("client").accepted());
+		assertTrue(limiter.hitEndpoint("client").accepted());
+		assertFalse(limiter.hitEndpoint("client").accepted());
+	}
+}
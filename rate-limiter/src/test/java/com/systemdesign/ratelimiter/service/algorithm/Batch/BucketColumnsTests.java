@@ -0,0 +1,96 @@
+package com.systemdesign.ratelimiter.service.algorithm.Batch;
+
+import com.systemdesign.ratelimiter.dto.RateLimiterHitResponse;
+import com.systemdesign.ratelimiter.model.TokenBucketConfig;
+import com.systemdesign.ratelimiter.service.algorithm.TokenBucket.TokenBucketRateLimiter;
+import com.systemdesign.ratelimiter.store.InMemoryStores.InMemoryStore;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class BucketColumnsTests {
+
+	@Test
+	void tokenBucketColumnsDecideLikeTheRateLimiter() {
+		TokenBucketConfig config = new TokenBucketConfig(3, 2.5);
+		TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(config, new InMemoryStore<>(), null);
+		BucketColumns columns = BucketColumns.tokenBucket(config, new ScalarBucketKernel());
+
+		Random random = new Random(7);
+		boolean[] allowed = new boolean[1];
+		double[] levels = new double[1];
+		for (int i = 0; i < 2_000; i++) {
+			String key = "k" + random.nextInt(5);
+			RateLimiterHitResponse response = limiter.hitEndpoint(key);
+			columns.decide(new String[] {key}, 1, response.timestamp(), allowed, levels);
+
+			assertEquals(response.accepted(), allowed[0]);
+			assertEquals((double) response.metadata().get("tokensRemaining"), levels[0]);
+		}
+	}
+
+	@Test
+	void repeatedKeysInOneBatchSeeEachOther() {
+		BucketColumns batched = new BucketColumns(2, 1, BucketKernel.best());
+		BucketColumns oneByOne = new BucketColumns(2, 1, new ScalarBucketKernel());
+
+		String[] keys = {"a", "b", "a", "a", "c", "b", "a"};
+		boolean[] allowed = new boolean[keys.length];
+		double[] levels = new double[keys.length];
+		batched.decide(keys, keys.length, 1_000, allowed, levels);
+
+		boolean[] single = new boolean[1];
+		double[] level = new double[1];
+		for (int i = 0; i < keys.length; i++) {
+			oneByOne.decide(new String[] {keys[i]}, 1, 1_000, single, level);
+			assertEquals(single[0], allowed[i], "hit " + i);
+			assertEquals(level[0], levels[i], "hit " + i);
+		}
+		// a: 2 of 4 allowed, b: both, c: one
+		assertArrayEquals(new boolean[] {true, true, true, false, true, true, false}, allowed);
+	}
+
+	@Test
+	void vectorKernelMatchesScalarBitForBit() {
+		assumeTrue(ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent(),
+				"needs --add-modules jdk.incubator.vector");
+
+		Random random = new Random(11);
+		// not a multiple of any vector length, the tail goes through the scalar loop
+		int count = 1_003;
+		double[] levels = new double[count];
+		long[] stamps = new long[count];
+		for (int i = 0; i < count; i++) {
+			levels[i] = random.nextDouble() * 10;
+			stamps[i] = 1_000_000 - random.nextInt(5_000);
+		}
+		double[] vectorLevels = levels.clone();
+		long[] vectorStamps = stamps.clone();
+
+		boolean[] scalarAllowed = new boolean[count];
+		boolean[] vectorAllowed = new boolean[count];
+		new ScalarBucketKernel().decide(levels, stamps, count, 1_000_000, 10, 0.7, scalarAllowed);
+		new VectorBucketKernel().decide(vectorLevels, vectorStamps, count, 1_000_000, 10, 0.7, vectorAllowed);
+
+		assertArrayEquals(scalarAllowed, vectorAllowed);
+		assertArrayEquals(levels, vectorLevels);
+		assertArrayEquals(stamps, vectorStamps);
+		// both branches were taken
+		assertTrue(containsBoth(scalarAllowed));
+	}
+
+	private static boolean containsBoth(boolean[] values) {
+		boolean any = false;
+		boolean none = false;
+		for (boolean value : values) {
+			any |= value;
+			none |= !value;
+		}
+		return any && none;
+	}
+}
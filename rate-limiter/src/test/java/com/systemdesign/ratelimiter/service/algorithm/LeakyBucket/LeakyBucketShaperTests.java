@@ -0,0 +1,72 @@
+package com.systemdesign.ratelimiter.service.algorithm.LeakyBucket;
+
+import com.systemdesign.ratelimiter.dto.RateLimiterHitResponse;
+import com.systemdesign.ratelimiter.model.LeakyBucketConfig;
+import com.systemdesign.ratelimiter.service.scheduler.HashedWheelTimer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LeakyBucketShaperTests {
+
+	// remembers every drain the shaper puts on the wheel
+	private static class RecordingTimer extends HashedWheelTimer {
+		final List<Timeout> scheduled = new CopyOnWriteArrayList<>();
+
+		@Override
+		public Timeout schedule(Runnable task, long delayMillis) {
+			Timeout timeout = super.schedule(task, delayMillis);
+			scheduled.add(timeout);
+			return timeout;
+		}
+	}
+
+	private final RecordingTimer timer = new RecordingTimer();
+
+	@AfterEach
+	void close() {
+		timer.close();
+	}
+
+	@Test
+	void cancelledWaitersStopTakingCapacity() {
+		// one release a minute: nothing leaks out during the test
+		LeakyBucketShaper shaper = new LeakyBucketShaper(new LeakyBucketConfig(2, 1.0 / 60), timer);
+
+		assertTrue(shaper.enqueue("client").join().accepted());
+		CompletableFuture<RateLimiterHitResponse> first = shaper.enqueue("client");
+		CompletableFuture<RateLimiterHitResponse> second = shaper.enqueue("client");
+		assertFalse(first.isDone());
+		assertFalse(second.isDone());
+		assertFalse(shaper.enqueue("client").join().accepted());
+
+		first.cancel(false);
+		CompletableFuture<RateLimiterHitResponse> third = shaper.enqueue("client");
+		assertFalse(third.isDone());
+	}
+
+	@Test
+	void resetCancelsThePendingDrain() {
+		LeakyBucketShaper shaper = new LeakyBucketShaper(new LeakyBucketConfig(5, 1.0 / 60), timer);
+
+		shaper.enqueue("client");
+		CompletableFuture<RateLimiterHitResponse> queued = shaper.enqueue("client");
+		assertEquals(1, timer.scheduled.size());
+
+		shaper.reset("");
+		assertFalse(queued.join().accepted());
+		assertTrue(timer.scheduled.get(0).isCancelled());
+
+		// the next queue gets a drain of its own
+		shaper.enqueue("client");
+		assertEquals(2, timer.scheduled.size());
+		assertFalse(timer.scheduled.get(1).isCancelled());
+	}
+}
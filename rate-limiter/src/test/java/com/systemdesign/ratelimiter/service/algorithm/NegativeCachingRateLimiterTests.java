@@ -0,0 +1,107 @@
+package com.systemdesign.ratelimiter.service.algorithm;
+
+import com.systemdesign.ratelimiter.dto.RateLimiterHitResponse;
+import com.systemdesign.ratelimiter.model.FixedWindowConfig;
+import com.systemdesign.ratelimiter.service.algorithm.FixedWindow.FixedWindowRateLimiter;
+import com.systemdesign.ratelimiter.store.InMemoryStores.InMemoryStore;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NegativeCachingRateLimiterTests {
+
+	// rejects with a fixed retryAfter and counts how often it was asked
+	private static class Rejecting implements RateLimiter {
+		int calls;
+		long retryAfter;
+		boolean allow;
+
+		@Override
+		public RateLimiterHitResponse hitEndpoint(String clientId) {
+			calls++;
+			return new RateLimiterHitResponse(allow, allow ? "ok" : "blocked",
+					System.currentTimeMillis(), allow ? 0 : retryAfter, 0, Map.of());
+		}
+
+		@Override
+		public void reset() {
+			allow = true;
+		}
+	}
+
+	@Test
+	void repeatOffenderIsRejectedWithoutAskingTheAlgorithm() {
+		Rejecting delegate = new Rejecting();
+		delegate.retryAfter = 30;
+		RateLimiter limiter = new NegativeCachingRateLimiter(delegate, 16);
+
+		assertFalse(limiter.hitEndpoint("bot").accepted());
+		for (int i = 0; i < 100; i++) {
+			RateLimiterHitResponse response = limiter.hitEndpoint("bot");
+			assertFalse(response.accepted());
+			assertTrue(response.retryAfter() >= 29 && response.retryAfter() <= 30, "retryAfter " + response.retryAfter());
+		}
+		assertEquals(1, delegate.calls);
+
+		// other clients still reach the algorithm
+		limiter.hitEndpoint("someone-else");
+		assertEquals(2, delegate.calls);
+	}
+
+	@Test
+	void waitsOfUpToASecondAreNotCached() {
+		Rejecting delegate = new Rejecting();
+		delegate.retryAfter = 1;
+		RateLimiter limiter = new NegativeCachingRateLimiter(delegate, 16);
+
+		limiter.hitEndpoint("bot");
+		limiter.hitEndpoint("bot");
+		assertEquals(2, delegate.calls);
+	}
+
+	@Test
+	void twoSecondWaitsAreCachedForTheFirstSecond() {
+		Rejecting delegate = new Rejecting();
+		delegate.retryAfter = 2;
+		RateLimiter limiter = new NegativeCachingRateLimiter(delegate, 16);
+
+		limiter.hitEndpoint("bot");
+		RateLimiterHitResponse cached = limiter.hitEndpoint("bot");
+		assertEquals(1, delegate.calls);
+		assertEquals(true, cached.metadata().get("cached"));
+		assertTrue(cached.retryAfter() >= 1 && cached.retryAfter() <= 2, "retryAfter " + cached.retryAfter());
+	}
+
+	// the frontend reads the algorithm fields of every response, cached ones included
+	@Test
+	void cachedRejectionsKeepTheAlgorithmMetadata() {
+		FixedWindowRateLimiter delegate = new FixedWindowRateLimiter(new FixedWindowConfig(1, 3600), new InMemoryStore<>());
+		RateLimiter limiter = new NegativeCachingRateLimiter(delegate, 16);
+
+		limiter.hitEndpoint("bot");
+		RateLimiterHitResponse rejected = limiter.hitEndpoint("bot");
+		RateLimiterHitResponse cached = limiter.hitEndpoint("bot");
+
+		assertFalse(cached.accepted());
+		assertEquals(true, cached.metadata().get("cached"));
+		assertEquals(rejected.metadata().get("currentCount"), cached.metadata().get("currentCount"));
+		assertEquals(rejected.metadata().get("windowStart"), cached.metadata().get("windowStart"));
+	}
+
+	@Test
+	void resetInvalidatesEveryEntry() {
+		Rejecting delegate = new Rejecting();
+		delegate.retryAfter = 30;
+		RateLimiter limiter = new NegativeCachingRateLimiter(delegate, 16);
+
+		limiter.hitEndpoint("bot");
+		limiter.reset();
+
+		assertTrue(limiter.hitEndpoint("bot").accepted());
+		assertEquals(2, delegate.calls);
+	}
+}
@@ -0,0 +1,44 @@
+package com.systemdesign.ratelimiter.service.algorithm.Quota;
+
+import com.systemdesign.ratelimiter.enums.QuotaPeriod;
+import com.systemdesign.ratelimiter.model.QuotaConfig;
+import com.systemdesign.ratelimiter.store.InMemoryStores.InMemoryStore;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class QuotaRateLimiterTests {
+
+	private static long used(QuotaRateLimiter limiter, String clientId) {
+		return ((Number) limiter.hitEndpoint(clientId).metadata().get("used")).longValue();
+	}
+
+	// counts from a period that started inside the new current one carry over, older ones start at 0
+	@Test
+	void changingThePeriodKeepsOnlyCountsThatFallInsideTheNewOne() {
+		long today = QuotaPeriod.DAY.start(System.currentTimeMillis());
+		InMemoryStore<QuotaState> store = new InMemoryStore<>();
+
+		QuotaRateLimiter daily = new QuotaRateLimiter(new QuotaConfig(100, QuotaPeriod.DAY), store);
+		for (int i = 0; i < 3; i++) {
+			daily.hitEndpoint("day-to-month");
+		}
+		QuotaRateLimiter monthly = new QuotaRateLimiter(new QuotaConfig(100, QuotaPeriod.MONTH), store);
+		monthly.migrateFrom(daily);
+		long carried = used(monthly, "day-to-month");
+
+		// month counts as MONTH -> DAY sees them: one from a month that started today, one from before
+		store.compute("month-started-today", (id, state) -> new QuotaState(5, today));
+		store.compute("month-started-earlier", (id, state) -> new QuotaState(5, today - 86_400_000L));
+		QuotaRateLimiter dailyAgain = new QuotaRateLimiter(new QuotaConfig(100, QuotaPeriod.DAY), store);
+		dailyAgain.migrateFrom(monthly);
+		long startedToday = used(dailyAgain, "month-started-today");
+		long startedEarlier = used(dailyAgain, "month-started-earlier");
+
+		assumeTrue(today == QuotaPeriod.DAY.start(System.currentTimeMillis()), "crossed midnight");
+		assertEquals(4, carried);
+		assertEquals(6, startedToday);
+		assertEquals(1, startedEarlier);
+	}
+}
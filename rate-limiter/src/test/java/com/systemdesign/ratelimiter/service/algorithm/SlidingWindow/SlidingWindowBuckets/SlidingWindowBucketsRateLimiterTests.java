@@ -0,0 +1,123 @@
+package com.systemdesign.ratelimiter.service.algorithm.SlidingWindow.SlidingWindowBuckets;
+
+import com.systemdesign.ratelimiter.dto.RateLimiterHitResponse;
+import com.systemdesign.ratelimiter.model.SlidingWindowBucketsConfig;
+import com.systemdesign.ratelimiter.store.InMemoryStores.InMemoryStore;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class SlidingWindowBucketsRateLimiterTests {
+
+	// an hour in 4 slices of 15 minutes
+	private static final long WINDOW_MS = 3_600_000;
+	private static final int SUB_BUCKETS = 4;
+	private static final long BUCKET_MS = WINDOW_MS / SUB_BUCKETS;
+
+	private final InMemoryStore<SlidingWindowBucketsState> store = new InMemoryStore<>();
+	private final SlidingWindowBucketsRateLimiter limiter = new SlidingWindowBucketsRateLimiter(
+			new SlidingWindowBucketsConfig(10, WINDOW_MS / 1000, SUB_BUCKETS), store);
+
+	// counts[i] goes to bucket head - SUB_BUCKETS + i, the last one is the current bucket
+	private void seed(String key, long head, int... counts) {
+		SlidingWindowBucketsState state = new SlidingWindowBucketsState(SUB_BUCKETS, WINDOW_MS, head);
+		for (int i = 0; i < counts.length; i++) {
+			state.counts[state.slot(head - SUB_BUCKETS + i)] = counts[i];
+			state.total += counts[i];
+		}
+		store.compute(key, (id, old) -> state);
+	}
+
+	private static long currentBucket() {
+		return Math.floorDiv(System.currentTimeMillis() * SUB_BUCKETS, WINDOW_MS);
+	}
+
+	// the seeded state and the limiter must agree on the current slice, a boundary in between makes the test moot
+	private static void assumeSameBucket(long bucket) {
+		assumeTrue(currentBucket() == bucket, "crossed a slice boundary");
+	}
+
+	@Test
+	void advanceClearsTheSlotsThatLeftTheRing() {
+		SlidingWindowBucketsState state = new SlidingWindowBucketsState(SUB_BUCKETS, WINDOW_MS, 100);
+		for (long bucket = 96; bucket <= 100; bucket++) {
+			state.counts[state.slot(bucket)] = (int) (bucket - 95);
+			state.total += (int) (bucket - 95);
+		}
+		assertEquals(1, state.oldestCount());
+
+		state.advance(102);
+		// 96 and 97 are gone, 98 is the partly covered one now
+		assertEquals(15 - 1 - 2, state.total());
+		assertEquals(3, state.oldestCount());
+
+		// time going back never moves the head
+		state.advance(90);
+		assertEquals(102, state.headBucket);
+		assertEquals(12, state.total());
+
+		state.advance(102 + SUB_BUCKETS + 1);
+		assertEquals(0, state.total());
+		assertArrayEquals(new int[SUB_BUCKETS + 1], state.counts);
+	}
+
+	@Test
+	void theOldestSliceOnlyCountsForThePartStillInTheWindow() {
+		long now = System.currentTimeMillis();
+		long bucket = currentBucket();
+		double elapsed = (double) (now * SUB_BUCKETS - bucket * WINDOW_MS) / WINDOW_MS;
+		seed("client", bucket, 6, 0, 0, 0, 1);
+
+		RateLimiterHitResponse response = limiter.hitEndpoint("client");
+		assumeSameBucket(bucket);
+		assertTrue(response.accepted());
+		double expected = 1 + 6 * (1 - elapsed) + 1;
+		assertEquals(expected, (double) response.metadata().get("estimatedCount"), 0.01);
+		assertEquals(2, response.metadata().get("currentBucketCount"));
+	}
+
+	@Test
+	void retryAfterWaitsForTheOldestFullSliceToFadeEnough() {
+		long bucket = currentBucket();
+		// full: 6 in the oldest full slice, 4 in the current one, nothing partly covered
+		seed("client", bucket, 0, 6, 0, 0, 4);
+
+		long now = System.currentTimeMillis();
+		RateLimiterHitResponse response = limiter.hitEndpoint("client");
+		assumeSameBucket(bucket);
+		assertFalse(response.accepted());
+		assertEquals(10.0, (double) response.metadata().get("estimatedCount"), 1e-9);
+
+		// one hit frees up once a sixth of the 6-count slice has slid out, a slice after this one starts
+		long expectedMillis = (bucket + 1) * BUCKET_MS - now + BUCKET_MS / 6;
+		assertEquals(Math.ceil(expectedMillis / 1000.0), response.retryAfter(), 1);
+	}
+
+	@Test
+	void aReshapedPolicyCarriesTheOldTotalOver() {
+		long bucket = Math.floorDiv(System.currentTimeMillis() * 2, WINDOW_MS);
+		SlidingWindowBucketsState twoSlices = new SlidingWindowBucketsState(2, WINDOW_MS, bucket);
+		twoSlices.counts[twoSlices.slot(bucket)] = 9;
+		twoSlices.total = 9;
+		store.compute("client", (id, old) -> twoSlices);
+
+		// the carried 9 lands in the current slice, so the second hit is refused on either side of a boundary
+		assertTrue(limiter.hitEndpoint("client").accepted());
+		assertFalse(limiter.hitEndpoint("client").accepted());
+	}
+
+	@Test
+	void estimateNeverLetsMoreThanTheLimitThroughInOneSlice() {
+		int accepted = 0;
+		for (int i = 0; i < 25; i++) {
+			if (limiter.hitEndpoint("client").accepted()) {
+				accepted++;
+			}
+		}
+		assertEquals(10, accepted);
+	}
+}
@@ -0,0 +1,83 @@
+package com.systemdesign.ratelimiter.service.algorithm.TokenBucket;
+
+import com.systemdesign.ratelimiter.dto.RateLimiterHitResponse;
+import com.systemdesign.ratelimiter.model.TokenBucketConfig;
+import com.systemdesign.ratelimiter.service.scheduler.HashedWheelTimer;
+import com.systemdesign.ratelimiter.store.InMemoryStores.InMemoryStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketRateLimiterTests {
+
+	private static final int KEYS = 5_000;
+	// refill is negligible over the test
+	private static final double RATE = 0.0001;
+
+	private final HashedWheelTimer timer = new HashedWheelTimer();
+
+	@AfterEach
+	void close() {
+		timer.close();
+	}
+
+	@Test
+	void migrationKeepsTheFillRatioWhileOldLimiterHitsRaceIt() throws InterruptedException {
+		InMemoryStore<TokenBucketState> store = new InMemoryStore<>();
+		TokenBucketRateLimiter old = new TokenBucketRateLimiter(new TokenBucketConfig(100, RATE), store, timer);
+		TokenBucketRateLimiter next = new TokenBucketRateLimiter(new TokenBucketConfig(10, RATE), store, timer);
+
+		// accepted hits per key, split by the capacity that decided them
+		AtomicIntegerArray oldAccepted = new AtomicIntegerArray(KEYS);
+		AtomicIntegerArray newAccepted = new AtomicIntegerArray(KEYS);
+		AtomicLong hits = new AtomicLong();
+		long budget = KEYS * 40L;
+
+		// callers that still hold the old table keep hitting the old limiter throughout
+		List<Thread> callers = new ArrayList<>();
+		for (int t = 0; t < 4; t++) {
+			callers.add(Thread.ofPlatform().start(() -> {
+				while (hits.incrementAndGet() < budget) {
+					int key = ThreadLocalRandom.current().nextInt(KEYS);
+					count(old.hitEndpoint("client-" + key), key, oldAccepted, newAccepted);
+				}
+			}));
+		}
+		while (hits.get() < budget / 2) {
+			Thread.onSpinWait();
+		}
+		next.migrateFrom(old);
+		for (Thread caller : callers) {
+			caller.join();
+		}
+
+		for (int key = 0; key < KEYS; key++) {
+			RateLimiterHitResponse response;
+			while ((response = next.hitEndpoint("client-" + key)).accepted()) {
+				count(response, key, oldAccepted, newAccepted);
+			}
+			// a lost rescale refills to the new capacity, a double one leaves almost nothing
+			double used = oldAccepted.get(key) / 100.0 + newAccepted.get(key) / 10.0;
+			assertTrue(used > 0.899 && used < 1.001,
+					"client-" + key + ": " + oldAccepted.get(key) + " old + " + newAccepted.get(key) + " new");
+		}
+	}
+
+	private static void count(RateLimiterHitResponse response, int key, AtomicIntegerArray old, AtomicIntegerArray next) {
+		if (!response.accepted()) {
+			return;
+		}
+		if ((int) response.metadata().get("bucketCapacity") == 100) {
+			old.incrementAndGet(key);
+		} else {
+			next.incrementAndGet(key);
+		}
+	}
+}
@@ -0,0 +1,144 @@
+package com.systemdesign.ratelimiter.service.cluster;
+
+import com.systemdesign.ratelimiter.model.FixedWindowConfig;
+import com.systemdesign.ratelimiter.service.algorithm.FixedWindow.FixedWindowRateLimiter;
+import com.systemdesign.ratelimiter.store.InMemoryStores.InMemoryStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// Three in-process nodes gossiping over loopback
+class GossipNodeTests {
+
+	private static final int MAX_REQUESTS = 30;
+
+	private final List<GossipNode> nodes = new ArrayList<>();
+	private final List<FixedWindowRateLimiter> limiters = new ArrayList<>();
+
+	@BeforeEach
+	void startCluster() throws IOException {
+		for (int i = 0; i < 3; i++) {
+			nodes.add(new GossipNode("node-" + i, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 20));
+		}
+		for (GossipNode node : nodes) {
+			List<InetSocketAddress> peers = new ArrayList<>();
+			for (GossipNode other : nodes) {
+				if (other != node) {
+					peers.add(other.localAddress());
+				}
+			}
+			node.setPeers(peers);
+			node.start();
+			// an hour long window, tests that run across a boundary are skipped (see sameWindow)
+			limiters.add(new FixedWindowRateLimiter(
+					new FixedWindowConfig(MAX_REQUESTS, 3600),
+					new InMemoryStore<>(),
+					node.counters("orders")
+			));
+		}
+	}
+
+	@AfterEach
+	void stopCluster() throws IOException {
+		for (GossipNode node : nodes) {
+			node.close();
+		}
+	}
+
+	@Test
+	void nodesConvergeOnTheClusterWideCount() {
+		String key = key();
+		for (FixedWindowRateLimiter limiter : limiters) {
+			for (int i = 0; i < 10; i++) {
+				assertTrue(limiter.hitEndpoint("client").accepted());
+			}
+		}
+		sameWindow(key);
+
+		awaitTrue(() -> nodes.stream().allMatch(node -> node.value(key) == MAX_REQUESTS));
+
+		// the window is used up on every node, not just on the one that took the hits
+		List<Boolean> accepted = new ArrayList<>();
+		for (FixedWindowRateLimiter limiter : limiters) {
+			accepted.add(limiter.hitEndpoint("client").accepted());
+		}
+		sameWindow(key);
+		assertEquals(List.of(false, false, false), accepted);
+
+		GossipStats stats = nodes.get(0).stats();
+		assertEquals(2, stats.peers());
+		assertTrue(stats.bytesSent() > 0);
+		assertTrue(stats.bytesPerKeyPerSecond() > 0);
+	}
+
+	@Test
+	void resetOnOneNodeIsReplicatedAsDecrements() {
+		String key = key();
+		for (FixedWindowRateLimiter limiter : limiters) {
+			for (int i = 0; i < 10; i++) {
+				limiter.hitEndpoint("client");
+			}
+		}
+		sameWindow(key);
+		awaitTrue(() -> nodes.stream().allMatch(node -> node.value(key) == MAX_REQUESTS));
+
+		limiters.get(0).reset();
+
+		awaitTrue(() -> nodes.stream().allMatch(node -> node.value(key) == 20));
+		assertTrue(limiters.get(1).hitEndpoint("client").accepted());
+		sameWindow(key);
+	}
+
+	@Test
+	void clientIdTooLongToGossipIsCountedLocally() {
+		String key = key();
+		String clientId = "c".repeat(400);
+		for (int i = 0; i < MAX_REQUESTS; i++) {
+			assertTrue(limiters.get(0).hitEndpoint(clientId).accepted());
+		}
+		boolean overLimit = limiters.get(0).hitEndpoint(clientId).accepted();
+		sameWindow(key);
+		assertFalse(overLimit);
+		// nothing went out, the other nodes still have the whole window for it
+		assertTrue(limiters.get(1).hitEndpoint(clientId).accepted());
+		assertEquals(0, nodes.get(0).stats().keys());
+	}
+
+	// hits on both sides of a window boundary count against different keys, nothing to check then
+	private void sameWindow(String key) {
+		assumeTrue(key.equals(key()), "crossed a window boundary");
+	}
+
+	private String key() {
+		long windowSizeMs = 3600 * 1000L;
+		long now = System.currentTimeMillis();
+		return nodes.get(0).counters("orders").key("client", now - Math.floorMod(now, windowSizeMs));
+	}
+
+	private static void awaitTrue(BooleanSupplier condition) {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (!condition.getAsBoolean()) {
+			if (System.currentTimeMillis() > deadline) {
+				throw new AssertionError("cluster did not converge in time");
+			}
+			try {
+				Thread.sleep(10);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new AssertionError(e);
+			}
+		}
+	}
+}
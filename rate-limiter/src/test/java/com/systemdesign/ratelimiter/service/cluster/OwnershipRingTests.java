@@ -0,0 +1,171 @@
+package com.systemdesign.ratelimiter.service.cluster;
+
+import com.systemdesign.ratelimiter.dto.RateLimiterHitResponse;
+import com.systemdesign.ratelimiter.dto.RateLimiterInitRequest;
+import com.systemdesign.ratelimiter.enums.RateLimiterAlgoType;
+import com.systemdesign.ratelimiter.model.FixedWindowConfig;
+import com.systemdesign.ratelimiter.protocol.DecisionServer;
+import com.systemdesign.ratelimiter.service.algorithm.FixedWindow.FixedWindowRateLimiter;
+import com.systemdesign.ratelimiter.service.algorithm.RateLimiter;
+import com.systemdesign.ratelimiter.service.factory.RateLimiterFactory;
+import com.systemdesign.ratelimiter.service.policy.PolicyRegistry;
+import com.systemdesign.ratelimiter.store.InMemoryStores.InMemoryStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OwnershipRingTests {
+
+	private final List<DecisionServer> servers = new ArrayList<>();
+	private final List<OwnershipRing> rings = new ArrayList<>();
+
+	@AfterEach
+	void stopNodes() throws IOException {
+		for (DecisionServer server : servers) {
+			server.stop();
+		}
+		for (OwnershipRing ring : rings) {
+			ring.stop();
+		}
+	}
+
+	@Test
+	void joinMovesOnlyTheNewMembersShareAndLoadStaysBounded() {
+		List<RingMember> three = List.of(member("a", 1), member("b", 2), member("c", 3));
+		List<RingMember> four = List.of(member("a", 1), member("b", 2), member("c", 3), member("d", 4));
+		HashRing before = HashRing.build(three, 128, 1.25);
+		HashRing after = HashRing.build(four, 128, 1.25);
+
+		int keys = 20_000;
+		int moved = 0;
+		for (int i = 0; i < keys; i++) {
+			String key = "client-" + i;
+			if (!before.owner(key).equals(after.owner(key))) {
+				moved++;
+			}
+		}
+		// ideal is 1/4, bounded load reassignments add a little on top
+		assertTrue(moved < keys * 0.35, "moved " + moved);
+
+		for (double share : after.shares().values()) {
+			assertTrue(share <= 1.25 / 4 + 1e-9, "share " + share);
+		}
+	}
+
+	@Test
+	void everyNodeEnforcesTheSameLimitThroughTheKeyOwner() throws IOException {
+		List<RingMember> members = new ArrayList<>();
+		List<PolicyRegistry> registries = new ArrayList<>();
+
+		for (int i = 0; i < 3; i++) {
+			String nodeId = "node-" + i;
+			int port = freePort();
+			OwnershipRing ring = new OwnershipRing(nodeId, "", 128, 1.25, 2000);
+			RateLimiterFactory factory = RateLimiterFactory.builder().ring(ring).build();
+			PolicyRegistry registry = new PolicyRegistry(factory);
+
+			RateLimiterInitRequest request = new RateLimiterInitRequest();
+			request.setAlgorithm(RateLimiterAlgoType.FIXED_WINDOW);
+			request.setMaxRequests(10);
+			request.setWindowSize(3600L);
+			registry.setDefaultLimiter(factory.createRateLimiter("", request, new InMemoryStore<>()));
+
+			DecisionServer server = new DecisionServer(registry, port);
+			server.start();
+
+			rings.add(ring);
+			servers.add(server);
+			registries.add(registry);
+			members.add(new RingMember(nodeId, new InetSocketAddress("localhost", port)));
+		}
+		for (OwnershipRing ring : rings) {
+			ring.setMembers(members);
+		}
+
+		int forwarded = 0;
+		for (int k = 0; k < 6; k++) {
+			String clientId = "client-" + k;
+			int allowed = 0;
+			// 30 hits per key spread over all nodes, like a round robin load balancer
+			for (int i = 0; i < 30; i++) {
+				RateLimiter limiter = registries.get(i % 3).resolve("");
+				var response = limiter.hitEndpoint(clientId);
+				if (response.accepted()) {
+					allowed++;
+				}
+				Map<String, Object> metadata = response.metadata();
+				if (metadata != null && metadata.containsKey("owner")) {
+					forwarded++;
+				}
+			}
+			assertEquals(10, allowed, clientId);
+		}
+		assertTrue(forwarded > 0);
+	}
+
+	@Test
+	void hitsForAnOwnerThatCannotBeReachedAreDecidedLocallyWithoutWaitingForTheConnect() throws IOException {
+		// backlog of one: the first two connects are queued, the next one hangs on SYN retries
+		List<Socket> queued = new ArrayList<>();
+		try (ServerSocket full = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+			for (int i = 0; i < 2; i++) {
+				Socket socket = new Socket();
+				socket.connect(full.getLocalSocketAddress(), 1000);
+				queued.add(socket);
+			}
+
+			OwnershipRing ring = new OwnershipRing("near", "", 128, 1.25, 200);
+			rings.add(ring);
+			ring.setMembers(List.of(
+					member("near", freePort()),
+					new RingMember("far", new InetSocketAddress(InetAddress.getLoopbackAddress(), full.getLocalPort()))
+			));
+			String clientId = IntStream.range(0, 1000).mapToObj(i -> "client-" + i)
+					.filter(key -> ring.remoteOwner(key) != null)
+					.findFirst().orElseThrow();
+			RateLimiter limiter = ring.route("", new FixedWindowRateLimiter(new FixedWindowConfig(5, 3600), new InMemoryStore<>()));
+
+			int allowed = assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+				int accepted = 0;
+				for (int i = 0; i < 6; i++) {
+					RateLimiterHitResponse response = limiter.hitEndpoint(clientId);
+					assertFalse(response.metadata() != null && response.metadata().containsKey("owner"));
+					if (response.accepted()) {
+						accepted++;
+					}
+				}
+				return accepted;
+			});
+			assertEquals(5, allowed);
+		} finally {
+			for (Socket socket : queued) {
+				socket.close();
+			}
+		}
+	}
+
+	private static RingMember member(String id, int port) {
+		return new RingMember(id, new InetSocketAddress("localhost", port));
+	}
+
+	private static int freePort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+}
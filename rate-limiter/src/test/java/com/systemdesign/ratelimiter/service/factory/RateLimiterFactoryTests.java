@@ -0,0 +1,32 @@
+package com.systemdesign.ratelimiter.service.factory;
+
+import com.systemdesign.ratelimiter.dto.RateLimiterInitRequest;
+import com.systemdesign.ratelimiter.enums.QuotaPeriod;
+import com.systemdesign.ratelimiter.enums.RateLimiterAlgoType;
+import com.systemdesign.ratelimiter.store.InMemoryStores.InMemoryStore;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimiterFactoryTests {
+
+	private static RateLimiterInitRequest quota() {
+		RateLimiterInitRequest request = new RateLimiterInitRequest();
+		request.setAlgorithm(RateLimiterAlgoType.QUOTA);
+		request.setMaxRequests(5);
+		request.setPeriod(QuotaPeriod.DAY);
+		return request;
+	}
+
+	@Test
+	void quotaWithoutQuotaStoresIsABadRequestNotANullPointer() {
+		RateLimiterFactory factory = RateLimiterFactory.builder().build();
+
+		assertThrows(IllegalArgumentException.class, () -> factory.createRateLimiter(quota()));
+		assertThrows(IllegalArgumentException.class, () -> factory.newStore("monthly", RateLimiterAlgoType.QUOTA));
+
+		// a store handed in by the caller still works
+		assertTrue(factory.createRateLimiter("monthly", quota(), new InMemoryStore<>()).hitEndpoint("client").accepted());
+	}
+}
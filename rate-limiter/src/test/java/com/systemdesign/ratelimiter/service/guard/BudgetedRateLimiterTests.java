@@ -0,0 +1,161 @@
+package com.systemdesign.ratelimiter.service.guard;
+
+import com.systemdesign.ratelimiter.dto.RateLimiterHitResponse;
+import com.systemdesign.ratelimiter.enums.StoreFallback;
+import com.systemdesign.ratelimiter.model.FixedWindowConfig;
+import com.systemdesign.ratelimiter.model.StoreBudgetConfig;
+import com.systemdesign.ratelimiter.service.algorithm.FixedWindow.FixedWindowRateLimiter;
+import com.systemdesign.ratelimiter.service.algorithm.RateLimiter;
+import com.systemdesign.ratelimiter.store.InMemoryStores.InMemoryStore;
+import com.systemdesign.ratelimiter.tracing.TracingRateLimiter;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BudgetedRateLimiterTests {
+
+	private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+	// stands in for a remote store: every decision takes delayMillis
+	private static class SlowStoreLimiter implements RateLimiter {
+		final AtomicInteger calls = new AtomicInteger();
+		volatile long delayMillis;
+
+		@Override
+		public RateLimiterHitResponse hitEndpoint(String clientId) {
+			calls.incrementAndGet();
+			try {
+				Thread.sleep(delayMillis);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return new RateLimiterHitResponse(true, "ALLOWED", System.currentTimeMillis(), 0, 1, Map.of());
+		}
+
+		@Override
+		public void reset() {
+		}
+	}
+
+	@AfterEach
+	void shutdown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	void aStalledStoreFailsClosedWithinTheBudgetAndOpensTheCircuit() {
+		SlowStoreLimiter store = new SlowStoreLimiter();
+		store.delayMillis = 5_000;
+		StoreGuard guard = new StoreGuard("test");
+		RateLimiter limiter = new BudgetedRateLimiter(
+				store, null, new StoreBudgetConfig(20, StoreFallback.FAIL_CLOSED, 3, 60_000), guard, executor);
+
+		long start = System.nanoTime();
+		for (int i = 0; i < 3; i++) {
+			RateLimiterHitResponse response = limiter.hitEndpoint("client");
+			assertFalse(response.accepted());
+			assertEquals("timeout", response.metadata().get("reason"));
+		}
+		assertTrue((System.nanoTime() - start) / 1_000_000 < 2_000);
+		assertEquals(StoreGuard.State.OPEN, guard.state(System.currentTimeMillis()));
+
+		// open: answered without touching the store
+		RateLimiterHitResponse response = limiter.hitEndpoint("client");
+		assertEquals("circuit open", response.metadata().get("reason"));
+		assertEquals(3, store.calls.get());
+
+		StoreGuardStats stats = guard.stats();
+		assertEquals(3, stats.timeouts());
+		assertEquals(1, stats.shortCircuited());
+		assertEquals(4, stats.failClosed());
+		assertEquals(1, stats.opened());
+	}
+
+	@Test
+	void localFallbackDecidesOnItsOwnStateAndAProbeClosesTheCircuit() throws InterruptedException {
+		SlowStoreLimiter store = new SlowStoreLimiter();
+		store.delayMillis = 5_000;
+		StoreGuard guard = new StoreGuard("test");
+		RateLimiter local = new FixedWindowRateLimiter(new FixedWindowConfig(2, 3600), new InMemoryStore<>());
+		RateLimiter limiter = new BudgetedRateLimiter(
+				store, local, new StoreBudgetConfig(20, StoreFallback.LOCAL, 1, 100), guard, executor);
+
+		assertTrue(limiter.hitEndpoint("client").accepted());
+		assertTrue(limiter.hitEndpoint("client").accepted());
+		RateLimiterHitResponse third = limiter.hitEndpoint("client");
+		assertFalse(third.accepted());
+		assertEquals(StoreFallback.LOCAL, third.metadata().get("fallback"));
+
+		store.delayMillis = 0;
+		Thread.sleep(150);
+		assertEquals(StoreGuard.State.HALF_OPEN, guard.state(System.currentTimeMillis()));
+		RateLimiterHitResponse probe = limiter.hitEndpoint("client");
+		assertTrue(probe.accepted());
+		assertEquals("ALLOWED", probe.message());
+		assertEquals(StoreGuard.State.CLOSED, guard.state(System.currentTimeMillis()));
+		assertEquals(3, guard.stats().local());
+	}
+
+	@Test
+	void aShutDownExecutorAnswersFromTheFallback() {
+		SlowStoreLimiter store = new SlowStoreLimiter();
+		StoreGuard guard = new StoreGuard("test");
+		ExecutorService stopped = Executors.newVirtualThreadPerTaskExecutor();
+		stopped.shutdown();
+		RateLimiter limiter = new BudgetedRateLimiter(
+				store, null, new StoreBudgetConfig(20, StoreFallback.FAIL_OPEN, 1, 60_000), guard, stopped);
+
+		RateLimiterHitResponse response = limiter.hitEndpoint("client");
+		assertTrue(response.accepted());
+		assertEquals("rejected", response.metadata().get("reason"));
+		assertEquals(0, store.calls.get());
+		// not the store's fault, the circuit stays closed
+		assertEquals(StoreGuard.State.CLOSED, guard.state(System.currentTimeMillis()));
+	}
+
+	@Test
+	void storeCallsOnTheExecutorCountInTheDecisionEvent() throws IOException {
+		RateLimiter budgeted = new BudgetedRateLimiter(
+				new FixedWindowRateLimiter(new FixedWindowConfig(2, 3600), new InMemoryStore<>()),
+				null,
+				new StoreBudgetConfig(1_000, StoreFallback.FAIL_OPEN, 3, 60_000),
+				new StoreGuard("test"),
+				executor
+		);
+		RateLimiter limiter = new TracingRateLimiter("test", "FIXED_WINDOW", budgeted);
+
+		Path file = Files.createTempFile("budgeted-", ".jfr");
+		try (Recording recording = new Recording()) {
+			recording.enable("ratelimiter.Decision").withoutThreshold();
+			recording.enable("ratelimiter.StoreCompute").withoutThreshold();
+			recording.start();
+			assertTrue(limiter.hitEndpoint("client").accepted());
+			recording.stop();
+			recording.dump(file);
+
+			List<RecordedEvent> decisions = RecordingFile.readAllEvents(file).stream()
+					.filter(event -> event.getEventType().getName().equals("ratelimiter.Decision"))
+					.toList();
+			assertEquals(1, decisions.size());
+			assertEquals(1, decisions.getFirst().getInt("storeOperations"));
+			assertTrue(decisions.getFirst().getDuration("storeDuration").toNanos() > 0);
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+}
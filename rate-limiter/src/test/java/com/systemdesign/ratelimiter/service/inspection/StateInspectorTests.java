@@ -0,0 +1,126 @@
+package com.systemdesign.ratelimiter.service.inspection;
+
+import com.systemdesign.ratelimiter.dto.KeyState;
+import com.systemdesign.ratelimiter.dto.RateLimiterHitResponse;
+import com.systemdesign.ratelimiter.model.SlidingWindowConfig;
+import com.systemdesign.ratelimiter.model.TokenBucketConfig;
+import com.systemdesign.ratelimiter.service.algorithm.RateLimiter;
+import com.systemdesign.ratelimiter.service.algorithm.SlidingWindow.SlidingWindowLog.SlidingWindowLogRateLimiter;
+import com.systemdesign.ratelimiter.service.algorithm.TokenBucket.TokenBucketRateLimiter;
+import com.systemdesign.ratelimiter.store.InMemoryStores.InMemoryStore;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StateInspectorTests {
+
+	private final StateInspector inspector = new StateInspector();
+
+	// 10 segments of 100 keys, remembers which segments were walked
+	private static class Segmented implements RateLimiter {
+		final List<Integer> walked = new ArrayList<>();
+
+		@Override
+		public RateLimiterHitResponse hitEndpoint(String clientId) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void reset() {
+		}
+
+		@Override
+		public int inspectSegments() {
+			return 10;
+		}
+
+		@Override
+		public void inspect(int segment, Consumer<KeyState> sink) {
+			walked.add(segment);
+			for (int i = 0; i < 100; i++) {
+				sink.accept(new KeyState(segment + "-" + (1000 + i), 0, false, Map.of()));
+			}
+		}
+	}
+
+	@Test
+	void pagesVisitEveryKeyExactlyOnce() {
+		TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(
+				new TokenBucketConfig(10, 1), new InMemoryStore<>(), null);
+		for (int i = 0; i < 2_500; i++) {
+			limiter.hitEndpoint("client-" + i);
+		}
+
+		Set<String> seen = new HashSet<>();
+		String cursor = null;
+		int pages = 0;
+		do {
+			StateInspector.Page page = inspector.page(limiter, StateInspector.Filter.ALL, cursor, 1_000);
+			for (KeyState state : page.keys()) {
+				assertTrue(seen.add(state.key()), "twice: " + state.key());
+			}
+			cursor = page.nextCursor();
+			pages++;
+		} while (cursor != null);
+
+		assertEquals(2_500, seen.size());
+		assertEquals(3, pages);
+	}
+
+	@Test
+	void blockedFilterOnlyReturnsExhaustedKeys() {
+		TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(
+				new TokenBucketConfig(2, 0.001), new InMemoryStore<>(), null);
+		limiter.hitEndpoint("quiet");
+		for (int i = 0; i < 3; i++) {
+			limiter.hitEndpoint("noisy");
+		}
+
+		StateInspector.Page page = inspector.page(limiter, new StateInspector.Filter(true, 0), null, 10);
+		assertEquals(1, page.keys().size());
+		assertEquals("noisy", page.keys().getFirst().key());
+		assertNull(page.nextCursor());
+	}
+
+	@Test
+	void aPageResumesAtTheCursorSegmentAndStopsOnceFull() {
+		Segmented limiter = new Segmented();
+
+		StateInspector.Page first = inspector.page(limiter, StateInspector.Filter.ALL, null, 150);
+		assertEquals(List.of(0, 1), limiter.walked);
+		assertEquals("0-1000", first.keys().getFirst().key());
+		assertEquals("1-1049", first.keys().getLast().key());
+
+		limiter.walked.clear();
+		StateInspector.Page second = inspector.page(limiter, StateInspector.Filter.ALL, first.nextCursor(), 150);
+		assertEquals(List.of(1, 2, 3), limiter.walked);
+		assertEquals("1-1050", second.keys().getFirst().key());
+		assertEquals("2-1099", second.keys().getLast().key());
+		assertEquals(150, second.keys().size());
+	}
+
+	@Test
+	void inspectingTheLogLeavesExpiredHitsForTheNextHitToEvict() {
+		InMemoryStore<Deque<Long>> store = new InMemoryStore<>();
+		SlidingWindowLogRateLimiter limiter = new SlidingWindowLogRateLimiter(new SlidingWindowConfig(5, 60), store);
+		long now = System.currentTimeMillis();
+		Deque<Long> deque = new ArrayDeque<>(List.of(now - 120_000, now - 1_000));
+		store.compute("client", (id, old) -> deque);
+
+		StateInspector.Page page = inspector.page(limiter, StateInspector.Filter.ALL, null, 10);
+		assertEquals(1, page.keys().getFirst().state().get("currentWindowSize"));
+		assertEquals(now - 1_000, page.keys().getFirst().state().get("oldestRequestMillis"));
+		assertEquals(2, deque.size());
+	}
+}
@@ -0,0 +1,153 @@
+package com.systemdesign.ratelimiter.service.policy;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RouteMatcherTests {
+
+	private record Request(String method, String path, Map<String, String> headers) {
+	}
+
+	private static final RequestAccessor<Request> ACCESSOR = new RequestAccessor<>() {
+		@Override
+		public String method(Request request) {
+			return request.method();
+		}
+
+		@Override
+		public String path(Request request) {
+			return request.path();
+		}
+
+		@Override
+		public String header(Request request, String name) {
+			return request.headers().get(name);
+		}
+
+		@Override
+		public String remoteAddress(Request request) {
+			return "10.0.0.1";
+		}
+	};
+
+	private static RouteDefinition route(String path, String policy) {
+		return new RouteDefinition(path, null, null, policy, null);
+	}
+
+	// every route gets a policy named after it
+	private static RouteMatcher compile(RouteDefinition... routes) {
+		Map<String, RateLimitPolicy> policies = new HashMap<>();
+		for (RouteDefinition route : routes) {
+			policies.put(route.policy(), new RateLimitPolicy(route.policy(), null, null, null));
+		}
+		return RouteMatcher.compile(List.of(routes), policies);
+	}
+
+	private static String policy(RouteMatcher matcher, String method, String path, Map<String, String> headers) {
+		RouteMatch match = new RouteMatch();
+		return matcher.match(new Request(method, path, headers), ACCESSOR, match) ? match.policy().name() : null;
+	}
+
+	private static String policy(RouteMatcher matcher, String path) {
+		return policy(matcher, "GET", path, Map.of());
+	}
+
+	@Test
+	void literalSegmentsWinOverWildcards() {
+		RouteMatcher matcher = compile(
+				route("/orders/*", "any-order"),
+				route("/orders/export", "export"),
+				route("/orders/{id}/items", "items")
+		);
+		assertEquals("export", policy(matcher, "/orders/export"));
+		assertEquals("any-order", policy(matcher, "/orders/42"));
+		assertEquals("items", policy(matcher, "/orders/42/items"));
+		// the literal branch still answers what the wildcard would
+		assertEquals("items", policy(matcher, "/orders/export/items"));
+		assertNull(policy(matcher, "/orders/42/other"));
+	}
+
+	@Test
+	void equallySpecificRoutesGoInFileOrder() {
+		RouteMatcher matcher = compile(
+				route("/*/items", "first"),
+				route("/orders/*", "second"),
+				route("/{kind}/items", "shadowed")
+		);
+		assertEquals("first", policy(matcher, "/orders/items"));
+		assertEquals("second", policy(matcher, "/orders/42"));
+		assertEquals("first", policy(matcher, "/carts/items"));
+	}
+
+	@Test
+	void catchAllCoversTheRestAndDefersToDeeperRoutes() {
+		RouteMatcher matcher = compile(
+				route("/**", "everything"),
+				route("/admin/**", "admin"),
+				route("/admin/users", "users")
+		);
+		assertEquals("admin", policy(matcher, "/admin"));
+		assertEquals("users", policy(matcher, "/admin/users"));
+		assertEquals("admin", policy(matcher, "/admin/users/5"));
+		assertEquals("admin", policy(matcher, "/admin/a/b/c"));
+		assertEquals("everything", policy(matcher, "/public/page"));
+		assertEquals("everything", policy(matcher, "/"));
+	}
+
+	@Test
+	void methodAndHeaderRulesBreakTiesOnTheSamePath() {
+		RouteMatcher matcher = compile(
+				route("/orders", "plain"),
+				new RouteDefinition("/orders", "post", null, "writes", null),
+				new RouteDefinition("/orders", null, "X-Tier=gold", "gold", null),
+				new RouteDefinition("/orders", null, "X-Tier", "tiered", null)
+		);
+		assertEquals("plain", policy(matcher, "GET", "/orders", Map.of()));
+		assertEquals("writes", policy(matcher, "POST", "/orders", Map.of()));
+		assertEquals("gold", policy(matcher, "GET", "/orders", Map.of("X-Tier", "gold")));
+		assertEquals("tiered", policy(matcher, "GET", "/orders", Map.of("X-Tier", "silver")));
+	}
+
+	@Test
+	void queryStringsAndRepeatedSlashesAreIgnored() {
+		RouteMatcher matcher = compile(route("/orders/export", "export"));
+		assertEquals("export", policy(matcher, "/orders/export?format=csv"));
+		assertEquals("export", policy(matcher, "//orders//export/"));
+		assertNull(policy(matcher, "/orders/exports"));
+	}
+
+	@Test
+	void keysComeFromTheConfiguredHeaderOrFallBackToTheAddress() {
+		RouteMatcher matcher = RouteMatcher.compile(
+				List.of(new RouteDefinition("/orders", null, null, "p", "apiKey")),
+				Map.of("p", new RateLimitPolicy("p", null, null, null))
+		);
+		RouteMatch match = new RouteMatch();
+
+		matcher.match(new Request("GET", "/orders", Map.of("X-API-Key", "key-1")), ACCESSOR, match);
+		assertEquals("key-1", match.key());
+		assertEquals("/orders", match.pattern());
+
+		matcher.match(new Request("GET", "/orders", Map.of()), ACCESSOR, match);
+		assertEquals("10.0.0.1", match.key());
+	}
+
+	@Test
+	void invalidRoutesAreRejectedAtCompileTime() {
+		assertThrows(IllegalArgumentException.class, () -> compile(route("/a/**/b", "p")));
+		assertThrows(IllegalArgumentException.class, () -> compile(route("orders", "p")));
+		assertThrows(IllegalArgumentException.class, () -> RouteMatcher.compile(
+				List.of(route("/orders", "missing")), Map.of()));
+		assertThrows(IllegalArgumentException.class, () -> compile(
+				new RouteDefinition("/orders", null, null, "p", "cookie")));
+		assertFalse(RouteMatcher.EMPTY.match(new Request("GET", "/orders", Map.of()), ACCESSOR, new RouteMatch()));
+	}
+}
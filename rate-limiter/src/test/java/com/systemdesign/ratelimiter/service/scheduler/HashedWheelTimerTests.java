@@ -0,0 +1,111 @@
+package com.systemdesign.ratelimiter.service.scheduler;
+
+import com.systemdesign.ratelimiter.dto.RateLimiterHitResponse;
+import com.systemdesign.ratelimiter.model.TokenBucketConfig;
+import com.systemdesign.ratelimiter.service.algorithm.TokenBucket.TokenBucketRateLimiter;
+import com.systemdesign.ratelimiter.store.InMemoryStores.InMemoryStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HashedWheelTimerTests {
+
+	private HashedWheelTimer timer;
+
+	@AfterEach
+	void close() {
+		timer.close();
+	}
+
+	private static long elapsedMillis(long startNanos) {
+		return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+	}
+
+	@Test
+	void firesNeverBeforeItsDelayAndWithinAFewTicks() throws InterruptedException {
+		timer = new HashedWheelTimer(10, 512);
+		CountDownLatch fired = new CountDownLatch(1);
+		long[] firedAfter = new long[1];
+
+		long start = System.nanoTime();
+		timer.schedule(() -> {
+			firedAfter[0] = elapsedMillis(start);
+			fired.countDown();
+		}, 100);
+
+		assertTrue(fired.await(2, TimeUnit.SECONDS));
+		assertTrue(firedAfter[0] >= 100, "fired after " + firedAfter[0] + " ms");
+		// a tick of rounding plus scheduling noise
+		assertTrue(firedAfter[0] < 300, "fired after " + firedAfter[0] + " ms");
+	}
+
+	@Test
+	void deadlinesSeveralLapsAwayWaitTheirRounds() throws InterruptedException {
+		// 4 slots of 5 ms: a lap is 20 ms, 200 ms is ten laps
+		timer = new HashedWheelTimer(5, 4);
+		List<Long> order = new CopyOnWriteArrayList<>();
+		CountDownLatch fired = new CountDownLatch(3);
+
+		long start = System.nanoTime();
+		for (long delay : new long[]{200, 45, 120}) {
+			timer.schedule(() -> {
+				assertTrue(elapsedMillis(start) >= delay);
+				order.add(delay);
+				fired.countDown();
+			}, delay);
+		}
+
+		assertTrue(fired.await(2, TimeUnit.SECONDS));
+		assertEquals(List.of(45L, 120L, 200L), order);
+	}
+
+	@Test
+	void aCancelledTimeoutNeverFires() throws InterruptedException {
+		timer = new HashedWheelTimer(5, 8);
+		CountDownLatch fired = new CountDownLatch(1);
+
+		HashedWheelTimer.Timeout timeout = timer.schedule(fired::countDown, 50);
+		assertTrue(timeout.cancel());
+		assertFalse(timeout.cancel());
+
+		assertFalse(fired.await(200, TimeUnit.MILLISECONDS));
+		assertTrue(timeout.isCancelled());
+		assertFalse(timeout.isExpired());
+
+		HashedWheelTimer.Timeout expired = timer.schedule(() -> { }, 0);
+		Thread.sleep(100);
+		assertTrue(expired.isExpired());
+		assertFalse(expired.cancel());
+	}
+
+	@Test
+	void cancellingAReservationGivesItsPermitsBack() {
+		timer = new HashedWheelTimer(10, 512);
+		TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(
+				new TokenBucketConfig(2, 1), new InMemoryStore<>(), timer);
+
+		assertTrue(limiter.acquireAsync("client", 2, Duration.ZERO).join().accepted());
+
+		// one token in debt, matures in about a second
+		CompletableFuture<RateLimiterHitResponse> first = limiter.acquireAsync("client", 1, Duration.ofSeconds(5));
+		assertFalse(first.isDone());
+		assertTrue(first.cancel(false));
+
+		// without the release this one would wait about two seconds and be refused
+		CompletableFuture<RateLimiterHitResponse> second =
+				limiter.acquireAsync("client", 1, Duration.ofMillis(1500));
+		assertFalse(second.isDone());
+		second.cancel(false);
+		assertTrue(first.isCancelled());
+	}
+}
@@ -0,0 +1,94 @@
+package com.systemdesign.ratelimiter.startup;
+
+import com.systemdesign.ratelimiter.dto.RateLimiterHitResponse;
+import com.systemdesign.ratelimiter.dto.RateLimiterInitRequest;
+import com.systemdesign.ratelimiter.enums.RateLimiterAlgoType;
+import com.systemdesign.ratelimiter.service.algorithm.FixedWindow.FixedWindowState;
+import com.systemdesign.ratelimiter.service.algorithm.LeakyBucket.LeakyBucketState;
+import com.systemdesign.ratelimiter.service.algorithm.SlidingWindow.SlidingWindowBuckets.SlidingWindowBucketsState;
+import com.systemdesign.ratelimiter.service.algorithm.SlidingWindow.SlidingWindowCounter.SlidingWindowCounterState;
+import com.systemdesign.ratelimiter.service.algorithm.TokenBucket.TokenBucketState;
+import com.systemdesign.ratelimiter.service.cluster.GossipCluster;
+import com.systemdesign.ratelimiter.service.factory.RateLimiterFactory;
+import com.systemdesign.ratelimiter.store.InMemoryStores.InMemoryStore;
+import com.systemdesign.ratelimiter.store.RateLimiterStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.net.DatagramSocket;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WarmUpTests {
+
+	private final InMemoryStore<FixedWindowState> fixedWindow = new InMemoryStore<>();
+	private final InMemoryStore<TokenBucketState> tokenBucket = new InMemoryStore<>();
+	private final InMemoryStore<LeakyBucketState> leakyBucket = new InMemoryStore<>();
+	private final InMemoryStore<SlidingWindowCounterState[]> slidingWindowCounter = new InMemoryStore<>();
+	private final InMemoryStore<SlidingWindowBucketsState> slidingWindowBuckets = new InMemoryStore<>();
+	private final InMemoryStore<Deque<Long>> slidingWindowLog = new InMemoryStore<>();
+
+	private GossipCluster cluster;
+	private RateLimiterFactory factory;
+
+	// the shared /api/init stores and a gossip node, what warm-up must leave alone.
+	// No quota stores: warm-up asking for a named one fails right away
+	@BeforeEach
+	void createFactory() throws IOException {
+		int port;
+		try (DatagramSocket free = new DatagramSocket(0)) {
+			port = free.getLocalPort();
+		}
+		cluster = new GossipCluster("warm-up-test", port, "", 20);
+		cluster.start();
+
+		factory = RateLimiterFactory.builder()
+				.fixedWindowStore(fixedWindow)
+				.tokenBucketStore(tokenBucket)
+				.leakyBucketStore(leakyBucket)
+				.slidingWindowCounterStore(slidingWindowCounter)
+				.slidingWindowBucketsStore(slidingWindowBuckets)
+				.slidingWindowLogStore(slidingWindowLog)
+				.cluster(cluster)
+				.blockedCacheSize(64)
+				.build();
+	}
+
+	@AfterEach
+	void stopCluster() throws IOException {
+		cluster.stop();
+	}
+
+	private static int keys(RateLimiterStore<?> store) {
+		AtomicInteger keys = new AtomicInteger();
+		store.forEach((key, state) -> keys.incrementAndGet());
+		return keys.get();
+	}
+
+	@Test
+	void warmUpLeavesNoStateBehind() {
+		new WarmUp(factory, JsonMapper.builder().build(), 2_000, 16).afterSingletonsInstantiated();
+
+		for (RateLimiterStore<?> store : List.of(fixedWindow, tokenBucket, leakyBucket,
+				slidingWindowCounter, slidingWindowBuckets, slidingWindowLog)) {
+			assertEquals(0, keys(store));
+		}
+		assertEquals(0, cluster.node().stats().keys());
+
+		// a key warm-up hammered starts with the full limit on the real limiter
+		RateLimiterInitRequest request = new RateLimiterInitRequest();
+		request.setAlgorithm(RateLimiterAlgoType.FIXED_WINDOW);
+		request.setMaxRequests(5);
+		request.setWindowSize(1L);
+		RateLimiterHitResponse first = factory.createRateLimiter(request).hitEndpoint("warmup-0");
+		assertTrue(first.accepted());
+		assertEquals(4, first.remainingHits());
+	}
+}
@@ -0,0 +1,88 @@
+package com.systemdesign.ratelimiter.store.InMemoryStores;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class InMemoryStoreTests {
+
+	private static Integer get(InMemoryStore<Integer> store, String key) {
+		return store.compute(key, (id, value) -> value);
+	}
+
+	private static void put(InMemoryStore<Integer> store, String key, int value) {
+		store.compute(key, (id, old) -> value);
+	}
+
+	@Test
+	void resetHidesEveryEntryAndTheSweepReclaimsThem() throws InterruptedException {
+		InMemoryStore<Integer> store = new InMemoryStore<>();
+		for (int i = 0; i < 10_000; i++) {
+			put(store, "client-" + i, i);
+		}
+
+		store.reset();
+		assertNull(get(store, "client-1"));
+
+		put(store, "client-2", 42);
+		assertEquals(42, get(store, "client-2"));
+
+		long deadline = System.currentTimeMillis() + 5_000;
+		while (store.mappedEntries() > 1 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertEquals(1, store.mappedEntries());
+	}
+
+	@Test
+	void prefixResetOnlyTouchesMatchingKeys() {
+		InMemoryStore<Integer> store = new InMemoryStore<>();
+		put(store, "tenant-a:1", 1);
+		put(store, "tenant-a:2", 2);
+		put(store, "tenant-b:1", 3);
+
+		store.reset("tenant-a:");
+		assertNull(get(store, "tenant-a:1"));
+		assertNull(get(store, "tenant-a:2"));
+		assertEquals(3, get(store, "tenant-b:1"));
+
+		// written after the reset, so it counts again
+		put(store, "tenant-a:1", 4);
+		assertEquals(4, get(store, "tenant-a:1"));
+	}
+
+	@Test
+	void replaceAllKeepsEveryIncrementThatRacesIt() throws InterruptedException {
+		InMemoryStore<Integer> store = new InMemoryStore<>();
+		int keys = 8;
+		int increments = 20_000;
+		for (int k = 0; k < keys; k++) {
+			put(store, "client-" + k, 0);
+		}
+
+		List<Thread> writers = new ArrayList<>();
+		for (int t = 0; t < 4; t++) {
+			writers.add(Thread.ofPlatform().start(() -> {
+				for (int i = 0; i < increments; i++) {
+					store.compute("client-" + (i % keys), (id, value) -> value + 1);
+				}
+			}));
+		}
+		int rounds = 0;
+		while (writers.stream().anyMatch(Thread::isAlive)) {
+			store.replaceAll((id, value) -> value + 1_000);
+			rounds++;
+		}
+		for (Thread writer : writers) {
+			writer.join();
+		}
+
+		for (int k = 0; k < keys; k++) {
+			assertEquals(rounds * 1_000 + 4 * increments / keys, get(store, "client-" + k));
+		}
+	}
+}
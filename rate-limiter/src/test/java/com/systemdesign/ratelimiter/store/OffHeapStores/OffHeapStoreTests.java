@@ -0,0 +1,193 @@
+package com.systemdesign.ratelimiter.store.OffHeapStores;
+
+import com.systemdesign.ratelimiter.service.algorithm.FixedWindow.FixedWindowState;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// One stripe of 16 slots, so keys can be picked to share home slots and probe runs
+class OffHeapStoreTests {
+
+	private static final int CAPACITY = 16;
+
+	@TempDir
+	Path directory;
+
+	private static OffHeapStore<FixedWindowState> store() {
+		return new OffHeapStore<>(new FixedWindowStateCodec(), 1, CAPACITY);
+	}
+
+	private static void put(OffHeapStore<FixedWindowState> store, String key, int count) {
+		store.compute(key, (id, state) -> new FixedWindowState(count, 0));
+	}
+
+	private static FixedWindowState get(OffHeapStore<FixedWindowState> store, String key) {
+		return store.compute(key, (id, state) -> state);
+	}
+
+	// keys prefix0, prefix1, ... whose home slot in a table of `capacity` slots is `home`
+	private static List<String> keysAt(int home, int capacity, String prefix, int count) {
+		List<String> keys = new ArrayList<>();
+		for (int i = 0; keys.size() < count; i++) {
+			String key = prefix + i;
+			if (((int) OffHeapStore.keyHash(key) & (capacity - 1)) == home) {
+				keys.add(key);
+			}
+		}
+		return keys;
+	}
+
+	private static void assertAllFound(OffHeapStore<FixedWindowState> store, List<String> keys) {
+		for (int i = 0; i < keys.size(); i++) {
+			FixedWindowState state = get(store, keys.get(i));
+			assertEquals(i, state == null ? -1 : state.requestCount(), keys.get(i));
+		}
+	}
+
+	@Test
+	void deletesInsideAProbeRunKeepTheRestReachable() {
+		for (int home : new int[]{3, 14}) {
+			OffHeapStore<FixedWindowState> store = store();
+			// home 14: the run takes 14, 15, 0, 1, 2 and wraps around the end of the table
+			List<String> run = new ArrayList<>(keysAt(home, CAPACITY, "run-", 4));
+			// sits in its own home slot inside the run, the shifts must go around it, never in front of it
+			// (home 14: in slot 0, after the wrap)
+			String atHome = keysAt((home + 2) & (CAPACITY - 1), CAPACITY, "next-", 1).get(0);
+			put(store, run.get(0), 0);
+			put(store, run.get(1), 1);
+			put(store, atHome, 99);
+			for (int i = 2; i < run.size(); i++) {
+				put(store, run.get(i), i);
+			}
+
+			store.compute(run.get(0), (id, state) -> null);
+			run.remove(0);
+			store.compute(run.get(1), (id, state) -> null);
+			run.remove(1);
+
+			assertEquals(3, store.size());
+			assertEquals(99, get(store, atHome).requestCount());
+			for (String key : run) {
+				assertTrue(get(store, key) != null, key);
+			}
+			// writing the survivors again must find them, not add a second copy
+			for (String key : run) {
+				put(store, key, 1);
+			}
+			put(store, atHome, 1);
+			assertEquals(3, store.size());
+		}
+	}
+
+	@Test
+	void growingRehashesKeysThatCollided() {
+		OffHeapStore<FixedWindowState> store = store();
+		long before = store.offHeapBytes();
+		// 12 entries cross the 0.7 load factor of 16 slots, all of them wanted the same slot
+		List<String> keys = keysAt(5, CAPACITY, "client-", 12);
+		for (int i = 0; i < keys.size(); i++) {
+			put(store, keys.get(i), i);
+		}
+
+		assertEquals(2 * before, store.offHeapBytes());
+		assertEquals(12, store.size());
+		assertAllFound(store, keys);
+	}
+
+	@Test
+	void reserveGrowsAheadOfTheInsertThatWouldGrow() {
+		OffHeapStore<FixedWindowState> store = store();
+		long before = store.offHeapBytes();
+		List<String> keys = keysAt(5, CAPACITY, "client-", 12);
+		for (int i = 0; i < 11; i++) {
+			put(store, keys.get(i), i);
+		}
+
+		// a key that is there already needs no room
+		store.reserve(keys.get(0));
+		assertEquals(before, store.offHeapBytes());
+
+		store.reserve(keys.get(11));
+		assertEquals(2 * before, store.offHeapBytes());
+		put(store, keys.get(11), 11);
+		assertEquals(2 * before, store.offHeapBytes());
+		assertAllFound(store, keys);
+	}
+
+	@Test
+	void longKeysWithTheSameInlinePrefixStayApart() {
+		OffHeapStore<FixedWindowState> store = store();
+		String prefix = "tenant-0042:user-000";
+		assertEquals(20, prefix.length());
+		String first = prefix + "12345-a";
+		String second = prefix + "12345-b";
+
+		put(store, first, 1);
+		put(store, second, 2);
+		assertEquals(2, store.size());
+		assertEquals(1, get(store, first).requestCount());
+		assertEquals(2, get(store, second).requestCount());
+
+		store.compute(first, (id, state) -> null);
+		assertNull(get(store, first));
+		assertEquals(2, get(store, second).requestCount());
+
+		// only the inline prefix comes back from a scan
+		List<String> scanned = new ArrayList<>();
+		store.forEach((key, state) -> scanned.add(key));
+		assertEquals(List.of(prefix), scanned);
+	}
+
+	@Test
+	void resetByPrefixRemovesEntriesThatWereShiftedIntoPlace() {
+		OffHeapStore<FixedWindowState> store = store();
+		// two interleaved tenants in one wrapped run, every delete shifts the next entry back
+		List<String> a = keysAt(15, CAPACITY, "a:", 4);
+		List<String> b = keysAt(15, CAPACITY, "b:", 4);
+		for (int i = 0; i < 4; i++) {
+			put(store, a.get(i), i);
+			put(store, b.get(i), i);
+		}
+
+		store.reset("a:");
+
+		assertEquals(4, store.size());
+		for (String key : a) {
+			assertNull(get(store, key), key);
+		}
+		assertAllFound(store, b);
+	}
+
+	@Test
+	void mappedTablesAreReadBackOnReopen() {
+		FixedWindowStateCodec codec = new FixedWindowStateCodec();
+		long slotSize = OffHeapStore.slotSize(codec);
+		List<String> keys = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			keys.add("client-" + i);
+		}
+
+		// grows past the first file of every stripe
+		OffHeapStore<FixedWindowState> store = new OffHeapStore<>(codec, 2, CAPACITY, new MappedTables(directory, 2, slotSize));
+		for (int i = 0; i < keys.size(); i++) {
+			put(store, keys.get(i), i);
+		}
+		store.flush();
+
+		OffHeapStore<FixedWindowState> reopened = new OffHeapStore<>(codec, 2, CAPACITY, new MappedTables(directory, 2, slotSize));
+		assertEquals(100, reopened.size());
+		assertEquals(store.offHeapBytes(), reopened.offHeapBytes());
+		assertAllFound(reopened, keys);
+
+		// another stripe count would send keys to the wrong tables
+		assertThrows(IllegalStateException.class, () -> new MappedTables(directory, 4, slotSize));
+	}
+}
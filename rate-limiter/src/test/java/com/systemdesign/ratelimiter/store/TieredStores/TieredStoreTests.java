@@ -0,0 +1,105 @@
+package com.systemdesign.ratelimiter.store.TieredStores;
+
+import com.systemdesign.ratelimiter.enums.QuotaPeriod;
+import com.systemdesign.ratelimiter.model.QuotaConfig;
+import com.systemdesign.ratelimiter.service.algorithm.Quota.QuotaRateLimiter;
+import com.systemdesign.ratelimiter.service.algorithm.Quota.QuotaState;
+import com.systemdesign.ratelimiter.store.OffHeapStores.MappedTables;
+import com.systemdesign.ratelimiter.store.OffHeapStores.OffHeapStore;
+import com.systemdesign.ratelimiter.store.OffHeapStores.QuotaStateCodec;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TieredStoreTests {
+
+	private static final long IDLE_MILLIS = 60_000;
+
+	@TempDir
+	Path directory;
+
+	// the mover thread never runs on its own here, the tests call moveOnce
+	private TieredStore<QuotaState> open() {
+		QuotaStateCodec codec = new QuotaStateCodec();
+		MappedTables tables = new MappedTables(directory, 4, OffHeapStore.slotSize(codec));
+		return new TieredStore<>(new OffHeapStore<>(codec, 4, 16, tables), IDLE_MILLIS, Long.MAX_VALUE);
+	}
+
+	private static QuotaState get(TieredStore<QuotaState> store, String key) {
+		return store.compute(key, (id, state) -> state);
+	}
+
+	@Test
+	void idleKeysAreDemotedAndPromotedBackOnTheNextHit() {
+		TieredStore<QuotaState> store = open();
+		for (int i = 0; i < 100; i++) {
+			store.compute("client-" + i, (id, state) -> new QuotaState(7, 0));
+		}
+		assertEquals(100, store.hotSize());
+
+		long now = System.currentTimeMillis();
+		store.moveOnce(now);
+		// written back, still hot
+		assertEquals(100, store.hotSize());
+		assertEquals(100, store.coldSize());
+
+		store.moveOnce(now + IDLE_MILLIS);
+		assertEquals(0, store.hotSize());
+		assertEquals(100, store.demotions());
+
+		assertEquals(7, get(store, "client-42").used());
+		assertEquals(1, store.hotSize());
+		assertEquals(1, store.promotions());
+		store.close();
+	}
+
+	@Test
+	void removalsReachTheColdTier() {
+		TieredStore<QuotaState> store = open();
+		store.compute("client", (id, state) -> new QuotaState(1, 0));
+		store.moveOnce(System.currentTimeMillis() + IDLE_MILLIS);
+
+		store.compute("client", (id, state) -> null);
+		assertEquals(0, store.coldSize());
+		assertNull(get(store, "client"));
+		store.close();
+	}
+
+	@Test
+	void quotaCountsSurviveARestart() {
+		QuotaConfig config = new QuotaConfig(3, QuotaPeriod.DAY);
+
+		TieredStore<QuotaState> store = open();
+		QuotaRateLimiter limiter = new QuotaRateLimiter(config, store);
+		assertTrue(limiter.hitEndpoint("client").accepted());
+		assertTrue(limiter.hitEndpoint("client").accepted());
+		store.close();
+
+		TieredStore<QuotaState> reopened = open();
+		limiter = new QuotaRateLimiter(config, reopened);
+		assertTrue(limiter.hitEndpoint("client").accepted());
+		assertFalse(limiter.hitEndpoint("client").accepted());
+		assertTrue(limiter.hitEndpoint("other").accepted());
+		reopened.close();
+
+		// a count from an earlier period does not hold anyone back
+		TieredStore<QuotaState> nextDay = open();
+		long yesterday = QuotaPeriod.DAY.start(System.currentTimeMillis()) - 1;
+		nextDay.compute("client", (id, state) -> new QuotaState(3, QuotaPeriod.DAY.start(yesterday)));
+		assertTrue(new QuotaRateLimiter(config, nextDay).hitEndpoint("client").accepted());
+		nextDay.close();
+	}
+
+	@Test
+	void aDirectoryWithAnotherLayoutIsRefused() {
+		open().close();
+		assertThrows(IllegalStateException.class, () -> new MappedTables(directory, 8, 80));
+	}
+}
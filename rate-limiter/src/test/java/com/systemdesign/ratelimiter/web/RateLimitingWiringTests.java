@@ -0,0 +1,103 @@
+package com.systemdesign.ratelimiter.web;
+
+import com.systemdesign.ratelimiter.dto.RateLimiterInitRequest;
+import com.systemdesign.ratelimiter.enums.RateLimiterAlgoType;
+import com.systemdesign.ratelimiter.service.policy.PolicyDocument;
+import com.systemdesign.ratelimiter.service.policy.PolicyRegistry;
+import com.systemdesign.ratelimiter.service.policy.RouteDefinition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "ratelimiter.inline.path-patterns=/api/policies")
+@AutoConfigureMockMvc
+class RateLimitingWiringTests {
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private PolicyRegistry registry;
+
+	// two requests per hour per caller on everything under /api and /orders
+	@BeforeEach
+	void loadPolicies() {
+		RateLimiterInitRequest twoPerHour = new RateLimiterInitRequest();
+		twoPerHour.setAlgorithm(RateLimiterAlgoType.FIXED_WINDOW);
+		twoPerHour.setMaxRequests(2);
+		twoPerHour.setWindowSize(3600L);
+
+		// a fresh name each time, so every test starts with empty counters
+		String name = "two-per-hour-" + System.nanoTime();
+		registry.apply(new PolicyDocument(
+				Map.of(name, twoPerHour),
+				List.of(
+						new RouteDefinition("/api/**", null, null, name, null),
+						new RouteDefinition("/orders/**", null, null, name, null)
+				)
+		));
+	}
+
+	@Test
+	void interceptorLimitsTheConfiguredPathsOnly() throws Exception {
+		mvc.perform(get("/api/policies"))
+				.andExpect(status().isOk())
+				.andExpect(header().string("X-RateLimit-Remaining", "1"));
+		mvc.perform(get("/api/policies"))
+				.andExpect(status().isOk())
+				.andExpect(header().string("X-RateLimit-Remaining", "0"));
+		mvc.perform(get("/api/policies"))
+				.andExpect(status().isTooManyRequests())
+				.andExpect(header().exists("Retry-After"));
+
+		// matched by a route, but outside ratelimiter.inline.path-patterns
+		for (int i = 0; i < 3; i++) {
+			mvc.perform(get("/api/admin/store-guards"))
+					.andExpect(status().isOk())
+					.andExpect(header().doesNotExist("X-RateLimit-Policy"));
+		}
+	}
+
+	@Test
+	void filterPassesAdmittedRequestsOnAndAnswersTheRest() throws Exception {
+		RateLimitingFilter filter = new RateLimitingFilter(registry);
+
+		for (int i = 0; i < 2; i++) {
+			MockFilterChain chain = new MockFilterChain();
+			MockHttpServletResponse response = new MockHttpServletResponse();
+			filter.doFilter(new MockHttpServletRequest("GET", "/orders/1"), response, chain);
+			assertNotNull(chain.getRequest());
+			assertEquals(String.valueOf(1 - i), response.getHeader("X-RateLimit-Remaining"));
+		}
+
+		MockFilterChain blocked = new MockFilterChain();
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(new MockHttpServletRequest("GET", "/orders/1"), response, blocked);
+		assertNull(blocked.getRequest());
+		assertEquals(ServletRateLimiting.TOO_MANY_REQUESTS, response.getStatus());
+		assertNotNull(response.getHeader("Retry-After"));
+
+		// no route, no limit and no headers
+		MockFilterChain unmatched = new MockFilterChain();
+		MockHttpServletResponse passed = new MockHttpServletResponse();
+		filter.doFilter(new MockHttpServletRequest("GET", "/health"), passed, unmatched);
+		assertNotNull(unmatched.getRequest());
+		assertNull(passed.getHeader("X-RateLimit-Policy"));
+	}
+}
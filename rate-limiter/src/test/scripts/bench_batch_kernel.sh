@@ -0,0 +1,15 @@
+#!/bin/bash
+
+# JMH: token bucket decisions per key (TokenBucketRateLimiter) vs columnar batches (scalar / Vector API kernel)
+# run from rate-limiter/, extra args go to JMH, e.g. -p keys=65536 -f 3
+echo "========================================"
+echo " Batch kernel benchmark"
+echo "========================================"
+
+./mvnw -q -f ../pom.xml install -DskipTests
+./mvnw -q -Pjmh clean verify -DskipTests "-Djmh.args=BucketBatchBenchmark $*"
+
+echo
+echo "========================================"
+echo " Done (ns per decision, lower is better)"
+echo "========================================"
@@ -0,0 +1,34 @@
+#!/bin/bash
+
+# Run the service with the binary endpoint enabled first:
+#   ./mvnw spring-boot:run -Dspring-boot.run.arguments=--ratelimiter.binary.port=7070
+
+BASE_URL="http://localhost:8080/api"
+
+echo "========================================"
+echo " Benchmark: REST /api/hit vs binary protocol"
+echo "========================================"
+
+echo
+echo "Initializing a TOKEN BUCKET large enough to allow everything"
+# Expected: success
+curl -s -X POST "$BASE_URL/init" \
+  -H "Content-Type: application/json" \
+  -d '{
+        "algorithm": "TOKEN_BUCKET",
+        "bucketCapacity": 100000000,
+        "refillRate": 100000000
+      }'
+echo
+echo
+
+# args: host httpPort binaryPort requests concurrency
+./mvnw -q test-compile exec:java \
+  -Dexec.classpathScope=test \
+  -Dexec.mainClass=com.systemdesign.ratelimiter.bench.DecisionProtocolBenchmark \
+  -Dexec.args="localhost 8080 7070 ${1:-200000} ${2:-64}"
+
+echo
+echo "========================================"
+echo " Done"
+echo "========================================"
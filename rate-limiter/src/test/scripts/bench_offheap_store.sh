@@ -0,0 +1,29 @@
+#!/bin/bash
+
+# Heap / GC comparison of the token bucket store backends, run from rate-limiter/
+# args: keys seconds heap
+KEYS=${1:-5000000}
+SECONDS_TO_RUN=${2:-30}
+HEAP=${3:-4g}
+
+echo "========================================"
+echo " Benchmark: InMemoryStore vs OffHeapStore"
+echo " keys=$KEYS, ${SECONDS_TO_RUN}s, -Xmx$HEAP, G1"
+echo "========================================"
+
+./mvnw -q -f ../pom.xml test-compile
+
+CLASSPATH="../rate-limiter-core/target/classes:target/test-classes"
+
+for STORE in memory offheap
+do
+  echo
+  echo "---- $STORE ----"
+  java -Xmx"$HEAP" -XX:+UseG1GC -cp "$CLASSPATH" \
+    com.systemdesign.ratelimiter.bench.StoreGcBenchmark "$STORE" "$KEYS" "$SECONDS_TO_RUN" 4
+done
+
+echo
+echo "========================================"
+echo " Done"
+echo "========================================"
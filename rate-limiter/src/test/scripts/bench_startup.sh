@@ -0,0 +1,38 @@
+#!/bin/bash
+
+# Time to first decision and time to peak throughput of a freshly started replica, run from rate-limiter/
+# Builds the jar and the AOT cache first (JDK 25), every variant then launches it --runs times on its own port.
+# args: runs seconds concurrency
+# Before JDK 25 pass a CDS archive instead:
+#   AOT_OPTIONS="-Daot.training.options=-XX:ArchiveClassesAtExit=target/aot/app.jsa" \
+#   VARIANTS="cold=-Dratelimiter.warmup.iterations=0;warm=;warm+cds=-XX:SharedArchiveFile=target/aot/app.jsa" \
+#   src/test/scripts/bench_startup.sh
+RUNS=${1:-3}
+SECONDS_TO_RUN=${2:-15}
+CONCURRENCY=${3:-32}
+VARIANTS=${VARIANTS:-"cold=-Dratelimiter.warmup.iterations=0;warm=;warm+aot=-XX:AOTCache=target/aot/app.aot"}
+
+echo "========================================"
+echo " Building the jar and the startup cache"
+echo "========================================"
+./mvnw -q -f ../pom.xml install -DskipTests
+./mvnw -q -Paot-cache package -DskipTests $AOT_OPTIONS
+
+echo
+echo "========================================"
+echo " Startup: $RUNS runs per variant, ${SECONDS_TO_RUN}s of load, $CONCURRENCY workers"
+echo " $VARIANTS"
+echo "========================================"
+
+./mvnw -q test-compile exec:java \
+  -Dexec.classpathScope=test \
+  -Dexec.mainClass=com.systemdesign.ratelimiter.bench.StartupBenchmark \
+  -Dstartup.runs="$RUNS" \
+  -Dstartup.seconds="$SECONDS_TO_RUN" \
+  -Dstartup.concurrency="$CONCURRENCY" \
+  "-Dstartup.variants=$VARIANTS"
+
+echo
+echo "========================================"
+echo " Done, service output in target/startup-*.log"
+echo "========================================"
@@ -0,0 +1,27 @@
+#!/bin/bash
+
+# Open model HTTP load test of /api/hit, run from rate-limiter/
+# The service must already be running with the client id header enabled:
+#   ./mvnw spring-boot:run -Dspring-boot.run.arguments=--ratelimiter.hit.client-id-header=X-Client-Id
+# args: rate(req/s) seconds keys algorithms
+RATE=${1:-2000}
+SECONDS_TO_RUN=${2:-20}
+KEYS=${3:-1,1000,100000}
+ALGORITHMS=${4:-FIXED_WINDOW,TOKEN_BUCKET,SLIDING_WINDOW_LOG,SLIDING_WINDOW_COUNTER,SLIDING_WINDOW_BUCKETS,LEAKY_BUCKET}
+
+echo "========================================"
+echo " HTTP load test: $RATE req/s, ${SECONDS_TO_RUN}s per run"
+echo " keys=$KEYS"
+echo "========================================"
+
+./mvnw -q -Pload-test verify -DskipTests \
+  -Dloadtest.url=http://localhost:8080 \
+  -Dloadtest.rate="$RATE" \
+  -Dloadtest.duration="$SECONDS_TO_RUN" \
+  -Dloadtest.keys="$KEYS" \
+  -Dloadtest.algorithms="$ALGORITHMS"
+
+echo
+echo "========================================"
+echo " Percentile distributions in target/loadtest/*.hgrm"
+echo "========================================"
@@ -0,0 +1,59 @@
+#!/bin/bash
+
+BASE_URL="http://localhost:8080/api"
+
+echo "=============================================="
+echo " Testing SLIDING WINDOW BUCKETS (EDGE BURST)"
+echo " maxRequests=5, windowSize=10s, subBuckets=10"
+echo "=============================================="
+
+echo
+echo "Initializing SLIDING WINDOW BUCKETS limiter"
+# Expected: success
+curl -s -X POST "$BASE_URL/init" \
+  -H "Content-Type: application/json" \
+  -d '{
+        "algorithm": "SLIDING_WINDOW_BUCKETS",
+        "maxRequests": 5,
+        "windowSize": 10,
+        "subBuckets": 10
+      }'
+echo
+echo
+
+echo "---- Phase 1: Burst ----"
+echo "# Expected: ALLOWED x5, BLOCKED"
+
+for i in {1..6}
+do
+  echo "Request $i:"
+  curl -s "$BASE_URL/hit"
+  echo
+done
+
+echo
+echo "---- Phase 2: Half window later (t ≈ 5s) ----"
+echo "# Expected: BLOCKED (the burst is still fully inside the window)"
+
+sleep 5
+
+curl -s "$BASE_URL/hit"
+echo
+
+echo
+echo "---- Phase 3: Window fully slides (t ≈ 11s) ----"
+echo "# Expected: ALLOWED x5, BLOCKED"
+
+sleep 6
+
+for i in {1..6}
+do
+  echo "Post-slide Request $i:"
+  curl -s "$BASE_URL/hit"
+  echo
+done
+
+echo
+echo "=============================================="
+echo " Done"
+echo "=============================================="